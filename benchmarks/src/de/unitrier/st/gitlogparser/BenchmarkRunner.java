@@ -0,0 +1,23 @@
+package de.unitrier.st.gitlogparser;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// runs the benchmarks with the GC profiler (allocation rate per operation),
+// accepts the usual JMH options (e.g. "EndToEnd -p sizeInMB=256 -rf json")
+class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                // the logs are UTF-8, the readers use the default charset
+                .jvmArgsAppend("-Dfile.encoding=UTF-8")
+                .build();
+        new Runner(options).run();
+    }
+}
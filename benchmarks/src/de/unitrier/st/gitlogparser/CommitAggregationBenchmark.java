@@ -0,0 +1,65 @@
+package de.unitrier.st.gitlogparser;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// aggregation of the file stats of parsed commits for the output, the score is the time per commit
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CommitAggregationBenchmark {
+    private static final int COMMIT_COUNT = 10000;
+
+    private Commit[] commits;
+
+    @Setup
+    public void setup() throws IOException {
+        SyntheticLogGenerator generator = new SyntheticLogGenerator(42);
+        List<Commit> parsedCommits = new ArrayList<>();
+        CommitParser commitParser = new CommitParser(new String[0], false);
+        while (parsedCommits.size() < COMMIT_COUNT) {
+            StringBuilder log = new StringBuilder();
+            generator.write(log, "commits", 1024 * 1024);
+            ParseContext context = new ParseContext("synthetic_project", "master");
+            try (LogLineReader reader = new BufferedLogLineReader(new BufferedReader(new StringReader(log.toString())))) {
+                commitParser.parse(reader, context, parsedCommits::add);
+            }
+        }
+        commits = parsedCommits.subList(0, COMMIT_COUNT).toArray(new Commit[0]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COMMIT_COUNT)
+    public void getFileExtensions(Blackhole blackhole) {
+        for (Commit commit : commits) {
+            blackhole.consume(commit.getFileExtensions());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COMMIT_COUNT)
+    public void getLinesAddedAndDeleted(Blackhole blackhole) {
+        for (Commit commit : commits) {
+            blackhole.consume(commit.getLinesAdded());
+            blackhole.consume(commit.getLinesDeleted());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COMMIT_COUNT)
+    public void getValuesCommits(Blackhole blackhole) {
+        for (Commit commit : commits) {
+            blackhole.consume(commit.getValuesCommits());
+        }
+    }
+}
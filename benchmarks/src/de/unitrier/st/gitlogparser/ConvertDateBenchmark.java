@@ -0,0 +1,36 @@
+package de.unitrier.st.gitlogparser;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// conversion of git dates to the timestamp format of the output, the score is the time per date
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ConvertDateBenchmark {
+    private static final int DATE_COUNT = 1024;
+
+    private String[] dates;
+
+    @Setup
+    public void setup() {
+        SyntheticLogGenerator generator = new SyntheticLogGenerator(42);
+        dates = new String[DATE_COUNT];
+        for (int i = 0; i < DATE_COUNT; i++) {
+            dates[i] = generator.date();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATE_COUNT)
+    public void convertDate(Blackhole blackhole) {
+        for (String date : dates) {
+            blackhole.consume(CommitParser.convertDate(date));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package de.unitrier.st.gitlogparser;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// parsing a generated log file and writing the CSV file on one thread (or on a writer thread with async),
+// besides the files per second, the throughput is reported as "megabytes" (MB/s) and "commits" (commits/s)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class EndToEndBenchmark {
+    @Param({"64"})
+    public int sizeInMB;
+
+    @Param({"commits", "merges"})
+    public String type;
+
+    @Param({"buffered", "mmap"})
+    public String reader;
+
+    @Param({"sync", "async"})
+    public String writer;
+
+    private Path inputDir;
+    private Path outputDir;
+    private LogFile logFile;
+    private CommitParser commitParser;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Throughput {
+        public double megabytes;
+        public long commits;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        inputDir = Files.createTempDirectory("gitlogparser-input");
+        outputDir = Files.createTempDirectory("gitlogparser-output");
+        Path logPath = new SyntheticLogGenerator(42)
+                .generate(inputDir, "synthetic_project", "master", type, sizeInMB * 1024L * 1024L);
+        logFile = LogFile.of(logPath.toFile());
+        // as GitLogParser without the column log_message, only the length of the messages is computed
+        commitParser = new CommitParser(PathFilter.ofExtensions(new String[0]), false, new RunMetrics(0, 0), 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        for (Path directory : new Path[]{inputDir, outputDir}) {
+            File[] files = directory.toFile().listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    Files.delete(file.toPath());
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    @Benchmark
+    public int parseFileToCsv(Throughput throughput) throws IOException {
+        File file = logFile.getFile();
+        ParseContext context = new ParseContext(logFile.getProject(), logFile.getBranch());
+        Path targetFilePath = outputDir.resolve(logFile.getOutputFileName(".csv"));
+        try (LogLineReader lineReader = reader.equals("mmap")
+                ? new MappedLogLineReader(file.toPath())
+                : new BufferedLogLineReader(new FileInputStream(file), StandardCharsets.UTF_8);
+             CommitSink sink = writer.equals("async")
+                     ? new AsyncCsvCommitSink(targetFilePath, logFile.getType())
+                     : new CsvCommitSink(targetFilePath, logFile.getType())) {
+            commitParser.parse(lineReader, context, sink);
+        }
+        throughput.megabytes += file.length() / (1024.0 * 1024.0);
+        throughput.commits += context.getCommitCount();
+        return context.getCommitCount();
+    }
+}
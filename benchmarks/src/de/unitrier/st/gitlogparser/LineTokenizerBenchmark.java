@@ -0,0 +1,74 @@
+package de.unitrier.st.gitlogparser;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// classification of header lines (author, dates, ...) and body lines (file stats, log message) of a generated log,
+// the score is the time per line
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LineTokenizerBenchmark {
+    private static final int LINE_COUNT = 1 << 16;
+
+    @Param({"fast", "regex"})
+    public String tokenizer;
+
+    private LineTokenizer lineTokenizer;
+    private String[] headerLines;
+    private String[] bodyLines;
+
+    @Setup
+    public void setup() throws IOException {
+        lineTokenizer = LineTokenizer.create(tokenizer.equals("regex"));
+
+        StringBuilder log = new StringBuilder();
+        new SyntheticLogGenerator(42).write(log, "commits", 4 * 1024 * 1024);
+
+        // split the lines as the parser does, header lines follow the commit line until the first blank line
+        List<String> header = new ArrayList<>();
+        List<String> body = new ArrayList<>();
+        boolean readingHeader = false;
+        BufferedReader reader = new BufferedReader(new StringReader(log.toString()));
+        String line;
+        while ((line = reader.readLine()) != null && (header.size() < LINE_COUNT || body.size() < LINE_COUNT)) {
+            if (line.startsWith("commit ")) {
+                readingHeader = true;
+                body.add(line);
+            } else if (readingHeader) {
+                header.add(line);
+                readingHeader = !line.isEmpty();
+            } else {
+                body.add(line);
+            }
+        }
+        headerLines = header.subList(0, Math.min(header.size(), LINE_COUNT)).toArray(new String[0]);
+        bodyLines = body.subList(0, Math.min(body.size(), LINE_COUNT)).toArray(new String[0]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINE_COUNT)
+    public void classifyHeaderLines(Blackhole blackhole) {
+        for (String line : headerLines) {
+            blackhole.consume(lineTokenizer.classifyHeaderLine(line));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINE_COUNT)
+    public void classifyBodyLines(Blackhole blackhole) {
+        for (String line : bodyLines) {
+            blackhole.consume(lineTokenizer.classifyBodyLine(line));
+        }
+    }
+}
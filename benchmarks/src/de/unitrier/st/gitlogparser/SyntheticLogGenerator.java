@@ -0,0 +1,210 @@
+package de.unitrier.st.gitlogparser;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+// generates logs in the format of "git log --pretty=fuller --date=iso --numstat",
+// with a configurable mix of commit shapes (the generated logs are reproducible for a given seed)
+class SyntheticLogGenerator {
+    private static final String[] names = {
+            "Alice Smith", "Bob", "Carol Jones", "dev", "Build Bot", "Dan O'Neil"
+    };
+    private static final String[] nonAsciiNames = {
+            "José Núñez", "李雷", "Jürgen Groß", "Łukasz Żółć", "Сергей Иванов"
+    };
+    private static final String[] domains = {"example.com", "users.noreply.github.com", "mail.org", "ñ.es"};
+    private static final String[] directories = {
+            "", "src/", "src/main/java/de/unitrier/st/", "lib/", "test/unit/", "docs/", "vendor/assets/javascripts/"
+    };
+    private static final String[] extensions = {
+            "java", "java", "java", "rb", "rb", "js", "min.js", "py", "c", "h", "md", "xml", "yml", ""
+    };
+    private static final String[] binaryExtensions = {"png", "jpg", "jar", "gif", "pdf"};
+    private static final String[] subjects = {
+            "Fix typo", "Add tests for the parser", "Refactor configuration loading",
+            "Update dependencies", "Remove unused imports", "Improve error messages of the CLI"
+    };
+    private static final String[] nonAsciiSubjects = {
+            "Übersetzung aktualisiert", "修复内存泄漏", "Corrige l'encodage des caractères spéciaux", "Обновить документацию"
+    };
+    private static final String[] words = {
+            "the", "parser", "commit", "branch", "merge", "file", "log", "value", "handle", "when", "missing", "case"
+    };
+
+    private final Random random;
+    private double nonAsciiRatio = 0.1; // commits with non-ASCII names and messages
+    private double longMessageRatio = 0.05; // commits with a message of 20-60 lines
+    private double manyFilesRatio = 0.02; // commits with 100-500 numstat lines
+    private double binaryFileRatio = 0.05; // numstat lines of binary files ("-\t-\tpath")
+    private double pullRequestRatio = 0.6; // merges of pull requests (only merge logs)
+
+    SyntheticLogGenerator(long seed) {
+        random = new Random(seed);
+    }
+
+    void setNonAsciiRatio(double nonAsciiRatio) {
+        this.nonAsciiRatio = nonAsciiRatio;
+    }
+
+    void setLongMessageRatio(double longMessageRatio) {
+        this.longMessageRatio = longMessageRatio;
+    }
+
+    void setManyFilesRatio(double manyFilesRatio) {
+        this.manyFilesRatio = manyFilesRatio;
+    }
+
+    void setBinaryFileRatio(double binaryFileRatio) {
+        this.binaryFileRatio = binaryFileRatio;
+    }
+
+    void setPullRequestRatio(double pullRequestRatio) {
+        this.pullRequestRatio = pullRequestRatio;
+    }
+
+    // writes "project§branch_type.log" with at least the given size to the directory
+    Path generate(Path directory, String project, String branch, String type, long size) throws IOException {
+        Files.createDirectories(directory);
+        Path path = directory.resolve(project + "§" + branch + "_" + type + ".log");
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.UTF_8))) {
+            write(writer, type, size);
+        }
+        return path;
+    }
+
+    // writes commits of the given type ("commits" or "merges") until at least the given number of chars is reached
+    void write(Appendable out, String type, long size) throws IOException {
+        StringBuilder builder = new StringBuilder(1 << 12);
+        long written = 0;
+        while (written < size) {
+            builder.setLength(0);
+            appendCommit(builder, type.equals("merges"));
+            out.append(builder);
+            written += builder.length();
+        }
+    }
+
+    void appendCommit(StringBuilder builder, boolean merge) {
+        boolean nonAscii = random.nextDouble() < nonAsciiRatio;
+
+        builder.append("commit ").append(hash());
+        if (random.nextDouble() < 0.01) {
+            builder.append(" (HEAD -> master, origin/master)");
+        }
+        builder.append('\n');
+        if (merge) {
+            builder.append("Merge: ").append(hash(), 0, 7).append(' ').append(hash(), 0, 7).append('\n');
+        }
+        String author = name(nonAscii);
+        builder.append("Author:     ").append(author).append(" <").append(email(author)).append(">\n");
+        builder.append("AuthorDate: ").append(date()).append('\n');
+        String committer = random.nextDouble() < 0.8 ? author : name(nonAscii);
+        builder.append("Commit:     ").append(committer).append(" <").append(email(committer)).append(">\n");
+        builder.append("CommitDate: ").append(date()).append('\n');
+        builder.append('\n');
+
+        appendMessage(builder, merge, nonAscii);
+        builder.append('\n');
+
+        int fileCount;
+        if (random.nextDouble() < manyFilesRatio) {
+            fileCount = 100 + random.nextInt(401);
+        } else {
+            fileCount = 1 + random.nextInt(5);
+        }
+        for (int i = 0; i < fileCount; i++) {
+            appendFileStats(builder);
+        }
+        builder.append('\n');
+    }
+
+    private void appendMessage(StringBuilder builder, boolean merge, boolean nonAscii) {
+        if (merge && random.nextDouble() < pullRequestRatio) {
+            builder.append("    Merge pull request #").append(1 + random.nextInt(30000))
+                    .append(" from ").append(word()).append("-user/feature/").append(word()).append('\n');
+            builder.append('\n');
+        } else if (merge) {
+            builder.append("    Merge branch '").append(word()).append("' into master\n");
+            return;
+        }
+
+        String[] subjectPool = nonAscii ? nonAsciiSubjects : subjects;
+        builder.append("    ").append(subjectPool[random.nextInt(subjectPool.length)]).append('\n');
+        if (random.nextDouble() < longMessageRatio) {
+            builder.append("    \n");
+            int lineCount = 20 + random.nextInt(41);
+            for (int i = 0; i < lineCount; i++) {
+                builder.append("   ");
+                int wordCount = 4 + random.nextInt(10);
+                for (int j = 0; j < wordCount; j++) {
+                    builder.append(' ').append(word());
+                }
+                builder.append('\n');
+            }
+        }
+    }
+
+    private void appendFileStats(StringBuilder builder) {
+        String directory = directories[random.nextInt(directories.length)];
+        String fileName = word() + "_" + word() + random.nextInt(100);
+        if (random.nextDouble() < binaryFileRatio) {
+            builder.append("-\t-\t").append(directory).append(fileName).append('.')
+                    .append(binaryExtensions[random.nextInt(binaryExtensions.length)]).append('\n');
+            return;
+        }
+        String extension = extensions[random.nextInt(extensions.length)];
+        builder.append(random.nextInt(200)).append('\t').append(random.nextInt(100)).append('\t')
+                .append(directory).append(fileName);
+        if (!extension.isEmpty()) {
+            builder.append('.').append(extension);
+        }
+        builder.append('\n');
+    }
+
+    private String hash() {
+        return String.format("%016x%016x%08x", random.nextLong(), random.nextLong(), random.nextInt());
+    }
+
+    private String name(boolean nonAscii) {
+        return nonAscii
+                ? nonAsciiNames[random.nextInt(nonAsciiNames.length)]
+                : names[random.nextInt(names.length)];
+    }
+
+    private String email(String name) {
+        return name.toLowerCase().replaceAll("[^a-z]+", ".") + "@" + domains[random.nextInt(domains.length)];
+    }
+
+    // e.g. "2016-07-08 19:59:01 +0200"
+    String date() {
+        return String.format("%04d-%02d-%02d %02d:%02d:%02d %s",
+                2005 + random.nextInt(15), 1 + random.nextInt(12), 1 + random.nextInt(28),
+                random.nextInt(24), random.nextInt(60), random.nextInt(60),
+                random.nextDouble() < 0.5 ? "+0000" : (random.nextBoolean() ? "+0200" : "-0500"));
+    }
+
+    private String word() {
+        return words[random.nextInt(words.length)];
+    }
+
+    // usage: SyntheticLogGenerator output-dir size-in-MB [seed]
+    // writes a commits and a merges log (the merges log has a tenth of the size)
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: SyntheticLogGenerator output-dir size-in-MB [seed]");
+            System.exit(1);
+        }
+        Path outputDir = Paths.get(args[0]);
+        long size = Long.parseLong(args[1]) * 1024 * 1024;
+        SyntheticLogGenerator generator = new SyntheticLogGenerator(args.length > 2 ? Long.parseLong(args[2]) : 42);
+        System.out.println("Writing file: " + generator.generate(outputDir, "synthetic_project", "master", "commits", size));
+        System.out.println("Writing file: " + generator.generate(outputDir, "synthetic_project", "master", "merges", size / 10));
+    }
+}
@@ -0,0 +1,227 @@
+package de.unitrier.st.gitlogparser;
+
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// writes the commits of one log file to a CSV file like CsvCommitSink, but on a writer thread of its own:
+// the parser fills a batch of commits while the writer formats the previous one into a reusable text buffer,
+// encodes it as UTF-8 into a reusable byte buffer, and writes it to the file in large blocks;
+// there are only BUFFERS batches, the parser waits for the writer if both are full (back-pressure)
+class AsyncCsvCommitSink implements CommitSink {
+    static final int BATCH_SIZE = 4096; // commits
+    private static final int BUFFERS = 2;
+    private static final int BYTE_BUFFER_SIZE = 1 << 20;
+    private static final Batch END = new Batch(0);
+
+    private final String type;
+    private final boolean logMessage; // true if the column log_message is written
+    private final CommitIndexWriter.Recorder indexRecorder; // null if the output is not indexed
+    private final FileChannel channel;
+    private final BlockingQueue<Batch> freeBatches = new ArrayBlockingQueue<>(BUFFERS);
+    private final BlockingQueue<Batch> fullBatches = new ArrayBlockingQueue<>(BUFFERS + 1);
+    private final Thread writerThread;
+    private Batch batch;
+    private long writeNanos; // time the parser waited for the writer
+    private volatile Throwable failure;
+
+    // only used by the writer thread
+    private final StringBuilder text = new StringBuilder(BYTE_BUFFER_SIZE);
+    private final CSVPrinter csvPrinter;
+    // the UTF-8 length of the text buffer up to countedChars, to find the byte offsets of the rows
+    private int countedChars;
+    private long countedBytes;
+    // malformed input is replaced (as by OutputStreamWriter)
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(BYTE_BUFFER_SIZE);
+
+    AsyncCsvCommitSink(Path targetFilePath, String type) throws IOException {
+        this(targetFilePath, type, null, false);
+    }
+
+    AsyncCsvCommitSink(Path targetFilePath, String type, CommitIndexWriter.Recorder indexRecorder, boolean logMessage)
+            throws IOException {
+        File outputDir = targetFilePath.toAbsolutePath().getParent().toFile();
+
+        if (!(outputDir.exists() && outputDir.isDirectory())) {
+            throw new IllegalArgumentException("Illegal output directory");
+        }
+
+        this.type = type;
+        this.logMessage = logMessage;
+        this.indexRecorder = indexRecorder;
+        channel = FileChannel.open(targetFilePath,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        // header is automatically written (to the text buffer, together with the first batch)
+        csvPrinter = new CSVPrinter(text, CsvCommitSink.getCsvFormat(type, logMessage));
+
+        for (int i = 0; i < BUFFERS - 1; i++) {
+            freeBatches.add(new Batch(BATCH_SIZE));
+        }
+        batch = new Batch(BATCH_SIZE);
+
+        writerThread = new Thread(this::write, "writer-" + targetFilePath.getFileName());
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @Override
+    public void accept(Commit commit) throws IOException {
+        batch.commits[batch.size++] = commit;
+        if (batch.size == BATCH_SIZE) {
+            long start = System.nanoTime();
+            checkFailure();
+            try {
+                fullBatches.put(batch);
+                batch = takeFreeBatch();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the writer");
+            }
+            writeNanos += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public long getWriteNanos() {
+        return writeNanos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (batch.size > 0) {
+                fullBatches.put(batch);
+            }
+            fullBatches.put(END);
+            writerThread.join();
+        } catch (InterruptedException e) {
+            writerThread.interrupt();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the writer");
+        } finally {
+            channel.close();
+        }
+        checkFailure();
+        if (indexRecorder != null) {
+            indexRecorder.close();
+        }
+    }
+
+    // waits for the writer to return a batch, fails if the writer thread stopped
+    private Batch takeFreeBatch() throws IOException, InterruptedException {
+        while (true) {
+            Batch freeBatch = freeBatches.poll(100, TimeUnit.MILLISECONDS);
+            if (freeBatch != null) {
+                return freeBatch;
+            }
+            if (!writerThread.isAlive()) {
+                checkFailure();
+                throw new IOException("Writer of " + type + " stopped");
+            }
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("Writing " + type + " failed", failure);
+        }
+    }
+
+    // takes the full batches until END, batches are still returned after a failure so that the parser does not block
+    private void write() {
+        try {
+            Batch fullBatch;
+            while ((fullBatch = fullBatches.take()) != END) {
+                if (failure == null) {
+                    try {
+                        for (int i = 0; i < fullBatch.size; i++) {
+                            if (indexRecorder != null) {
+                                countedBytes += Utf8CountingWriter.length(text, countedChars, text.length());
+                                countedChars = text.length();
+                                indexRecorder.add(fullBatch.commits[i], channel.position() + countedBytes);
+                            }
+                            CsvCommitSink.printRecord(csvPrinter, fullBatch.commits[i], type, logMessage);
+                        }
+                        writeText();
+                    } catch (Throwable e) {
+                        // also unchecked exceptions and errors, the writer keeps returning batches
+                        failure = e;
+                    }
+                }
+                fullBatch.clear();
+                freeBatches.put(fullBatch);
+            }
+            // the header if there were no commits
+            if (failure == null && text.length() > 0) {
+                writeText();
+            }
+        } catch (InterruptedException e) {
+            failure = new InterruptedIOException("Writer interrupted");
+        } catch (Throwable e) {
+            failure = e;
+        }
+    }
+
+    private void writeText() throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, true);
+            if (result.isOverflow()) {
+                writeBytes();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        while (encoder.flush(bytes).isOverflow()) {
+            writeBytes();
+        }
+        writeBytes();
+        text.setLength(0);
+        countedChars = 0;
+        countedBytes = 0;
+    }
+
+    private void writeBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    private static class Batch {
+        private final Commit[] commits;
+        private int size;
+
+        Batch(int capacity) {
+            commits = new Commit[capacity];
+        }
+
+        // the commits can be collected while the batch is idle
+        void clear() {
+            Arrays.fill(commits, 0, size, null);
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package de.unitrier.st.gitlogparser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+// orders the log files of a run for the file workers by their estimated size, largest first
+// (longest processing time first: the last files to start are small, so the workers finish at about the same time),
+// and packs small files into batches that one worker parses in a row;
+// the makespan is predicted by scheduling the files (the chunks of files that are split) on the threads of the run,
+// and converted to time with the throughput per thread measured in the run;
+// the logs of a project can also be kept together in one task, parsed in the order of their branches
+// (as required by CommitDeduplicator)
+class BatchScheduler {
+    // files below this size are packed into batches of up to BATCH_SIZE
+    private static final long SMALL_FILE_SIZE = 1L << 20;
+    private static final long BATCH_SIZE = 16L << 20;
+    // batches are smaller if there would be fewer than this many tasks per thread
+    private static final int MIN_TASKS_PER_THREAD = 4;
+    // estimated ratio of the log size to the size of compressed log files
+    private static final long COMPRESSION_RATIO = 8;
+
+    private final int threads;
+    private final long chunkSize; // in bytes, 0 if large files are not split
+    private final boolean byProject; // one task per project
+    private long totalBytes; // estimated
+    private long predictedLoad; // estimated bytes parsed by the busiest thread
+    private int batchCount; // batches of small files
+    private int repositoryCount; // logs of unknown size
+
+    BatchScheduler(int threads, long chunkSize, boolean byProject) {
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+        this.byProject = byProject;
+    }
+
+    // the log files in the order they are passed to the workers, logs of repositories first (their size is unknown)
+    List<Batch> schedule(List<LogFile> logFiles) {
+        if (byProject) {
+            return scheduleProjects(logFiles);
+        }
+        List<Batch> batches = new ArrayList<>();
+        List<Batch> repositoryLogs = new ArrayList<>();
+        List<LogFile> smallFiles = new ArrayList<>();
+        for (LogFile logFile : logFiles) {
+            long size = estimateSize(logFile);
+            totalBytes += size;
+            if (logFile.isRepository()) {
+                repositoryLogs.add(new Batch(logFile, size));
+            } else if (size < SMALL_FILE_SIZE) {
+                smallFiles.add(logFile);
+            } else {
+                batches.add(new Batch(logFile, size));
+            }
+        }
+        repositoryCount = repositoryLogs.size();
+
+        // small files are packed largest first, each batch is filled up to the batch size
+        long batchSize = Math.max(Math.min(BATCH_SIZE, totalBytes / (MIN_TASKS_PER_THREAD * threads)), SMALL_FILE_SIZE);
+        smallFiles.sort(Comparator.comparingLong(BatchScheduler::estimateSize).reversed());
+        Batch batch = null;
+        for (LogFile logFile : smallFiles) {
+            long size = estimateSize(logFile);
+            if (batch == null || batch.size + size > batchSize) {
+                batch = new Batch();
+                batches.add(batch);
+                batchCount++;
+            }
+            batch.add(logFile, size);
+        }
+
+        batches.sort(Comparator.comparingLong(Batch::getSize).reversed());
+        predictedLoad = predictLoad(batches);
+        batches.addAll(0, repositoryLogs);
+        return batches;
+    }
+
+    // the logs of each project in one batch, sorted by branch and type
+    private List<Batch> scheduleProjects(List<LogFile> logFiles) {
+        Map<String, List<LogFile>> projectLogs = new TreeMap<>();
+        for (LogFile logFile : logFiles) {
+            projectLogs.computeIfAbsent(logFile.getProject(), project -> new ArrayList<>()).add(logFile);
+        }
+        List<Batch> batches = new ArrayList<>();
+        List<Batch> repositoryLogs = new ArrayList<>();
+        for (List<LogFile> logs : projectLogs.values()) {
+            logs.sort(Comparator.comparing(LogFile::getBranch).thenComparing(LogFile::getType));
+            Batch batch = new Batch();
+            boolean repository = false;
+            for (LogFile logFile : logs) {
+                long size = estimateSize(logFile);
+                totalBytes += size;
+                batch.add(logFile, size);
+                if (logFile.isRepository()) {
+                    repository = true;
+                }
+            }
+            if (repository) {
+                repositoryCount += logs.size();
+                repositoryLogs.add(batch);
+            } else {
+                batches.add(batch);
+            }
+        }
+        batches.sort(Comparator.comparingLong(Batch::getSize).reversed());
+        predictedLoad = predictLoad(batches);
+        batches.addAll(0, repositoryLogs);
+        return batches;
+    }
+
+    // greedy schedule of the tasks largest first on the least loaded thread,
+    // a file that is split runs as chunks of chunkSize (see GitLogParser.parseFile)
+    private long predictLoad(List<Batch> batches) {
+        List<Long> tasks = new ArrayList<>();
+        for (Batch batch : batches) {
+            boolean split = batch.logFiles.size() == 1 && !batch.logFiles.get(0).isCompressed()
+                    && chunkSize > 0 && batch.size >= 2 * chunkSize;
+            if (split) {
+                for (long remaining = batch.size; remaining > 0; remaining -= chunkSize) {
+                    tasks.add(Math.min(remaining, chunkSize));
+                }
+            } else {
+                tasks.add(batch.size);
+            }
+        }
+        tasks.sort(Collections.reverseOrder());
+
+        PriorityQueue<Long> loads = new PriorityQueue<>();
+        for (int i = 0; i < threads; i++) {
+            loads.add(0L);
+        }
+        long maxLoad = 0;
+        for (long task : tasks) {
+            long load = loads.remove() + task;
+            loads.add(load);
+            maxLoad = Math.max(maxLoad, load);
+        }
+        return maxLoad;
+    }
+
+    // e.g. "Schedule: 4012 files in 38 tasks (31 batches of small files), 20480 MB, busiest thread 2650 MB (lower bound 2560 MB)"
+    String getPlan(int fileCount, int taskCount) {
+        String plan = "Schedule: " + fileCount + " files in " + taskCount + " tasks (" + batchCount
+                + " batches of small files), " + totalBytes / (1024 * 1024) + " MB, busiest thread "
+                + predictedLoad / (1024 * 1024) + " MB (lower bound " + totalBytes / threads / (1024 * 1024) + " MB)";
+        if (repositoryCount > 0) {
+            plan += ", " + repositoryCount + " logs of repositories of unknown size";
+        }
+        return plan;
+    }
+
+    // e.g. "Makespan: predicted 250.4 s at 85.3 MB/s per thread, actual 271.9 s"
+    String getReport(List<FileSummary> summaries, long elapsedNanos) {
+        long bytes = 0;
+        long busyMillis = 0;
+        for (FileSummary summary : summaries) {
+            if (!summary.getLogFile().isRepository()) {
+                bytes += estimateSize(summary.getLogFile());
+                busyMillis += summary.getReadMillis() + summary.getParseMillis() + summary.getWriteMillis();
+            }
+        }
+        String actual = "actual " + formatSeconds(elapsedNanos);
+        if (bytes == 0 || busyMillis == 0) {
+            return "Makespan: " + actual;
+        }
+        double bytesPerMilli = (double) bytes / busyMillis;
+        return "Makespan: predicted " + formatSeconds((long) (predictedLoad / bytesPerMilli * 1_000_000))
+                + " at " + String.format("%.1f", bytesPerMilli * 1000 / 1e6) + " MB/s per thread, " + actual;
+    }
+
+    private static long estimateSize(LogFile logFile) {
+        if (logFile.isRepository()) {
+            return 0;
+        }
+        long size = logFile.getFile().length();
+        return logFile.isCompressed() ? size * COMPRESSION_RATIO : size;
+    }
+
+    private static String formatSeconds(long nanos) {
+        return String.format("%.1f s", nanos / 1e9);
+    }
+
+    // log files that one worker parses in a row
+    static class Batch {
+        private final List<LogFile> logFiles = new ArrayList<>();
+        private long size; // estimated
+
+        Batch() {
+        }
+
+        Batch(LogFile logFile, long size) {
+            add(logFile, size);
+        }
+
+        void add(LogFile logFile, long size) {
+            logFiles.add(logFile);
+            this.size += size;
+        }
+
+        List<LogFile> getLogFiles() {
+            return logFiles;
+        }
+
+        long getSize() {
+            return size;
+        }
+    }
+}
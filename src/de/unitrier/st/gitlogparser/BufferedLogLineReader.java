@@ -0,0 +1,48 @@
+package de.unitrier.st.gitlogparser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+
+// decodes the log into strings with the given reader
+class BufferedLogLineReader implements LogLineReader {
+    private final BufferedReader reader;
+    private final ReadMeter readMeter; // null if the reader was passed
+
+    BufferedLogLineReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        this.readMeter = null;
+    }
+
+    // counts the bytes read from the stream, unless the stream counts them itself (see DecompressingInputStream)
+    BufferedLogLineReader(InputStream in, Charset charset) {
+        if (!(in instanceof ReadMeter)) {
+            in = new MeteredInputStream(in);
+        }
+        this.readMeter = (ReadMeter) in;
+        this.reader = new BufferedReader(new InputStreamReader(in, charset));
+    }
+
+    @Override
+    public CharSequence readLine() throws IOException {
+        return reader.readLine();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return readMeter == null ? 0 : readMeter.getBytesRead();
+    }
+
+    @Override
+    public long getReadNanos() {
+        return readMeter == null ? 0 : readMeter.getReadNanos();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,66 @@
+package de.unitrier.st.gitlogparser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// newest commit hash of a log that has already been written to "project§branch_type.csv",
+// stored next to the CSV file in "project§branch_type.csv.checkpoint";
+// the new checkpoint is written to "project§branch_type.csv.checkpoint.tmp" before the CSV file is renamed
+// (see OutputFiles) and renamed after it, a pending checkpoint left by a crash in between is kept
+// if the CSV file was renamed and removed otherwise
+class Checkpoint {
+    private static final String EXTENSION = ".checkpoint";
+
+    static Path getPath(Path targetFilePath) {
+        return targetFilePath.resolveSibling(targetFilePath.getFileName() + EXTENSION);
+    }
+
+    private static Path getTempPath(Path targetFilePath) {
+        return OutputFiles.getTempPath(getPath(targetFilePath));
+    }
+
+    // returns null if there is no checkpoint for the CSV file
+    static String read(Path targetFilePath) throws IOException {
+        Path checkpointPath = getPath(targetFilePath);
+        if (Files.exists(getTempPath(targetFilePath))) {
+            if (Files.exists(OutputFiles.getTempPath(targetFilePath))) {
+                Files.delete(getTempPath(targetFilePath));
+            } else {
+                commit(targetFilePath);
+            }
+        }
+        if (!Files.exists(checkpointPath)) {
+            return null;
+        }
+        List<String> lines = Files.readAllLines(checkpointPath, StandardCharsets.UTF_8);
+        if (lines.isEmpty() || lines.get(0).trim().isEmpty()) {
+            return null;
+        }
+        return lines.get(0).trim();
+    }
+
+    // writes the pending checkpoint, before the temporary CSV file is renamed
+    static void prepare(Path targetFilePath, String commitHash) throws IOException {
+        try (FileChannel channel = FileChannel.open(getTempPath(targetFilePath), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer bytes = ByteBuffer.wrap((commitHash + "\n").getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+    }
+
+    // replaces the checkpoint with the pending one, after the CSV file was renamed
+    static void commit(Path targetFilePath) throws IOException {
+        Files.move(getTempPath(targetFilePath), getPath(targetFilePath),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,229 @@
+package de.unitrier.st.gitlogparser;
+
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// rollups of the commits of a run (--aggregate): commits, lines added, and lines deleted per author email,
+// month of the author date, file extension, and project and branch, separately for commits and merges;
+// the commits of each log are folded into partial rollups of the log while they are parsed,
+// which are merged into the rollups of the run when the output files of the log are complete,
+// the rollup tables are written at the end of the run ("churn_authors.csv", "churn_months.csv", ...)
+class ChurnAggregator {
+    enum csvHeaderChurnAuthors {
+        author_email, type, commits, lines_added, lines_deleted
+    }
+
+    enum csvHeaderChurnMonths {
+        month, type, commits, lines_added, lines_deleted
+    }
+
+    // the commits of an extension are the commits with at least one file with the extension
+    enum csvHeaderChurnExtensions {
+        file_extension, type, commits, lines_added, lines_deleted
+    }
+
+    enum csvHeaderChurnBranches {
+        project, branch, type, commits, lines_added, lines_deleted
+    }
+
+    private static final String[] types = {"commits", "merges"};
+
+    private final Path outputDirPath;
+    private final FileExtensionDictionary extensionDictionary;
+    private final Names emails = new Names();
+    private final Names branches = new Names();
+    private final Map<LogFile, Rollups> pendingRollups = new ConcurrentHashMap<>();
+    private final Rollups rollups = new Rollups();
+
+    ChurnAggregator(Path outputDirPath, FileExtensionDictionary extensionDictionary) {
+        this.outputDirPath = outputDirPath;
+        this.extensionDictionary = extensionDictionary;
+    }
+
+    // the sink folds each commit into the partial rollups of the log and then passes it to the next sink
+    CommitSink openSink(LogFile logFile, CommitSink next) {
+        int branchId = branches.getId(logFile.getProject() + "§" + logFile.getBranch());
+        return new AggregatingSink(logFile, branchId, logFile.getType().equals("merges") ? 1 : 0, next);
+    }
+
+    // merges the partial rollups of the log when its sink is closed and the output files are complete
+    void commit(LogFile logFile) {
+        Rollups partial = pendingRollups.remove(logFile);
+        if (partial != null) {
+            synchronized (rollups) {
+                rollups.merge(partial);
+            }
+        }
+    }
+
+    void discard(LogFile logFile) {
+        pendingRollups.remove(logFile);
+    }
+
+    void write() throws IOException {
+        synchronized (rollups) {
+            write("churn_authors", rollups.authors, key -> new Object[]{emails.get(key)});
+            write("churn_months", rollups.months, key -> new Object[]{
+                    String.format("%04d-%02d", key / 12, key % 12 + 1)});
+            write("churn_extensions", rollups.extensions, key -> new Object[]{extensionDictionary.getName(key)});
+            write("churn_branches", rollups.branches, key -> branches.get(key).split("§", 2));
+        }
+    }
+
+    // the rows are ordered by key (e.g. by month), keys contain the type in their lowest bit
+    private void write(String table, ChurnTable churnTable, KeyColumns keyColumns) throws IOException {
+        Path tableFilePath = outputDirPath.resolve(table + ".csv");
+        System.out.println("Writing file: " + tableFilePath.getFileName());
+        // header is automatically written
+        try (CSVPrinter csvPrinter = new CSVPrinter(
+                Files.newBufferedWriter(OutputFiles.getTempPath(tableFilePath), StandardCharsets.UTF_8),
+                CsvCommitSink.getCsvFormat(table))) {
+            for (int key : churnTable.getKeys()) {
+                List<Object> values = new ArrayList<>(6);
+                for (Object keyColumn : keyColumns.get(key >>> 1)) {
+                    values.add(keyColumn);
+                }
+                values.add(types[key & 1]);
+                values.add(churnTable.getCommits(key));
+                values.add(churnTable.getLinesAdded(key));
+                values.add(churnTable.getLinesDeleted(key));
+                csvPrinter.printRecord(values);
+            }
+        }
+        OutputFiles.commit(tableFilePath);
+    }
+
+    // month of an author date like "2018-02-20T18:34:32+00:00" as year * 12 + month - 1, -1 for other dates
+    static int getMonth(String date) {
+        if (date == null || date.length() < 7 || date.charAt(4) != '-') {
+            return -1;
+        }
+        int year = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = date.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            year = 10 * year + digit;
+        }
+        int month = 10 * (date.charAt(5) - '0') + date.charAt(6) - '0';
+        if (month < 1 || month > 12) {
+            return -1;
+        }
+        return year * 12 + month - 1;
+    }
+
+    private interface KeyColumns {
+        Object[] get(int key);
+    }
+
+    // ids of the author emails or branches of a run, shared by all workers (the ids of partial rollups match)
+    private static class Names {
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+        private final List<String> names = new ArrayList<>();
+
+        int getId(String name) {
+            Integer id = ids.get(name);
+            if (id != null) {
+                return id;
+            }
+            synchronized (this) {
+                id = ids.get(name);
+                if (id == null) {
+                    id = names.size();
+                    names.add(name);
+                    ids.put(name, id);
+                }
+                return id;
+            }
+        }
+
+        synchronized String get(int id) {
+            return names.get(id);
+        }
+    }
+
+    private static class Rollups {
+        private final ChurnTable authors = new ChurnTable();
+        private final ChurnTable months = new ChurnTable();
+        private final ChurnTable extensions = new ChurnTable();
+        private final ChurnTable branches = new ChurnTable();
+
+        void merge(Rollups other) {
+            authors.merge(other.authors);
+            months.merge(other.months);
+            extensions.merge(other.extensions);
+            branches.merge(other.branches);
+        }
+    }
+
+    private class AggregatingSink implements CommitSink {
+        private final LogFile logFile;
+        private final int branchKey;
+        private final int type; // 0 for commits, 1 for merges
+        private final CommitSink next;
+        private final Rollups partial = new Rollups();
+        // the extension stats of one commit, indexed by extension id
+        private long[] extensionLinesAdded = new long[64];
+        private long[] extensionLinesDeleted = new long[64];
+
+        AggregatingSink(LogFile logFile, int branchId, int type, CommitSink next) {
+            this.logFile = logFile;
+            this.branchKey = branchId << 1 | type;
+            this.type = type;
+            this.next = next;
+        }
+
+        @Override
+        public void accept(Commit commit) throws IOException {
+            long added = commit.getLinesAdded();
+            long deleted = commit.getLinesDeleted();
+            String authorEmail = commit.getAuthorEmail();
+            partial.authors.add(emails.getId(authorEmail == null ? "" : authorEmail) << 1 | type, 1, added, deleted);
+            int month = getMonth(commit.getAuthorDate());
+            if (month >= 0) {
+                partial.months.add(month << 1 | type, 1, added, deleted);
+            }
+            partial.branches.add(branchKey, 1, added, deleted);
+
+            for (int i = 0; i < commit.getFileCount(); i++) {
+                int extensionId = commit.getFileExtensionId(i);
+                if (extensionId >= extensionLinesAdded.length) {
+                    extensionLinesAdded = Arrays.copyOf(extensionLinesAdded, 2 * extensionId);
+                    extensionLinesDeleted = Arrays.copyOf(extensionLinesDeleted, 2 * extensionId);
+                }
+                extensionLinesAdded[extensionId] += commit.getFileLinesAdded(i);
+                extensionLinesDeleted[extensionId] += commit.getFileLinesDeleted(i);
+            }
+            for (int i = 0; i < commit.getExtensionCount(); i++) {
+                int extensionId = commit.getExtensionId(i);
+                partial.extensions.add(extensionId << 1 | type, 1,
+                        extensionLinesAdded[extensionId], extensionLinesDeleted[extensionId]);
+                extensionLinesAdded[extensionId] = 0;
+                extensionLinesDeleted[extensionId] = 0;
+            }
+
+            next.accept(commit);
+        }
+
+        @Override
+        public long getWriteNanos() {
+            return next.getWriteNanos();
+        }
+
+        @Override
+        public void close() throws IOException {
+            pendingRollups.put(logFile, partial);
+            next.close();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package de.unitrier.st.gitlogparser;
+
+import java.util.Arrays;
+
+// commits, lines added, and lines deleted by int key (see ChurnAggregator),
+// an open addressing hash table with the counters in primitive arrays, tables are merged by adding the counters
+class ChurnTable {
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    private int[] keys;
+    private long[] commits;
+    private long[] linesAdded;
+    private long[] linesDeleted;
+    private int size;
+
+    ChurnTable() {
+        allocate(64);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        commits = new long[capacity];
+        linesAdded = new long[capacity];
+        linesDeleted = new long[capacity];
+    }
+
+    void add(int key, long commitCount, long added, long deleted) {
+        int slot = find(key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                grow();
+                slot = find(key);
+            }
+        }
+        commits[slot] += commitCount;
+        linesAdded[slot] += added;
+        linesDeleted[slot] += deleted;
+    }
+
+    void merge(ChurnTable other) {
+        for (int slot = 0; slot < other.keys.length; slot++) {
+            if (other.keys[slot] != EMPTY) {
+                add(other.keys[slot], other.commits[slot], other.linesAdded[slot], other.linesDeleted[slot]);
+            }
+        }
+    }
+
+    // the slot of the key or the empty slot where it would be added
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int hash = key * 0x9E3779B9;
+        int slot = (hash ^ hash >>> 16) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        long[] oldCommits = commits;
+        long[] oldLinesAdded = linesAdded;
+        long[] oldLinesDeleted = linesDeleted;
+        allocate(oldKeys.length * 2);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY) {
+                int newSlot = find(oldKeys[slot]);
+                keys[newSlot] = oldKeys[slot];
+                commits[newSlot] = oldCommits[slot];
+                linesAdded[newSlot] = oldLinesAdded[slot];
+                linesDeleted[newSlot] = oldLinesDeleted[slot];
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    // the keys in ascending order, the counters of a key are read with the get methods
+    int[] getKeys() {
+        int[] sortedKeys = new int[size];
+        int i = 0;
+        for (int key : keys) {
+            if (key != EMPTY) {
+                sortedKeys[i++] = key;
+            }
+        }
+        Arrays.sort(sortedKeys);
+        return sortedKeys;
+    }
+
+    long getCommits(int key) {
+        int slot = find(key);
+        return keys[slot] == EMPTY ? 0 : commits[slot];
+    }
+
+    long getLinesAdded(int key) {
+        int slot = find(key);
+        return keys[slot] == EMPTY ? 0 : linesAdded[slot];
+    }
+
+    long getLinesDeleted(int key) {
+        int slot = find(key);
+        return keys[slot] == EMPTY ? 0 : linesDeleted[slot];
+    }
+}
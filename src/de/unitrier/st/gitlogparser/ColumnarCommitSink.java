@@ -0,0 +1,201 @@
+package de.unitrier.st.gitlogparser;
+
+import org.apache.commons.io.output.CountingOutputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// writes the commits of one log file to a columnar file (see ColumnarFormat) while they are parsed,
+// the rows are buffered column by column and written in chunks of CHUNK_ROWS rows
+class ColumnarCommitSink implements CommitSink {
+    private final ColumnarFormat.Column[] columns;
+    private final CountingOutputStream countingStream;
+    private final DataOutputStream out;
+    private long writeNanos;
+
+    // one dictionary for all dictionary-encoded columns of the file
+    private final Map<String, Integer> dictionaryIds = new HashMap<>();
+    private final List<String> dictionary = new ArrayList<>();
+
+    // values of the current chunk, indexed by column
+    private final int[][] intValues;
+    private final long[][] longValues;
+    private final String[][] stringValues;
+    private int rowCount;
+
+    private final List<Long> chunkOffsets = new ArrayList<>();
+    private final List<Integer> chunkRowCounts = new ArrayList<>();
+    private final List<long[]> chunkColumnLengths = new ArrayList<>();
+
+    ColumnarCommitSink(Path targetFilePath, String type) throws IOException {
+        File outputDir = targetFilePath.toAbsolutePath().getParent().toFile();
+
+        if (!(outputDir.exists() && outputDir.isDirectory())) {
+            throw new IllegalArgumentException("Illegal output directory");
+        }
+
+        columns = ColumnarFormat.getColumns(type).toArray(new ColumnarFormat.Column[0]);
+        intValues = new int[columns.length][];
+        longValues = new long[columns.length][];
+        stringValues = new String[columns.length][];
+        for (int i = 0; i < columns.length; i++) {
+            switch (columns[i].getKind()) {
+                case DATE:
+                    longValues[i] = new long[ColumnarFormat.CHUNK_ROWS];
+                    intValues[i] = new int[ColumnarFormat.CHUNK_ROWS];
+                    break;
+                case STRING:
+                    stringValues[i] = new String[ColumnarFormat.CHUNK_ROWS];
+                    break;
+                default:
+                    intValues[i] = new int[ColumnarFormat.CHUNK_ROWS];
+                    break;
+            }
+        }
+
+        countingStream = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(targetFilePath.toFile()), 1 << 16));
+        out = new DataOutputStream(countingStream);
+        out.writeInt(ColumnarFormat.MAGIC);
+        out.writeByte(ColumnarFormat.VERSION);
+        out.writeByte(ColumnarFormat.getTypeId(type));
+    }
+
+    @Override
+    public void accept(Commit commit) throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < columns.length; i++) {
+            ColumnarFormat.Column column = columns[i];
+            switch (column.getKind()) {
+                case INT:
+                    intValues[i][rowCount] = column.getInt(commit);
+                    break;
+                case DICTIONARY:
+                    intValues[i][rowCount] = getDictionaryId(column.getString(commit));
+                    break;
+                case DATE:
+                    OffsetDateTime date = ColumnarFormat.parseDate(column.getString(commit));
+                    if (date == null) {
+                        longValues[i][rowCount] = ColumnarFormat.NULL_DATE;
+                        intValues[i][rowCount] = 0;
+                    } else {
+                        longValues[i][rowCount] = date.toEpochSecond();
+                        intValues[i][rowCount] = date.getOffset().getTotalSeconds();
+                    }
+                    break;
+                case STRING:
+                    stringValues[i][rowCount] = column.getString(commit);
+                    break;
+            }
+        }
+        rowCount++;
+        if (rowCount == ColumnarFormat.CHUNK_ROWS) {
+            writeChunk();
+        }
+        writeNanos += System.nanoTime() - start;
+    }
+
+    private int getDictionaryId(String value) {
+        if (value == null) {
+            return ColumnarFormat.NULL_ID;
+        }
+        Integer id = dictionaryIds.get(value);
+        if (id == null) {
+            id = dictionary.size();
+            dictionaryIds.put(value, id);
+            dictionary.add(value);
+        }
+        return id;
+    }
+
+    private void writeChunk() throws IOException {
+        chunkOffsets.add(countingStream.getByteCount());
+        chunkRowCounts.add(rowCount);
+        long[] columnLengths = new long[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            long columnStart = countingStream.getByteCount();
+            switch (columns[i].getKind()) {
+                case INT:
+                case DICTIONARY:
+                    for (int row = 0; row < rowCount; row++) {
+                        out.writeInt(intValues[i][row]);
+                    }
+                    break;
+                case DATE:
+                    for (int row = 0; row < rowCount; row++) {
+                        out.writeLong(longValues[i][row]);
+                    }
+                    for (int row = 0; row < rowCount; row++) {
+                        out.writeInt(intValues[i][row]);
+                    }
+                    break;
+                case STRING:
+                    byte[][] bytes = new byte[rowCount][];
+                    for (int row = 0; row < rowCount; row++) {
+                        String value = stringValues[i][row];
+                        if (value == null) {
+                            out.writeInt(-1);
+                        } else {
+                            bytes[row] = value.getBytes(StandardCharsets.UTF_8);
+                            out.writeInt(bytes[row].length);
+                        }
+                        stringValues[i][row] = null;
+                    }
+                    for (int row = 0; row < rowCount; row++) {
+                        if (bytes[row] != null) {
+                            out.write(bytes[row]);
+                        }
+                    }
+                    break;
+            }
+            columnLengths[i] = countingStream.getByteCount() - columnStart;
+        }
+        chunkColumnLengths.add(columnLengths);
+        rowCount = 0;
+    }
+
+    @Override
+    public long getWriteNanos() {
+        return writeNanos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        long start = System.nanoTime();
+        try {
+            if (rowCount > 0) {
+                writeChunk();
+            }
+
+            long footerOffset = countingStream.getByteCount();
+            out.writeInt(dictionary.size());
+            for (String value : dictionary) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            out.writeInt(chunkOffsets.size());
+            for (int chunk = 0; chunk < chunkOffsets.size(); chunk++) {
+                out.writeLong(chunkOffsets.get(chunk));
+                out.writeInt(chunkRowCounts.get(chunk));
+                for (long columnLength : chunkColumnLengths.get(chunk)) {
+                    out.writeLong(columnLength);
+                }
+            }
+            out.writeLong(footerOffset);
+            out.writeInt(ColumnarFormat.MAGIC);
+        } finally {
+            out.close();
+        }
+        writeNanos += System.nanoTime() - start;
+    }
+}
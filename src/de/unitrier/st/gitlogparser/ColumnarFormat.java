@@ -0,0 +1,152 @@
+package de.unitrier.st.gitlogparser;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+// layout of the columnar output files ("project§branch_type.columns"), written by ColumnarCommitSink
+// and read by ColumnarLogReader:
+//
+//   int magic, byte version, byte type (0: commits, 1: merges)
+//   chunks of at most CHUNK_ROWS rows, each containing the columns of the type in the order of the CSV header,
+//     stored one after the other (see Kind for the encoding of a column)
+//   footer: int dictionary size, dictionary entries (int length, UTF-8 bytes),
+//     int chunk count, for each chunk: long offset, int row count, long length of each column
+//   long footer offset, int magic
+//
+// all numbers are big-endian (DataOutputStream)
+public class ColumnarFormat {
+    static final int MAGIC = 0x474C5043; // "GLPC"
+    static final byte VERSION = 2; // 2: merge_type, merge_source, and merge_target
+    static final int CHUNK_ROWS = 1 << 16;
+    static final String FILE_EXTENSION = ".columns";
+    private static final DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss");
+
+    // epoch second of missing or invalid dates
+    public static final long NULL_DATE = Long.MIN_VALUE;
+    // dictionary id of missing values
+    public static final int NULL_ID = -1;
+
+    public enum Kind {
+        INT, // int per row
+        DICTIONARY, // int dictionary id per row (NULL_ID for null)
+        DATE, // long epoch second per row, followed by int offset in seconds per row
+        STRING // int UTF-8 length per row (-1 for null), followed by the bytes of all rows
+    }
+
+    public enum Column {
+        PROJECT(Kind.DICTIONARY, Commit::getProject),
+        BRANCH(Kind.DICTIONARY, Commit::getBranch),
+        HASH_VALUE(Kind.STRING, Commit::getHashValue),
+        MERGED_COMMITS(Kind.STRING, Commit::getMergedCommits),
+        AUTHOR_NAME(Kind.DICTIONARY, Commit::getAuthorName),
+        AUTHOR_EMAIL(Kind.DICTIONARY, Commit::getAuthorEmail),
+        AUTHOR_DATE(Kind.DATE, Commit::getAuthorDate),
+        COMMIT_NAME(Kind.DICTIONARY, Commit::getCommitName),
+        COMMIT_EMAIL(Kind.DICTIONARY, Commit::getCommitEmail),
+        COMMIT_DATE(Kind.DATE, Commit::getCommitDate),
+        LOG_MESSAGE_LENGTH(Commit::getLogMessageLength),
+        FILE_COUNT(Commit::getFileCount),
+        LINES_ADDED(Commit::getLinesAdded),
+        LINES_DELETED(Commit::getLinesDeleted),
+        FILE_EXTENSIONS(Kind.DICTIONARY, Commit::getFileExtensions),
+        PULL_REQUEST_ID(Kind.STRING, Commit::getPullRequestId),
+        SOURCE_USER(Kind.DICTIONARY, Commit::getSourceUser),
+        SOURCE_BRANCH(Kind.STRING, Commit::getSourceBranch),
+        MERGE_TYPE(Kind.DICTIONARY, Commit::getMergeType),
+        MERGE_SOURCE(Kind.DICTIONARY, Commit::getMergeSource),
+        MERGE_TARGET(Kind.DICTIONARY, Commit::getMergeTarget);
+
+        private final Kind kind;
+        private final Function<Commit, String> stringValue;
+        private final ToIntFunction<Commit> intValue;
+
+        Column(Kind kind, Function<Commit, String> stringValue) {
+            this.kind = kind;
+            this.stringValue = stringValue;
+            this.intValue = null;
+        }
+
+        Column(ToIntFunction<Commit> intValue) {
+            this.kind = Kind.INT;
+            this.stringValue = null;
+            this.intValue = intValue;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        // name of the column in the CSV header
+        public String getName() {
+            return name().toLowerCase();
+        }
+
+        String getString(Commit commit) {
+            return stringValue.apply(commit);
+        }
+
+        int getInt(Commit commit) {
+            return intValue.applyAsInt(commit);
+        }
+    }
+
+    // columns of the given type ("commits" or "merges"), in the order of the CSV header
+    static List<Column> getColumns(String type) {
+        Enum<?>[] header;
+        switch (type) {
+            case "commits":
+                header = Commit.csvHeaderCommits.values();
+                break;
+            case "merges":
+                header = Commit.csvHeaderMerges.values();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown log type: " + type);
+        }
+        List<Column> columns = new ArrayList<>(header.length);
+        for (Enum<?> headerColumn : header) {
+            columns.add(Column.valueOf(headerColumn.name().toUpperCase()));
+        }
+        return columns;
+    }
+
+    static byte getTypeId(String type) {
+        return (byte) (type.equals("merges") ? 1 : 0);
+    }
+
+    static String getType(byte typeId) {
+        return typeId == 1 ? "merges" : "commits";
+    }
+
+    // parses a date of the CSV output (see CommitParser.convertDate), returns null for missing or invalid dates
+    static OffsetDateTime parseDate(String date) {
+        if (date == null) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(date);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // formats a date as in the CSV output (e.g. "2016-07-08T19:59:01+02:00")
+    public static String formatDate(long epochSecond, int offsetSeconds) {
+        if (epochSecond == NULL_DATE) {
+            return null;
+        }
+        ZoneOffset offset = ZoneOffset.ofTotalSeconds(offsetSeconds);
+        LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), offset);
+        // ZoneOffset.UTC would be formatted as "Z"
+        String offsetId = offsetSeconds == 0 ? "+00:00" : offset.getId();
+        return dateTime.format(dateTimeFormatter) + offsetId;
+    }
+}
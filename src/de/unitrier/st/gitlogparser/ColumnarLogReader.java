@@ -0,0 +1,203 @@
+package de.unitrier.st.gitlogparser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// reads the columnar output files written with "--output-format columnar" (see ColumnarFormat),
+// each column of a chunk is mapped and decoded separately, e.g. to sum the lines added of all commits:
+//
+//   try (ColumnarLogReader reader = new ColumnarLogReader(path)) {
+//       for (int chunk = 0; chunk < reader.getChunkCount(); chunk++) {
+//           for (int linesAdded : reader.readInts(chunk, ColumnarFormat.Column.LINES_ADDED)) {
+//               sum += linesAdded;
+//           }
+//       }
+//   }
+public class ColumnarLogReader implements Closeable {
+    private final FileChannel channel;
+    private final String type;
+    private final List<ColumnarFormat.Column> columns;
+    private final String[] dictionary;
+    private final long[] chunkOffsets;
+    private final int[] chunkRowCounts;
+    private final long[][] chunkColumnLengths;
+
+    public ColumnarLogReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = read(0, 6);
+            if (header.getInt() != ColumnarFormat.MAGIC) {
+                throw new IOException("Not a columnar log file: " + path);
+            }
+            byte version = header.get();
+            if (version != ColumnarFormat.VERSION) {
+                throw new IOException("Unsupported version " + version + " of columnar log file: " + path);
+            }
+            type = ColumnarFormat.getType(header.get());
+            columns = ColumnarFormat.getColumns(type);
+
+            ByteBuffer trailer = read(channel.size() - 12, 12);
+            long footerOffset = trailer.getLong();
+            if (trailer.getInt() != ColumnarFormat.MAGIC) {
+                throw new IOException("Incomplete columnar log file: " + path);
+            }
+
+            ByteBuffer footer = map(footerOffset, channel.size() - 12 - footerOffset);
+            dictionary = new String[footer.getInt()];
+            for (int id = 0; id < dictionary.length; id++) {
+                byte[] bytes = new byte[footer.getInt()];
+                footer.get(bytes);
+                dictionary[id] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            int chunkCount = footer.getInt();
+            chunkOffsets = new long[chunkCount];
+            chunkRowCounts = new int[chunkCount];
+            chunkColumnLengths = new long[chunkCount][columns.size()];
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                chunkOffsets[chunk] = footer.getLong();
+                chunkRowCounts[chunk] = footer.getInt();
+                for (int i = 0; i < columns.size(); i++) {
+                    chunkColumnLengths[chunk][i] = footer.getLong();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // "commits" or "merges"
+    public String getType() {
+        return type;
+    }
+
+    // columns of the file, in the order of the CSV header
+    public List<ColumnarFormat.Column> getColumns() {
+        return columns;
+    }
+
+    public int getChunkCount() {
+        return chunkOffsets.length;
+    }
+
+    public int getRowCount(int chunk) {
+        return chunkRowCounts[chunk];
+    }
+
+    public long getRowCount() {
+        long rowCount = 0;
+        for (int chunkRowCount : chunkRowCounts) {
+            rowCount += chunkRowCount;
+        }
+        return rowCount;
+    }
+
+    public String getDictionaryValue(int id) {
+        return id == ColumnarFormat.NULL_ID ? null : dictionary[id];
+    }
+
+    // values of an INT column, dictionary ids of a DICTIONARY column, or offsets in seconds of a DATE column
+    public int[] readInts(int chunk, ColumnarFormat.Column column) throws IOException {
+        int rowCount = chunkRowCounts[chunk];
+        ByteBuffer buffer = mapColumn(chunk, column);
+        if (column.getKind() == ColumnarFormat.Kind.DATE) {
+            ((Buffer) buffer).position(rowCount * 8);
+        } else if (column.getKind() == ColumnarFormat.Kind.STRING) {
+            throw new IllegalArgumentException("Not an int column: " + column.getName());
+        }
+        int[] values = new int[rowCount];
+        buffer.asIntBuffer().get(values);
+        return values;
+    }
+
+    // epoch seconds of a DATE column (NULL_DATE for missing or invalid dates)
+    public long[] readDates(int chunk, ColumnarFormat.Column column) throws IOException {
+        if (column.getKind() != ColumnarFormat.Kind.DATE) {
+            throw new IllegalArgumentException("Not a date column: " + column.getName());
+        }
+        long[] values = new long[chunkRowCounts[chunk]];
+        mapColumn(chunk, column).asLongBuffer().get(values);
+        return values;
+    }
+
+    // values of any column as they are written to the CSV output
+    public String[] readStrings(int chunk, ColumnarFormat.Column column) throws IOException {
+        int rowCount = chunkRowCounts[chunk];
+        String[] values = new String[rowCount];
+        switch (column.getKind()) {
+            case INT:
+                int[] ints = readInts(chunk, column);
+                for (int row = 0; row < rowCount; row++) {
+                    values[row] = String.valueOf(ints[row]);
+                }
+                break;
+            case DICTIONARY:
+                int[] ids = readInts(chunk, column);
+                for (int row = 0; row < rowCount; row++) {
+                    values[row] = getDictionaryValue(ids[row]);
+                }
+                break;
+            case DATE:
+                long[] epochSeconds = readDates(chunk, column);
+                int[] offsets = readInts(chunk, column);
+                for (int row = 0; row < rowCount; row++) {
+                    values[row] = ColumnarFormat.formatDate(epochSeconds[row], offsets[row]);
+                }
+                break;
+            case STRING:
+                ByteBuffer buffer = mapColumn(chunk, column);
+                int[] lengths = new int[rowCount];
+                buffer.asIntBuffer().get(lengths);
+                ((Buffer) buffer).position(rowCount * 4);
+                for (int row = 0; row < rowCount; row++) {
+                    if (lengths[row] >= 0) {
+                        byte[] bytes = new byte[lengths[row]];
+                        buffer.get(bytes);
+                        values[row] = new String(bytes, StandardCharsets.UTF_8);
+                    }
+                }
+                break;
+        }
+        return values;
+    }
+
+    private ByteBuffer mapColumn(int chunk, ColumnarFormat.Column column) throws IOException {
+        int index = columns.indexOf(column);
+        if (index < 0) {
+            throw new IllegalArgumentException("Column " + column.getName() + " is not part of " + type + " files.");
+        }
+        long offset = chunkOffsets[chunk];
+        for (int i = 0; i < index; i++) {
+            offset += chunkColumnLengths[chunk][i];
+        }
+        return map(offset, chunkColumnLengths[chunk][index]);
+    }
+
+    private MappedByteBuffer map(long offset, long length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+    }
+
+    private ByteBuffer read(long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of columnar log file.");
+            }
+        }
+        ((Buffer) buffer).flip();
+        return buffer;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
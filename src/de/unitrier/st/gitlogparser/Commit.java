@@ -1,9 +1,18 @@
 package de.unitrier.st.gitlogparser;
 
+import org.apache.commons.io.FilenameUtils;
+
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// a parsed commit, read-only outside of the parser (see CommitStream)
+public class Commit {
+    private static final int INITIAL_FILE_CAPACITY = 4;
 
-class Commit {
     private String project;
     private String branch;
     private String hashValue;
@@ -15,20 +24,35 @@ class Commit {
     private String commitDate;
     private String logMessage;
     private int logMessageLength;
-    // only for regular commit
-    private final ArrayList<CommitFile> files;
+    // only for regular commit, the stats of the files are stored column by column
+    // and the totals are updated when a file is added
+    private final FileExtensionDictionary extensionDictionary;
+    private int fileCount;
+    private int[] fileLinesAdded;
+    private int[] fileLinesDeleted;
+    private String[] filePaths;
+    private int[] fileExtensionIds;
+    private int linesAdded;
+    private int linesDeleted;
+    // ids of the distinct file extensions in the order they were first added
+    private int[] extensionIds;
+    private int extensionCount;
     // only for merge commit
     private String mergedCommits;
     // only for merged pull request
     private String pullRequestId;
     private String sourceUser; // e.g. "Merge pull request #4996 from *Fivell*/issue_4977"
     private String sourceBranch; // e.g. "Merge pull request #4996 from Fivell/*issue_4977*"
+    // only for merge commit, classified by the first line of the log message (see LineTokenizer.MergeType)
+    private String mergeType; // e.g. "pull_request", "branch", null if the message has none of the merge shapes
+    private String mergeSource; // e.g. "Merge branch '*feature*' into master"
+    private String mergeTarget; // e.g. "Merge branch 'feature' into *master*"
 
-    Commit(String project, String branch, String hashValue) {
+    Commit(String project, String branch, String hashValue, FileExtensionDictionary extensionDictionary) {
         this.project = project;
         this.branch = branch;
         this.hashValue = hashValue;
-        files = new ArrayList<>();
+        this.extensionDictionary = extensionDictionary;
     }
 
     @Override
@@ -42,23 +66,91 @@ class Commit {
         output += "Committer: " + commitName +  " " + commitEmail + "; ";
         output += "CommitDate: " + commitDate + "; ";
         output += "LogMessageLength: " + logMessageLength + "; ";
-        output += "FileCount: " + files.size() + "; ";
+        output += "FileCount: " + fileCount + "; ";
         output += "MergedCommits: " + mergedCommits + "; ";
         output += "PullRequestId: " + pullRequestId + "; ";
         output += "SourceUser: " + sourceUser + "; ";
         output += "SourceBranch: " + sourceBranch + "; ";
+        output += "MergeType: " + mergeType + "; ";
+        output += "MergeSource: " + mergeSource + "; ";
+        output += "MergeTarget: " + mergeTarget + "; ";
         return output;
     }
 
-    ArrayList<CommitFile> getFiles() {
-        return files;
+    // creates the files from the stored stats
+    public List<CommitFile> getFiles() {
+        List<CommitFile> files = new ArrayList<>(fileCount);
+        for (int i = 0; i < fileCount; i++) {
+            files.add(new CommitFile(fileLinesAdded[i], fileLinesDeleted[i], filePaths[i],
+                    extensionDictionary.get(fileExtensionIds[i])));
+        }
+        return Collections.unmodifiableList(files);
+    }
+
+    // stats of the file with the given index (in the order the files were added)
+    String getFilePath(int index) {
+        return filePaths[index];
+    }
+
+    int getFileLinesAdded(int index) {
+        return fileLinesAdded[index];
+    }
+
+    int getFileLinesDeleted(int index) {
+        return fileLinesDeleted[index];
+    }
+
+    // id of the extension of the file with the given index (see FileExtensionDictionary)
+    int getFileExtensionId(int index) {
+        return fileExtensionIds[index];
+    }
+
+    // distinct extensions of the files
+    int getExtensionCount() {
+        return extensionCount;
+    }
+
+    int getExtensionId(int index) {
+        return extensionIds[index];
     }
 
-    void addFile(CommitFile file) {
-        files.add(file);
+    void addFile(int linesAdded, int linesDeleted, String path) {
+        if (fileCount == 0 && fileLinesAdded == null) {
+            fileLinesAdded = new int[INITIAL_FILE_CAPACITY];
+            fileLinesDeleted = new int[INITIAL_FILE_CAPACITY];
+            filePaths = new String[INITIAL_FILE_CAPACITY];
+            fileExtensionIds = new int[INITIAL_FILE_CAPACITY];
+            extensionIds = new int[INITIAL_FILE_CAPACITY];
+        } else if (fileCount == fileLinesAdded.length) {
+            int capacity = fileCount * 2;
+            fileLinesAdded = Arrays.copyOf(fileLinesAdded, capacity);
+            fileLinesDeleted = Arrays.copyOf(fileLinesDeleted, capacity);
+            filePaths = Arrays.copyOf(filePaths, capacity);
+            fileExtensionIds = Arrays.copyOf(fileExtensionIds, capacity);
+        }
+
+        int extensionId = extensionDictionary.getId(FilenameUtils.getExtension(path));
+        fileLinesAdded[fileCount] = linesAdded;
+        fileLinesDeleted[fileCount] = linesDeleted;
+        filePaths[fileCount] = path;
+        fileExtensionIds[fileCount] = extensionId;
+        fileCount++;
+        this.linesAdded += linesAdded;
+        this.linesDeleted += linesDeleted;
+
+        // commits have few distinct extensions, a linear search is faster than a set
+        for (int i = 0; i < extensionCount; i++) {
+            if (extensionIds[i] == extensionId) {
+                return;
+            }
+        }
+        if (extensionCount == extensionIds.length) {
+            extensionIds = Arrays.copyOf(extensionIds, extensionCount * 2);
+        }
+        extensionIds[extensionCount++] = extensionId;
     }
 
-    String getProject() {
+    public String getProject() {
         return project;
     }
 
@@ -66,7 +158,7 @@ class Commit {
         this.project = project.trim();
     }
 
-    String getBranch() {
+    public String getBranch() {
         return branch;
     }
 
@@ -74,7 +166,7 @@ class Commit {
         this.branch = branch.trim();
     }
 
-    String getHashValue() {
+    public String getHashValue() {
         return hashValue;
     }
 
@@ -82,7 +174,7 @@ class Commit {
         this.hashValue = hashValue.trim();
     }
 
-    String getAuthorName() {
+    public String getAuthorName() {
         return authorName;
     }
 
@@ -90,7 +182,7 @@ class Commit {
         this.authorName = authorName.trim();
     }
 
-    String getAuthorEmail() {
+    public String getAuthorEmail() {
         return authorEmail;
     }
 
@@ -98,7 +190,7 @@ class Commit {
         this.authorEmail = authorEmail.trim();
     }
 
-    String getAuthorDate() {
+    public String getAuthorDate() {
         return authorDate;
     }
 
@@ -106,7 +198,7 @@ class Commit {
         this.authorDate = authorDate.trim();
     }
 
-    String getCommitName() {
+    public String getCommitName() {
         return commitName;
     }
 
@@ -114,7 +206,7 @@ class Commit {
         this.commitName = commitName.trim();
     }
 
-    String getCommitEmail() {
+    public String getCommitEmail() {
         return commitEmail;
     }
 
@@ -122,7 +214,7 @@ class Commit {
         this.commitEmail = commitEmail.trim();
     }
 
-    String getCommitDate() {
+    public String getCommitDate() {
         return commitDate;
     }
 
@@ -130,7 +222,7 @@ class Commit {
         this.commitDate = commitDate.trim();
     }
 
-    String getLogMessage() {
+    public String getLogMessage() {
         return logMessage;
     }
 
@@ -139,11 +231,17 @@ class Commit {
         this.logMessageLength = logMessage.length();
     }
 
-    int getLogMessageLength() {
+    // the message may be truncated or null (see CommitParser.maxMessageLength), the length is the one of the whole message
+    void setLogMessage(String logMessage, int logMessageLength) {
+        this.logMessage = logMessage;
+        this.logMessageLength = logMessageLength;
+    }
+
+    public int getLogMessageLength() {
         return logMessageLength;
     }
 
-    String getMergedCommits() {
+    public String getMergedCommits() {
         return mergedCommits;
     }
 
@@ -151,7 +249,7 @@ class Commit {
         this.mergedCommits = mergedCommits.trim();
     }
 
-    String getPullRequestId() {
+    public String getPullRequestId() {
         return pullRequestId;
     }
 
@@ -159,7 +257,7 @@ class Commit {
         this.pullRequestId = pullRequestId;
     }
 
-    String getSourceUser() {
+    public String getSourceUser() {
         return sourceUser;
     }
 
@@ -167,7 +265,7 @@ class Commit {
         this.sourceUser = sourceUser.trim();
     }
 
-    String getSourceBranch() {
+    public String getSourceBranch() {
         return sourceBranch;
     }
 
@@ -175,44 +273,62 @@ class Commit {
         this.sourceBranch = sourceBranch;
     }
 
-    int getFileCount() {
-        return files.size();
+    public String getMergeType() {
+        return mergeType;
     }
 
-    int getLinesAdded() {
-        int linesAdded = 0;
-        for (CommitFile file : files) {
-            linesAdded += file.getLinesAdded();
-        }
+    void setMergeType(String mergeType) {
+        this.mergeType = mergeType;
+    }
+
+    public String getMergeSource() {
+        return mergeSource;
+    }
+
+    void setMergeSource(String mergeSource) {
+        this.mergeSource = mergeSource;
+    }
+
+    public String getMergeTarget() {
+        return mergeTarget;
+    }
+
+    void setMergeTarget(String mergeTarget) {
+        this.mergeTarget = mergeTarget;
+    }
+
+    public int getFileCount() {
+        return fileCount;
+    }
+
+    public int getLinesAdded() {
         return linesAdded;
     }
 
-    int getLinesDeleted() {
-        int linesDeleted = 0;
-        for (CommitFile file : files) {
-            linesDeleted += file.getLinesDeleted();
-        }
+    public int getLinesDeleted() {
         return linesDeleted;
     }
 
-    int getLineCount() {
+    public int getLineCount() {
         return Math.max(getLinesAdded(), getLinesDeleted());
     }
 
-    String getFileExtensions() {
-        HashSet<String> fileExtensions = new HashSet<>();
-        for (CommitFile file : files) {
-            String fileExtension = file.getFileExtension();
-            if (file.getFileExtension().length() == 0) {
-                fileExtension = "none";
-            }
-            fileExtensions.add(fileExtension);
+    // distinct file extensions, each preceded by a blank ("none" for files without extension),
+    // in the iteration order of a HashSet<String> as in earlier versions (the distinct extensions are added
+    // in the order of the files, which gives the same set as adding the extension of every file)
+    public String getFileExtensions() {
+        if (extensionCount == 0) {
+            return "";
+        }
+        Set<String> fileExtensions = new HashSet<>();
+        for (int i = 0; i < extensionCount; i++) {
+            fileExtensions.add(extensionDictionary.getName(extensionIds[i]));
         }
-        String result = "";
+        StringBuilder result = new StringBuilder();
         for (String fileExtension : fileExtensions) {
-            result = fileExtension.length() == 0 ? fileExtension : result + " " + fileExtension;
+            result.append(' ').append(fileExtension);
         }
-        return result;
+        return result.toString();
     }
 
     enum csvHeaderCommits {
@@ -242,7 +358,8 @@ class Commit {
         log_message_length, /*log_message,*/
         file_count, lines_added, lines_deleted,
         file_extensions,
-        pull_request_id, source_user, source_branch
+        pull_request_id, source_user, source_branch,
+        merge_type, merge_source, merge_target
     }
 
     String[] getValuesMerges() {
@@ -253,7 +370,8 @@ class Commit {
                 String.valueOf(getLogMessageLength()), /*getLogMessage(),*/
                 String.valueOf(getFileCount()), String.valueOf(getLinesAdded()), String.valueOf(getLinesDeleted()),
                 getFileExtensions(),
-                getPullRequestId(), getSourceUser(), getSourceBranch()
+                getPullRequestId(), getSourceUser(), getSourceBranch(),
+                getMergeType(), getMergeSource(), getMergeTarget()
         };
     }
 
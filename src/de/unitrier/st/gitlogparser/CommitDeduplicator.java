@@ -0,0 +1,134 @@
+package de.unitrier.st.gitlogparser;
+
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// skips the commits that were already parsed from another branch of the same project (--deduplicate):
+// the hashes of the commits of each project that were written are collected in a CommitHashSet
+// (commits that are dropped, e.g. the last commit of a log, are kept by other branches),
+// a commit whose hash is already in the set is skipped before its file stats and message are parsed
+// (see CommitParser.parse),
+// the branches that contain it are written to the table commit_branches instead
+// ("project§branch_type_branches.csv" next to the output file of each log, see csvHeaderCommitBranches);
+// the hashes of a log are only added to the hashes of its project when the log is committed
+// (the commits of a discarded log are kept by the other branches), and the logs of a project are parsed
+// one after another in the order of their branches (see BatchScheduler), whose first log keeps a commit
+class CommitDeduplicator {
+    enum csvHeaderCommitBranches {
+        project, branch, hash_value
+    }
+
+    // commits per project before the first set grows
+    private static final int INITIAL_CAPACITY = 1 << 14;
+
+    private final Path outputDirPath;
+    private final boolean offHeap;
+    private final Map<String, CommitHashSet> seenCommits = new ConcurrentHashMap<>();
+    private final Map<LogFile, CommitHashSet> stagedCommits = new ConcurrentHashMap<>();
+    private final LongAdder rowCount = new LongAdder();
+
+    CommitDeduplicator(Path outputDirPath, boolean offHeap) {
+        this.outputDirPath = outputDirPath;
+        this.offHeap = offHeap;
+    }
+
+    // the hashes of the commits of the log (shared by its chunks) on top of the hashes of the committed logs
+    // of the project
+    CommitHashSet getSeenCommits(LogFile logFile) {
+        CommitHashSet projectCommits = seenCommits.computeIfAbsent(logFile.getProject(),
+                p -> new CommitHashSet(INITIAL_CAPACITY, offHeap));
+        CommitHashSet logCommits = new CommitHashSet(INITIAL_CAPACITY, offHeap, projectCommits);
+        stagedCommits.put(logFile, logCommits);
+        return logCommits;
+    }
+
+    // the sink writes a row for each skipped commit and passes the other commits to the next sink,
+    // the table is written to a temporary file until commit is called
+    CommitSink openSink(LogFile logFile, CommitSink next) throws IOException {
+        Path branchesFilePath = getBranchesFilePath(logFile);
+        System.out.println("Writing file: " + branchesFilePath.getFileName());
+        return new BranchesSink(OutputFiles.getTempPath(branchesFilePath), logFile, next);
+    }
+
+    // renames the table of the log when its sink is closed and the other output files are complete,
+    // the hashes of the log are added to the hashes of the project
+    void commit(LogFile logFile) throws IOException {
+        OutputFiles.commit(getBranchesFilePath(logFile));
+        CommitHashSet logCommits = stagedCommits.remove(logFile);
+        if (logCommits != null) {
+            seenCommits.get(logFile.getProject()).addAll(logCommits);
+        }
+    }
+
+    // the hashes of the discarded log are dropped, its commits are kept by the logs of the other branches
+    void discard(LogFile logFile) {
+        OutputFiles.discard(getBranchesFilePath(logFile));
+        stagedCommits.remove(logFile);
+    }
+
+    private Path getBranchesFilePath(LogFile logFile) {
+        return outputDirPath.resolve(logFile.getOutputFileName("_branches.csv"));
+    }
+
+    long getRowCount() {
+        return rowCount.sum();
+    }
+
+    // number of distinct commits of all projects
+    long getCommitCount() {
+        long commitCount = 0;
+        for (CommitHashSet hashes : seenCommits.values()) {
+            commitCount += hashes.size();
+        }
+        return commitCount;
+    }
+
+    private class BranchesSink implements CommitSink {
+        private final CSVPrinter csvPrinter;
+        private final LogFile logFile;
+        private final CommitSink next;
+        private long writeNanos;
+
+        BranchesSink(Path branchesFilePath, LogFile logFile, CommitSink next) throws IOException {
+            this.logFile = logFile;
+            this.next = next;
+            // header is automatically written
+            csvPrinter = new CSVPrinter(Files.newBufferedWriter(branchesFilePath, StandardCharsets.UTF_8),
+                    CsvCommitSink.getCsvFormat("commit_branches"));
+        }
+
+        @Override
+        public void accept(Commit commit) throws IOException {
+            next.accept(commit);
+        }
+
+        @Override
+        public void acceptDuplicate(String hashValue) throws IOException {
+            long start = System.nanoTime();
+            csvPrinter.printRecord(logFile.getProject(), logFile.getBranch(), hashValue);
+            rowCount.increment();
+            writeNanos += System.nanoTime() - start;
+        }
+
+        @Override
+        public long getWriteNanos() {
+            return writeNanos + next.getWriteNanos();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                csvPrinter.close();
+            } finally {
+                next.close();
+            }
+        }
+    }
+}
@@ -1,52 +1,38 @@
 package de.unitrier.st.gitlogparser;
 
-import org.apache.commons.io.FilenameUtils;
-
-class CommitFile {
-    private int linesAdded;
-    private int linesDeleted;
-    private String path;
-    private String fileExtension;
-
-    CommitFile() {
-        linesAdded = 0;
-        linesDeleted = 0;
-        path = "";
-        fileExtension = "";
-    }
-
-    CommitFile(int linesAdded, int linesDeleted, String path) {
-        setLinesAdded(linesAdded);
-        setLinesDeleted(linesDeleted);
-        setPath(path);
+// stats of one file of a commit (see Commit.getFiles)
+public final class CommitFile {
+    // columns of the table commit_files, the paths are stored in the path dictionary of the project (see PathDictionary)
+    enum csvHeaderCommitFiles {
+        project, branch, hash_value,
+        path_id, lines_added, lines_deleted
     }
 
-    int getLinesAdded() {
-        return linesAdded;
-    }
+    private final int linesAdded;
+    private final int linesDeleted;
+    private final String path;
+    private final String fileExtension;
 
-    void setLinesAdded(int linesAdded) {
+    CommitFile(int linesAdded, int linesDeleted, String path, String fileExtension) {
         this.linesAdded = linesAdded;
+        this.linesDeleted = linesDeleted;
+        this.path = path;
+        this.fileExtension = fileExtension;
     }
 
-    int getLinesDeleted() {
-        return linesDeleted;
+    public int getLinesAdded() {
+        return linesAdded;
     }
 
-    void setLinesDeleted(int linesDeleted) {
-        this.linesDeleted = linesDeleted;
+    public int getLinesDeleted() {
+        return linesDeleted;
     }
 
-    String getPath() {
+    public String getPath() {
         return path;
     }
 
-    void setPath(String path) {
-        this.path = path;
-        this.fileExtension = FilenameUtils.getExtension(path);
-    }
-
-    String getFileExtension() {
+    public String getFileExtension() {
         return fileExtension;
     }
-}
\ No newline at end of file
+}
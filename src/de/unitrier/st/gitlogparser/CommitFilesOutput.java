@@ -0,0 +1,140 @@
+package de.unitrier.st.gitlogparser;
+
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// writes the table commit_files with one row per file stat of the commits that are kept
+// ("project§branch_type_files.csv" next to the output file of each log, see CommitFile.csvHeaderCommitFiles),
+// the paths are replaced by their ids in the path dictionary of the project ("project§paths.csv", see PathDictionary)
+class CommitFilesOutput implements Closeable {
+    private final Path outputDirPath;
+    private final Map<String, PathDictionary> dictionaries = new ConcurrentHashMap<>();
+    private final LongAdder rowCount = new LongAdder();
+
+    CommitFilesOutput(Path outputDirPath) {
+        this.outputDirPath = outputDirPath;
+    }
+
+    // the sink writes the file stats of each commit and then passes the commit to the next sink,
+    // the table is written to a temporary file until commit is called
+    CommitSink openSink(LogFile logFile, CommitSink next) throws IOException {
+        Path filesFilePath = getFilesFilePath(logFile);
+        System.out.println("Writing file: " + filesFilePath.getFileName());
+        return new FilesSink(OutputFiles.getTempPath(filesFilePath), getDictionary(logFile.getProject()), next);
+    }
+
+    // renames the table of the log when its sink is closed and the other output files are complete
+    void commit(LogFile logFile) throws IOException {
+        OutputFiles.commit(getFilesFilePath(logFile));
+    }
+
+    void discard(LogFile logFile) {
+        OutputFiles.discard(getFilesFilePath(logFile));
+    }
+
+    private Path getFilesFilePath(LogFile logFile) {
+        return outputDirPath.resolve(logFile.getOutputFileName("_files.csv"));
+    }
+
+    private PathDictionary getDictionary(String project) throws IOException {
+        try {
+            return dictionaries.computeIfAbsent(project, p -> {
+                Path dictionaryFilePath = outputDirPath.resolve(p + "§paths.csv");
+                System.out.println("Writing file: " + dictionaryFilePath.getFileName());
+                try {
+                    return new PathDictionary(dictionaryFilePath);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    long getRowCount() {
+        return rowCount.sum();
+    }
+
+    // number of directories and files in the path dictionaries of all projects
+    long getPathCount() {
+        long pathCount = 0;
+        for (PathDictionary dictionary : dictionaries.values()) {
+            pathCount += dictionary.size();
+        }
+        return pathCount;
+    }
+
+    int getProjectCount() {
+        return dictionaries.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        List<PathDictionary> openDictionaries = new ArrayList<>(dictionaries.values());
+        IOException failure = null;
+        for (PathDictionary dictionary : openDictionaries) {
+            try {
+                dictionary.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private class FilesSink implements CommitSink {
+        private final CSVPrinter csvPrinter;
+        private final PathDictionary dictionary;
+        private final CommitSink next;
+        private long writeNanos;
+
+        FilesSink(Path filesFilePath, PathDictionary dictionary, CommitSink next) throws IOException {
+            this.dictionary = dictionary;
+            this.next = next;
+            // header is automatically written
+            csvPrinter = new CSVPrinter(Files.newBufferedWriter(filesFilePath, StandardCharsets.UTF_8),
+                    CsvCommitSink.getCsvFormat("commit_files"));
+        }
+
+        @Override
+        public void accept(Commit commit) throws IOException {
+            long start = System.nanoTime();
+            for (int i = 0; i < commit.getFileCount(); i++) {
+                csvPrinter.printRecord(commit.getProject(), commit.getBranch(), commit.getHashValue(),
+                        dictionary.getId(commit.getFilePath(i)),
+                        commit.getFileLinesAdded(i), commit.getFileLinesDeleted(i));
+            }
+            rowCount.add(commit.getFileCount());
+            writeNanos += System.nanoTime() - start;
+            next.accept(commit);
+        }
+
+        @Override
+        public long getWriteNanos() {
+            return writeNanos + next.getWriteNanos();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                csvPrinter.close();
+            } finally {
+                next.close();
+            }
+        }
+    }
+}
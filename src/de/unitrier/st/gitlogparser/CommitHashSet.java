@@ -0,0 +1,204 @@
+package de.unitrier.st.gitlogparser;
+
+import java.nio.ByteBuffer;
+
+// set of 20 byte commit hashes, an open addressing hash table with linear probing
+// whose slots are the packed hashes, stored in buffers of at most SEGMENT_SLOTS slots
+// (on the heap or, for hundreds of millions of hashes, off-heap in direct buffers);
+// the all-zero hash marks empty slots and is tracked separately;
+// a set with a base set only stores the hashes that are not in the base set (e.g. the hashes of one log
+// that are added to the hashes of its project when the log is complete)
+class CommitHashSet {
+    private static final int HASH_LENGTH = CommitIndexWriter.HASH_KEY_LENGTH;
+    private static final int SEGMENT_BITS = 26; // 64M slots, 1.25 GB per buffer
+    private static final int SEGMENT_SLOTS = 1 << SEGMENT_BITS;
+
+    private final boolean offHeap;
+    private final CommitHashSet base; // null if the set has no base set
+    private ByteBuffer[] segments;
+    private long capacity; // power of two
+    private long size;
+    private boolean containsZero;
+
+    CommitHashSet(long initialCapacity, boolean offHeap) {
+        this(initialCapacity, offHeap, null);
+    }
+
+    CommitHashSet(long initialCapacity, boolean offHeap, CommitHashSet base) {
+        this.offHeap = offHeap;
+        this.base = base;
+        long capacity = 16;
+        while (capacity < initialCapacity) {
+            capacity *= 2;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(long capacity) {
+        this.capacity = capacity;
+        int segmentCount = (int) Math.max(capacity >>> SEGMENT_BITS, 1);
+        int segmentSlots = (int) Math.min(capacity, SEGMENT_SLOTS);
+        segments = new ByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            // new buffers are zeroed, i.e. all slots are empty
+            segments[i] = offHeap
+                    ? ByteBuffer.allocateDirect(segmentSlots * HASH_LENGTH)
+                    : ByteBuffer.allocate(segmentSlots * HASH_LENGTH);
+        }
+    }
+
+    // adds the hash (40 hexadecimal digits), returns false if it was already in the set
+    // and true for other hash values, which cannot be stored
+    boolean add(String hashValue) {
+        byte[] hash = CommitIndexWriter.parseHash(hashValue);
+        return hash == null || add(hash);
+    }
+
+    // adds the hash, returns false if it was already in the set or in the base set
+    boolean add(byte[] hash) {
+        if (base != null && base.contains(hash)) {
+            return false;
+        }
+        return addHash(hash);
+    }
+
+    private synchronized boolean addHash(byte[] hash) {
+        if (isZero(hash, 0)) {
+            boolean added = !containsZero;
+            containsZero = true;
+            return added;
+        }
+        long slot = find(segments, capacity, hash, 0);
+        if (!isEmpty(segments, slot)) {
+            return false;
+        }
+        write(segments, slot, hash, 0);
+        // load factor 0.75
+        if (++size * 4 > capacity * 3) {
+            grow();
+        }
+        return true;
+    }
+
+    // true if the hash (40 hexadecimal digits) is in the set or in the base set, false for other hash values
+    boolean contains(String hashValue) {
+        byte[] hash = CommitIndexWriter.parseHash(hashValue);
+        return hash != null && (base != null && base.contains(hash) || contains(hash));
+    }
+
+    synchronized boolean contains(byte[] hash) {
+        if (isZero(hash, 0)) {
+            return containsZero;
+        }
+        return !isEmpty(segments, find(segments, capacity, hash, 0));
+    }
+
+    // adds the hashes of the other set (without the hashes of its base set),
+    // which must not be modified at the same time
+    synchronized void addAll(CommitHashSet other) {
+        byte[] hash = new byte[HASH_LENGTH];
+        if (other.containsZero) {
+            containsZero = true;
+        }
+        for (long slot = 0; slot < other.capacity; slot++) {
+            if (!isEmpty(other.segments, slot)) {
+                read(other.segments, slot, hash);
+                long targetSlot = find(segments, capacity, hash, 0);
+                if (isEmpty(segments, targetSlot)) {
+                    write(segments, targetSlot, hash, 0);
+                    if (++size * 4 > capacity * 3) {
+                        grow();
+                    }
+                }
+            }
+        }
+    }
+
+    // the number of hashes without the hashes of the base set
+    synchronized long size() {
+        return size + (containsZero ? 1 : 0);
+    }
+
+    // the slot of the hash or the empty slot where it would be added
+    private static long find(ByteBuffer[] segments, long capacity, byte[] hash, int offset) {
+        long mask = capacity - 1;
+        // the first bytes of commit hashes (SHA-1) are uniformly distributed
+        long slot = readLong(hash, offset) & mask;
+        while (true) {
+            ByteBuffer segment = segments[(int) (slot >>> SEGMENT_BITS)];
+            int position = (int) (slot & (SEGMENT_SLOTS - 1)) * HASH_LENGTH;
+            boolean empty = true;
+            boolean equal = true;
+            for (int i = 0; i < HASH_LENGTH; i++) {
+                byte b = segment.get(position + i);
+                if (b != 0) {
+                    empty = false;
+                }
+                if (b != hash[offset + i]) {
+                    equal = false;
+                }
+            }
+            if (empty || equal) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void grow() {
+        ByteBuffer[] oldSegments = segments;
+        long oldCapacity = capacity;
+        allocate(capacity * 2);
+        byte[] hash = new byte[HASH_LENGTH];
+        for (long slot = 0; slot < oldCapacity; slot++) {
+            if (!isEmpty(oldSegments, slot)) {
+                read(oldSegments, slot, hash);
+                write(segments, find(segments, capacity, hash, 0), hash, 0);
+            }
+        }
+    }
+
+    private static boolean isEmpty(ByteBuffer[] segments, long slot) {
+        ByteBuffer segment = segments[(int) (slot >>> SEGMENT_BITS)];
+        int position = (int) (slot & (SEGMENT_SLOTS - 1)) * HASH_LENGTH;
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            if (segment.get(position + i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void read(ByteBuffer[] segments, long slot, byte[] hash) {
+        ByteBuffer segment = segments[(int) (slot >>> SEGMENT_BITS)];
+        int position = (int) (slot & (SEGMENT_SLOTS - 1)) * HASH_LENGTH;
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            hash[i] = segment.get(position + i);
+        }
+    }
+
+    private static void write(ByteBuffer[] segments, long slot, byte[] hash, int offset) {
+        ByteBuffer segment = segments[(int) (slot >>> SEGMENT_BITS)];
+        int position = (int) (slot & (SEGMENT_SLOTS - 1)) * HASH_LENGTH;
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            segment.put(position + i, hash[offset + i]);
+        }
+    }
+
+    private static boolean isZero(byte[] hash, int offset) {
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            if (hash[offset + i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = value << 8 | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,264 @@
+package de.unitrier.st.gitlogparser;
+
+import org.apache.commons.cli.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// looks up the rows of the CSV files written with "--index" by commit hash or author email,
+// the index files are memory-mapped and searched with binary search, e.g.:
+//
+//   try (CommitIndexReader reader = new CommitIndexReader(outputDirPath)) {
+//       for (CommitIndexReader.Location location : reader.findByAuthorEmail("dhh@37signals.com")) {
+//           System.out.println(location.getFileName() + ": " + reader.readRow(location));
+//       }
+//   }
+//
+// or from the command line: CommitIndexReader -o /data/parsed-logs -c <hash> (or -a <email>)
+public class CommitIndexReader implements Closeable {
+    private final Path outputDirPath;
+    private final List<String> fileNames;
+    private final MappedRecords hashes;
+    private final MappedRecords authors;
+    private final FileChannel[] fileChannels; // opened on the first row read from the file
+
+    public CommitIndexReader(Path outputDirPath) throws IOException {
+        this.outputDirPath = outputDirPath;
+        Path indexDirPath = outputDirPath.resolve(CommitIndexWriter.DIRECTORY_NAME);
+        fileNames = Files.readAllLines(indexDirPath.resolve(CommitIndexWriter.FILES_FILE_NAME), StandardCharsets.UTF_8);
+        hashes = new MappedRecords(indexDirPath.resolve(CommitIndexWriter.HASHES_FILE_NAME),
+                CommitIndexWriter.HASH_KEY_LENGTH);
+        authors = new MappedRecords(indexDirPath.resolve(CommitIndexWriter.AUTHORS_FILE_NAME),
+                CommitIndexWriter.AUTHOR_KEY_LENGTH);
+        fileChannels = new FileChannel[fileNames.size()];
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options options = new Options();
+
+        Option outputDir = new Option("o", "output-dir", true, "path to the output directory of the indexed run");
+        outputDir.setRequired(true);
+        options.addOption(outputDir);
+
+        Option commitOption = new Option("c", "commit", true, "commit hash (40 hexadecimal digits)");
+        commitOption.setRequired(false);
+        options.addOption(commitOption);
+
+        Option authorOption = new Option("a", "author", true, "author email");
+        authorOption.setRequired(false);
+        options.addOption(authorOption);
+
+        CommandLineParser commandLineParser = new DefaultParser();
+        HelpFormatter commandLineFormatter = new HelpFormatter();
+        CommandLine commandLine;
+
+        try {
+            commandLine = commandLineParser.parse(options, args);
+        } catch (ParseException e) {
+            System.out.println(e.getMessage());
+            commandLineFormatter.printHelp("CommitIndexReader", options);
+            System.exit(1);
+            return;
+        }
+
+        if (commandLine.hasOption("commit") == commandLine.hasOption("author")) {
+            System.out.println("Exactly one of the options commit and author is required.");
+            commandLineFormatter.printHelp("CommitIndexReader", options);
+            System.exit(1);
+            return;
+        }
+
+        try (CommitIndexReader reader = new CommitIndexReader(Paths.get(commandLine.getOptionValue("output-dir")))) {
+            long start = System.nanoTime();
+            List<Location> locations = commandLine.hasOption("commit")
+                    ? reader.findByHash(commandLine.getOptionValue("commit"))
+                    : reader.findByAuthorEmail(commandLine.getOptionValue("author"));
+            for (Location location : locations) {
+                System.out.println(location.getFileName() + ": " + reader.readRow(location));
+            }
+            System.out.println(locations.size() + " rows found in " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+        }
+    }
+
+    // the rows of the commit in all output files (e.g. one per branch)
+    public List<Location> findByHash(String hash) {
+        byte[] key = CommitIndexWriter.parseHash(hash.trim());
+        if (key == null) {
+            throw new IllegalArgumentException("Commit hash must have 40 hexadecimal digits: " + hash);
+        }
+        return hashes.find(key);
+    }
+
+    // the rows of the commits of the author (emails are compared without case)
+    public List<Location> findByAuthorEmail(String email) throws IOException {
+        long hash = CommitIndexWriter.hashEmail(email);
+        byte[] key = new byte[CommitIndexWriter.AUTHOR_KEY_LENGTH];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = (byte) (hash >>> (56 - 8 * i));
+        }
+        // rows of other emails with the same hash are removed
+        String quotedEmail = (";\"" + email.trim() + "\";").toLowerCase(Locale.ROOT);
+        List<Location> locations = new ArrayList<>();
+        for (Location location : authors.find(key)) {
+            if (readRow(location).toLowerCase(Locale.ROOT).contains(quotedEmail)) {
+                locations.add(location);
+            }
+        }
+        return locations;
+    }
+
+    // the row at the location, without record separator
+    public synchronized String readRow(Location location) throws IOException {
+        FileChannel channel = fileChannels[location.fileId];
+        if (channel == null) {
+            channel = FileChannel.open(outputDirPath.resolve(location.getFileName()), StandardOpenOption.READ);
+            fileChannels[location.fileId] = channel;
+        }
+        ByteArrayOutputStream row = new ByteArrayOutputStream(512);
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long position = location.getOffset();
+        int previous = -1;
+        while (channel.read(buffer, position) > 0) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                byte current = buffer.get();
+                if (previous == '\r' && current == '\n') {
+                    byte[] bytes = row.toByteArray();
+                    return new String(bytes, 0, bytes.length - 1, StandardCharsets.UTF_8);
+                }
+                row.write(current);
+                previous = current;
+            }
+            position += buffer.limit();
+            buffer.clear();
+        }
+        return new String(row.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        // the mappings are released by the garbage collector
+        hashes.channel.close();
+        authors.channel.close();
+        for (FileChannel channel : fileChannels) {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+
+    // output file and byte offset of a row
+    public class Location {
+        private final int fileId;
+        private final long offset;
+
+        private Location(int fileId, long offset) {
+            this.fileId = fileId;
+            this.offset = offset;
+        }
+
+        public String getFileName() {
+            return fileNames.get(fileId);
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+    }
+
+    // records of an index file (key, file id, offset), mapped in windows of whole records
+    // (a single mapping is limited to 2 GB)
+    private class MappedRecords {
+        private static final long WINDOW_SIZE = 1L << 30;
+
+        private final FileChannel channel;
+        private final int keyLength;
+        private final int recordLength;
+        private final long recordCount;
+        private final long windowRecords;
+        private final MappedByteBuffer[] windows;
+
+        MappedRecords(Path indexFilePath, int keyLength) throws IOException {
+            this.keyLength = keyLength;
+            recordLength = keyLength + 4 + 8;
+            channel = FileChannel.open(indexFilePath, StandardOpenOption.READ);
+            try {
+                if (channel.size() < CommitIndexWriter.HEADER_SIZE) {
+                    throw new IOException("Not an index file: " + indexFilePath);
+                }
+                ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, CommitIndexWriter.HEADER_SIZE);
+                if (header.getInt() != CommitIndexWriter.MAGIC) {
+                    throw new IOException("Not an index file: " + indexFilePath);
+                }
+                byte version = header.get();
+                if (version != CommitIndexWriter.VERSION) {
+                    throw new IOException("Unsupported version " + version + " of index file: " + indexFilePath);
+                }
+                recordCount = header.getLong();
+                if (CommitIndexWriter.HEADER_SIZE + recordCount * recordLength != channel.size()) {
+                    throw new IOException("Incomplete index file: " + indexFilePath);
+                }
+
+                windowRecords = WINDOW_SIZE / recordLength;
+                windows = new MappedByteBuffer[(int) ((recordCount + windowRecords - 1) / windowRecords)];
+                for (int i = 0; i < windows.length; i++) {
+                    long first = i * windowRecords;
+                    long count = Math.min(windowRecords, recordCount - first);
+                    windows[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                            CommitIndexWriter.HEADER_SIZE + first * recordLength, count * recordLength);
+                }
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        // the locations of all records with the key, in the order of file ids and offsets
+        List<Location> find(byte[] key) {
+            // first record with a key that is not smaller
+            long low = 0;
+            long high = recordCount;
+            byte[] recordKey = new byte[keyLength];
+            while (low < high) {
+                long middle = (low + high) >>> 1;
+                if (CommitIndexWriter.compareKeys(readKey(middle, recordKey), 0, key, 0, keyLength) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            List<Location> locations = new ArrayList<>();
+            for (long record = low; record < recordCount; record++) {
+                if (CommitIndexWriter.compareKeys(readKey(record, recordKey), 0, key, 0, keyLength) != 0) {
+                    break;
+                }
+                ByteBuffer window = windows[(int) (record / windowRecords)];
+                int position = (int) (record % windowRecords) * recordLength + keyLength;
+                locations.add(new Location(window.getInt(position), window.getLong(position + 4)));
+            }
+            return locations;
+        }
+
+        private byte[] readKey(long record, byte[] recordKey) {
+            ByteBuffer window = windows[(int) (record / windowRecords)];
+            int position = (int) (record % windowRecords) * recordLength;
+            for (int i = 0; i < keyLength; i++) {
+                recordKey[i] = window.get(position + i);
+            }
+            return recordKey;
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package de.unitrier.st.gitlogparser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+// builds the lookup index of the CSV output files while they are written (read with CommitIndexReader):
+// the rows of each output file are recorded in two sorted segments ("index/segments/project§branch_type.csv.hashes"
+// with the binary commit hash and "....authors" with a hash of the author email, each with the byte offset of the row),
+// at the end of the run all segments in the directory (also those of resumed runs) are merged into
+// "index/hashes.idx" and "index/authors.idx", the output files are listed in "index/files.txt" (id = line)
+class CommitIndexWriter {
+    static final String DIRECTORY_NAME = "index";
+    static final String FILES_FILE_NAME = "files.txt";
+    static final String HASHES_FILE_NAME = "hashes.idx";
+    static final String AUTHORS_FILE_NAME = "authors.idx";
+    static final int MAGIC = 0x47_4C_50_49; // "GLPI"
+    static final byte VERSION = 1;
+    static final int HEADER_SIZE = 4 + 1 + 8; // magic, version, record count
+
+    static final int HASH_KEY_LENGTH = 20;
+    static final int AUTHOR_KEY_LENGTH = 8;
+
+    // segments merged at once, larger indexes are merged in several passes
+    static final int MERGE_FAN_IN = 256;
+
+    private static final String HASHES_EXTENSION = ".hashes";
+    private static final String AUTHORS_EXTENSION = ".authors";
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path indexDirPath;
+    private final Path segmentDirPath;
+
+    CommitIndexWriter(Path outputDirPath) throws IOException {
+        indexDirPath = outputDirPath.resolve(DIRECTORY_NAME);
+        segmentDirPath = indexDirPath.resolve("segments");
+        Files.createDirectories(segmentDirPath);
+    }
+
+    // the recorder writes the segments of the output file to temporary files when it is closed
+    Recorder openFile(String outputFileName) {
+        return new Recorder(outputFileName);
+    }
+
+    // renames the segments of the output file when the output file is complete
+    void commit(String outputFileName) throws IOException {
+        OutputFiles.commit(segmentDirPath.resolve(outputFileName + HASHES_EXTENSION));
+        OutputFiles.commit(segmentDirPath.resolve(outputFileName + AUTHORS_EXTENSION));
+    }
+
+    void discard(String outputFileName) {
+        OutputFiles.discard(segmentDirPath.resolve(outputFileName + HASHES_EXTENSION));
+        OutputFiles.discard(segmentDirPath.resolve(outputFileName + AUTHORS_EXTENSION));
+    }
+
+    // merges the segments of all output files into the index files
+    void merge() throws IOException {
+        File[] segmentFiles = segmentDirPath.toFile().listFiles(
+                file -> file.isFile() && file.getName().endsWith(HASHES_EXTENSION));
+        if (segmentFiles == null) {
+            throw new IOException("Index segment directory is not a directory: " + segmentDirPath);
+        }
+        Arrays.sort(segmentFiles);
+
+        List<String> outputFileNames = new ArrayList<>(segmentFiles.length);
+        for (File segmentFile : segmentFiles) {
+            String name = segmentFile.getName();
+            outputFileNames.add(name.substring(0, name.length() - HASHES_EXTENSION.length()));
+        }
+        Path filesFilePath = indexDirPath.resolve(FILES_FILE_NAME);
+        Files.write(OutputFiles.getTempPath(filesFilePath), outputFileNames, StandardCharsets.UTF_8);
+        OutputFiles.commit(filesFilePath);
+
+        for (String extension : new String[]{HASHES_EXTENSION, AUTHORS_EXTENSION}) {
+            int keyLength = extension.equals(HASHES_EXTENSION) ? HASH_KEY_LENGTH : AUTHOR_KEY_LENGTH;
+            List<RecordInput> inputs = new ArrayList<>(outputFileNames.size());
+            for (int fileId = 0; fileId < outputFileNames.size(); fileId++) {
+                inputs.add(new RecordInput(segmentDirPath.resolve(outputFileNames.get(fileId) + extension).toFile(),
+                        keyLength, fileId, false));
+            }
+            Path indexFilePath = indexDirPath.resolve(extension.equals(HASHES_EXTENSION) ? HASHES_FILE_NAME : AUTHORS_FILE_NAME);
+            System.out.println("Writing file: " + indexFilePath.getFileName());
+            mergeAll(inputs, keyLength, indexFilePath);
+        }
+    }
+
+    // merges the inputs in passes of at most MERGE_FAN_IN inputs until one pass writes the index file
+    private void mergeAll(List<RecordInput> inputs, int keyLength, Path indexFilePath) throws IOException {
+        List<File> passFiles = new ArrayList<>();
+        while (inputs.size() > MERGE_FAN_IN) {
+            List<RecordInput> nextInputs = new ArrayList<>();
+            for (int start = 0; start < inputs.size(); start += MERGE_FAN_IN) {
+                File passFile = File.createTempFile("merge", ".tmp", indexDirPath.toFile());
+                passFiles.add(passFile);
+                mergeInto(inputs.subList(start, Math.min(start + MERGE_FAN_IN, inputs.size())), keyLength,
+                        passFile, false);
+                nextInputs.add(new RecordInput(passFile, keyLength, -1, true));
+            }
+            inputs = nextInputs;
+        }
+        try {
+            mergeInto(inputs, keyLength, OutputFiles.getTempPath(indexFilePath).toFile(), true);
+            OutputFiles.commit(indexFilePath);
+        } finally {
+            for (File passFile : passFiles) {
+                Files.deleteIfExists(passFile.toPath());
+            }
+        }
+    }
+
+    // records of the merged files: key, file id, offset; the index files start with magic, version, and count
+    private static void mergeInto(List<RecordInput> inputs, int keyLength, File targetFile, boolean withHeader)
+            throws IOException {
+        long count = 0;
+        for (RecordInput input : inputs) {
+            count += input.getRecordCount();
+        }
+        PriorityQueue<RecordInput> queue = new PriorityQueue<>(Math.max(inputs.size(), 1));
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(targetFile), BUFFER_SIZE))) {
+            if (withHeader) {
+                out.writeInt(MAGIC);
+                out.writeByte(VERSION);
+                out.writeLong(count);
+            }
+            for (RecordInput input : inputs) {
+                if (input.next()) {
+                    queue.add(input);
+                } else {
+                    input.close();
+                }
+            }
+            while (!queue.isEmpty()) {
+                RecordInput input = queue.poll();
+                out.write(input.key);
+                out.writeInt(input.fileId);
+                out.writeLong(input.offset);
+                if (input.next()) {
+                    queue.add(input);
+                } else {
+                    input.close();
+                }
+            }
+        } finally {
+            for (RecordInput input : queue) {
+                input.close();
+            }
+        }
+    }
+
+    // key of the secondary index, emails are compared without case
+    static long hashEmail(String email) {
+        String normalized = email.trim().toLowerCase(Locale.ROOT);
+        // FNV-1a
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < normalized.length(); i++) {
+            hash ^= normalized.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // 20 bytes of a 40 digit hexadecimal commit hash, null for other hashes (e.g. SHA-256)
+    static byte[] parseHash(String hash) {
+        if (hash == null || hash.length() != 2 * HASH_KEY_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[HASH_KEY_LENGTH];
+        for (int i = 0; i < HASH_KEY_LENGTH; i++) {
+            int high = Character.digit(hash.charAt(2 * i), 16);
+            int low = Character.digit(hash.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                return null;
+            }
+            bytes[i] = (byte) (high << 4 | low);
+        }
+        return bytes;
+    }
+
+    static int compareKeys(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            int difference = (a[aOffset + i] & 0xFF) - (b[bOffset + i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return 0;
+    }
+
+    // records the rows of one output file, used by one thread at a time
+    class Recorder implements Closeable {
+        private final String outputFileName;
+        private byte[] hashKeys = new byte[1024 * HASH_KEY_LENGTH];
+        private long[] hashOffsets = new long[1024];
+        private int hashCount;
+        private byte[] authorKeys = new byte[1024 * AUTHOR_KEY_LENGTH];
+        private long[] authorOffsets = new long[1024];
+        private int authorCount;
+
+        private Recorder(String outputFileName) {
+            this.outputFileName = outputFileName;
+        }
+
+        // offset of the row of the commit in the output file
+        void add(Commit commit, long offset) {
+            byte[] hash = parseHash(commit.getHashValue());
+            if (hash != null) {
+                if (hashCount == hashOffsets.length) {
+                    hashKeys = Arrays.copyOf(hashKeys, 2 * hashKeys.length);
+                    hashOffsets = Arrays.copyOf(hashOffsets, 2 * hashOffsets.length);
+                }
+                System.arraycopy(hash, 0, hashKeys, hashCount * HASH_KEY_LENGTH, HASH_KEY_LENGTH);
+                hashOffsets[hashCount++] = offset;
+            }
+
+            String authorEmail = commit.getAuthorEmail();
+            if (authorEmail != null && !authorEmail.isEmpty()) {
+                if (authorCount == authorOffsets.length) {
+                    authorKeys = Arrays.copyOf(authorKeys, 2 * authorKeys.length);
+                    authorOffsets = Arrays.copyOf(authorOffsets, 2 * authorOffsets.length);
+                }
+                long key = hashEmail(authorEmail);
+                for (int i = 0; i < AUTHOR_KEY_LENGTH; i++) {
+                    authorKeys[authorCount * AUTHOR_KEY_LENGTH + i] = (byte) (key >>> (56 - 8 * i));
+                }
+                authorOffsets[authorCount++] = offset;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            writeSegment(segmentDirPath.resolve(outputFileName + HASHES_EXTENSION),
+                    hashKeys, hashOffsets, hashCount, HASH_KEY_LENGTH);
+            writeSegment(segmentDirPath.resolve(outputFileName + AUTHORS_EXTENSION),
+                    authorKeys, authorOffsets, authorCount, AUTHOR_KEY_LENGTH);
+        }
+
+        // records of segments: key, offset; sorted by key and offset
+        private void writeSegment(Path segmentPath, byte[] keys, long[] offsets, int count, int keyLength)
+                throws IOException {
+            int[] order = new int[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            sort(order, 0, count - 1, keys, offsets, keyLength);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(OutputFiles.getTempPath(segmentPath).toFile()), BUFFER_SIZE))) {
+                for (int i : order) {
+                    out.write(keys, i * keyLength, keyLength);
+                    out.writeLong(offsets[i]);
+                }
+            }
+        }
+
+        // quicksort of the record indices (offsets are unique within a file)
+        private void sort(int[] order, int low, int high, byte[] keys, long[] offsets, int keyLength) {
+            while (low < high) {
+                int pivot = order[(low + high) >>> 1];
+                int i = low;
+                int j = high;
+                while (i <= j) {
+                    while (compare(order[i], pivot, keys, offsets, keyLength) < 0) {
+                        i++;
+                    }
+                    while (compare(order[j], pivot, keys, offsets, keyLength) > 0) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        int swap = order[i];
+                        order[i++] = order[j];
+                        order[j--] = swap;
+                    }
+                }
+                // recursion on the smaller part
+                if (j - low < high - i) {
+                    sort(order, low, j, keys, offsets, keyLength);
+                    low = i;
+                } else {
+                    sort(order, i, high, keys, offsets, keyLength);
+                    high = j;
+                }
+            }
+        }
+
+        private int compare(int a, int b, byte[] keys, long[] offsets, int keyLength) {
+            int difference = compareKeys(keys, a * keyLength, keys, b * keyLength, keyLength);
+            return difference != 0 ? difference : Long.compare(offsets[a], offsets[b]);
+        }
+    }
+
+    // sequential reader of a segment (with the file id of its output file) or of an intermediate merge file
+    // (opened on the first call of next, only the inputs of one merge are open at the same time)
+    private static class RecordInput implements Comparable<RecordInput>, Closeable {
+        private final File file;
+        private DataInputStream in;
+        private final boolean withFileId;
+        private final long recordCount;
+        private final byte[] key;
+        private int fileId;
+        private long offset;
+
+        RecordInput(File file, int keyLength, int fileId, boolean withFileId) throws IOException {
+            this.withFileId = withFileId;
+            this.fileId = fileId;
+            key = new byte[keyLength];
+            this.file = file;
+            recordCount = file.length() / (keyLength + (withFileId ? 4 : 0) + 8);
+        }
+
+        long getRecordCount() {
+            return recordCount;
+        }
+
+        boolean next() throws IOException {
+            if (in == null) {
+                in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+            }
+            try {
+                in.readFully(key);
+            } catch (EOFException e) {
+                return false;
+            }
+            if (withFileId) {
+                fileId = in.readInt();
+            }
+            offset = in.readLong();
+            return true;
+        }
+
+        @Override
+        public int compareTo(RecordInput other) {
+            int difference = compareKeys(key, 0, other.key, 0, key.length);
+            if (difference != 0) {
+                return difference;
+            }
+            difference = Integer.compare(fileId, other.fileId);
+            return difference != 0 ? difference : Long.compare(offset, other.offset);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (in != null) {
+                in.close();
+            }
+        }
+    }
+}
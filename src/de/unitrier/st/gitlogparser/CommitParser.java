@@ -0,0 +1,335 @@
+package de.unitrier.st.gitlogparser;
+
+import java.io.IOException;
+
+// state machine that turns the lines of a git log into commits
+class CommitParser {
+    // lines after which the counters of a parse are added to the metrics of the run
+    private static final int FLUSH_LINES = 1 << 16;
+    // strings kept in the pool of names and emails
+    private static final int POOL_CAPACITY = 1 << 16;
+
+    private final PathFilter pathFilter;
+    private final boolean useRegexTokenizer;
+    private final RunMetrics metrics;
+    // characters of the trimmed log message kept in the commits, 0 to only compute its length
+    private final int maxMessageLength;
+    private final StringPool stringPool = new StringPool(POOL_CAPACITY);
+    private final FileExtensionDictionary extensionDictionary = new FileExtensionDictionary();
+
+    // keeps the whole log messages
+    CommitParser(String[] fileExtensions, boolean useRegexTokenizer) {
+        this(PathFilter.ofExtensions(fileExtensions), useRegexTokenizer, new RunMetrics(0, 0), Integer.MAX_VALUE);
+    }
+
+    CommitParser(PathFilter pathFilter, boolean useRegexTokenizer, RunMetrics metrics, int maxMessageLength) {
+        this.pathFilter = pathFilter;
+        this.useRegexTokenizer = useRegexTokenizer;
+        this.metrics = metrics;
+        this.maxMessageLength = maxMessageLength;
+    }
+
+    // ids of the file extensions of the commits parsed with this parser
+    FileExtensionDictionary getExtensionDictionary() {
+        return extensionDictionary;
+    }
+
+    // passes every commit that is kept to the sink as soon as the next commit line closes it,
+    // returns the number of commits passed (see ParseContext for settings and further results);
+    // with a batch size, parsing continues at the pending commit of the context
+    int parse(LogLineReader reader, ParseContext context, CommitSink sink) throws IOException {
+        String project = stringPool.intern(context.getProject());
+        String branch = stringPool.intern(context.getBranch());
+        CharSequence line;
+        Commit currentCommit = context.takePendingCommit();
+        int batchEnd = context.getCommitCount() + context.getBatchSize();
+        boolean readingHeader = true;
+        boolean readingLogMessage = false;
+        boolean readingFirstMessageLine = false;
+        LogMessageBuilder logMessageBuilder = new LogMessageBuilder(maxMessageLength);
+        LineTokenizer tokenizer = LineTokenizer.create(useRegexTokenizer);
+        boolean fileStatsFiltered = false; // the path filter removed file stats of the current commit
+        boolean skippingCommit = false; // the current commit is a duplicate, its lines are not classified
+        CommitHashSet seenCommits = context.getSeenCommits();
+
+        // counters are kept locally and added to the metrics of the run in batches
+        long[] counters = new long[RunMetrics.Counter.values().length];
+        long[] ruleCounts = pathFilter.newCounts();
+        int lineCount = 0;
+        long startNanos = System.nanoTime();
+        long startReadNanos = reader.getReadNanos();
+        long startWriteNanos = sink.getWriteNanos();
+        long startBytesRead = reader.getBytesRead();
+        long flushedBytesRead = startBytesRead;
+
+        try {
+            while ((line = reader.readLine()) != null) {
+                if (++lineCount == FLUSH_LINES) {
+                    counters[RunMetrics.Counter.LINES_CLASSIFIED.ordinal()] += lineCount;
+                    lineCount = 0;
+                    long bytesRead = reader.getBytesRead();
+                    counters[RunMetrics.Counter.BYTES_READ.ordinal()] += bytesRead - flushedBytesRead;
+                    flushedBytesRead = bytesRead;
+                    flushCounters(counters, ruleCounts);
+                }
+
+                // only lines that may start the next commit are classified
+                if (skippingCommit && (line.length() == 0 || (line.charAt(0) != 'c' && line.charAt(0) != 'C'))) {
+                    continue;
+                }
+
+                LineTokenizer.LineType lineType = readingHeader && currentCommit != null
+                        ? tokenizer.classifyHeaderLine(line)
+                        : tokenizer.classifyBodyLine(line);
+
+                // commit hash
+                if (lineType == LineTokenizer.LineType.COMMIT_HASH) {
+                    // save previous commit
+                    if (currentCommit != null) {
+                        if (saveCommit(currentCommit, logMessageBuilder, sink, fileStatsFiltered, seenCommits, counters)) {
+                            context.addCommit();
+                        }
+                        logMessageBuilder.reset();
+                        readingLogMessage = false; // needed in case file stats not present on log (true for merges)
+                        readingFirstMessageLine = false;
+                        fileStatsFiltered = false;
+                    }
+
+                    String commitHash = tokenizer.getCommitHash();
+                    if (context.getFirstCommitHash() == null) {
+                        context.setFirstCommitHash(commitHash);
+                    }
+                    // stop at the newest commit of the previous run
+                    if (commitHash.equals(context.getStopHash())) {
+                        context.setStopped(true);
+                        return context.getCommitCount();
+                    }
+                    // skip commits that another branch of the project already contained
+                    if (seenCommits != null && seenCommits.contains(commitHash)) {
+                        sink.acceptDuplicate(commitHash);
+                        counters[RunMetrics.Counter.COMMITS_SKIPPED_DUPLICATE.ordinal()]++;
+                        currentCommit = null;
+                        skippingCommit = true;
+                        continue;
+                    }
+                    currentCommit = new Commit(project, branch, commitHash, extensionDictionary);
+                    readingHeader = true;
+                    skippingCommit = false;
+                    // the new commit has no other state, the next call continues with its header
+                    if (context.getBatchSize() > 0 && context.getCommitCount() >= batchEnd) {
+                        context.setPendingCommit(currentCommit);
+                        return context.getCommitCount();
+                    }
+                    continue;
+                }
+
+                if (readingHeader && currentCommit != null) {
+                    switch (lineType) {
+                        case MERGE:
+                            // merged commits
+                            currentCommit.setMergedCommits(tokenizer.getMergedCommits());
+                            break;
+                        case AUTHOR:
+                            // author name and email
+                            if (tokenizer.getName() != null) {
+                                currentCommit.setAuthorName(stringPool.intern(tokenizer.getName().trim()));
+                            }
+                            if (tokenizer.getEmail() != null) {
+                                String authorEmail = tokenizer.getEmail();
+                                if (authorEmail.contains("@")) {
+                                    currentCommit.setAuthorEmail(stringPool.intern(authorEmail.trim()));
+                                } else {
+                                    currentCommit.setAuthorEmail("");
+                                }
+                            }
+                            break;
+                        case AUTHOR_DATE:
+                            currentCommit.setAuthorDate(convertDate(tokenizer.getDate()));
+                            break;
+                        case COMMITTER:
+                            // commit name and email
+                            if (tokenizer.getName() != null) {
+                                currentCommit.setCommitName(stringPool.intern(tokenizer.getName().trim()));
+                            }
+                            if (tokenizer.getEmail() != null) {
+                                String commitEmail = tokenizer.getEmail();
+                                if (commitEmail.contains("@")) {
+                                    currentCommit.setCommitEmail(stringPool.intern(commitEmail.trim()));
+                                } else {
+                                    currentCommit.setCommitEmail("");
+                                }
+                            }
+                            break;
+                        case COMMIT_DATE:
+                            currentCommit.setCommitDate(convertDate(tokenizer.getDate()));
+                            break;
+                        case BLANK:
+                            // detect beginning of log message
+                            // an empty line separates the header from the log message and the file stats from the next commit,
+                            // see https://git-scm.com/docs/pretty-formats
+                            readingHeader = false;
+                            readingLogMessage = true;
+                            readingFirstMessageLine = true;
+                            break;
+                    }
+                } else { // readingHeader is false
+
+                    if (currentCommit == null) {
+                        continue;
+                    }
+
+                    // file stats (lines added/deleted or "- -" in case of binary files)
+                    if (lineType == LineTokenizer.LineType.FILE_STATS
+                            || lineType == LineTokenizer.LineType.BINARY_FILE_STATS) {
+                        readingLogMessage = false;
+
+                        // extract lines added/deleted and ignore binary files ("- -")
+                        if (lineType == LineTokenizer.LineType.FILE_STATS) {
+                            int linesAdded = tokenizer.getLinesAdded();
+                            int linesDeleted = tokenizer.getLinesDeleted();
+                            String path = tokenizer.getPath();
+
+                            // apply the path filter (keeps all files if there are no rules)
+                            if (pathFilter.accept(path, ruleCounts)) {
+                                currentCommit.addFile(linesAdded, linesDeleted, path);
+                            } else {
+                                counters[RunMetrics.Counter.FILE_STATS_FILTERED.ordinal()]++;
+                                fileStatsFiltered = true;
+                            }
+
+                            continue;
+                        }
+                    }
+
+                    if (readingLogMessage) {
+                        // log messages are indented by 4 blanks
+                        int messageStart = isIndented(line) ? 4 : 0;
+
+                        // append current line to message builder (no copy if only the length is needed)
+                        logMessageBuilder.appendLine(line, messageStart);
+
+                        // classify merges by the first line of the log message
+                        if (readingFirstMessageLine) {
+                            readingFirstMessageLine = false;
+                            if (currentCommit.getMergedCommits() != null) {
+                                String messageLine = line.subSequence(messageStart, line.length()).toString();
+                                classifyMerge(currentCommit, tokenizer.classifyMerge(messageLine), tokenizer);
+                            }
+                            continue;
+                        }
+
+                        // print merge log messages that were not matched
+                        //if (line.trim().toLowerCase().startsWith("merge")) {
+                        //    System.out.println(line);
+                        //}
+                    }
+
+                }
+            }
+
+            if (context.isSaveLastCommit() && currentCommit != null) {
+                if (saveCommit(currentCommit, logMessageBuilder, sink, fileStatsFiltered, seenCommits, counters)) {
+                    context.addCommit();
+                }
+            }
+        } finally {
+            long bytesRead = reader.getBytesRead();
+            counters[RunMetrics.Counter.LINES_CLASSIFIED.ordinal()] += lineCount;
+            counters[RunMetrics.Counter.BYTES_READ.ordinal()] += bytesRead - flushedBytesRead;
+            flushCounters(counters, ruleCounts);
+
+            long readNanos = reader.getReadNanos() - startReadNanos;
+            long writeNanos = sink.getWriteNanos() - startWriteNanos;
+            context.addRead(bytesRead - startBytesRead, readNanos);
+            context.addParseNanos(Math.max(System.nanoTime() - startNanos - readNanos - writeNanos, 0));
+        }
+
+        return context.getCommitCount();
+    }
+
+    private void classifyMerge(Commit commit, LineTokenizer.MergeType mergeType, LineTokenizer tokenizer) {
+        if (mergeType == null) {
+            return;
+        }
+        commit.setMergeType(mergeType.getColumnValue());
+        commit.setMergeSource(stringPool.intern(tokenizer.getMergeSource()));
+        commit.setMergeTarget(stringPool.intern(tokenizer.getMergeTarget()));
+
+        if (mergeType == LineTokenizer.MergeType.PULL_REQUEST) {
+            commit.setPullRequestId(tokenizer.getPullRequestId());
+            if (tokenizer.getSourceUser() != null) {
+                // "from"-part present
+                commit.setSourceUser(tokenizer.getSourceUser());
+                commit.setSourceBranch(tokenizer.getSourceBranch());
+            }
+        }
+    }
+
+    private void flushCounters(long[] counters, long[] ruleCounts) {
+        pathFilter.addCounts(ruleCounts);
+        RunMetrics.Counter[] values = RunMetrics.Counter.values();
+        for (int i = 0; i < counters.length; i++) {
+            if (counters[i] != 0) {
+                metrics.add(values[i], counters[i]);
+                counters[i] = 0;
+            }
+        }
+    }
+
+    // the hashes of the commits passed to the sink are added to seenCommits (if not null),
+    // commits that are dropped are kept by the other branches that contain them
+    private static boolean saveCommit(Commit commit, LogMessageBuilder logMessageBuilder, CommitSink sink,
+                                      boolean fileStatsFiltered, CommitHashSet seenCommits, long[] counters)
+            throws IOException {
+        // ignore commits that only modified binary files (fileCount 0, not a merge)
+        if (!(commit.getFileCount() == 0 && commit.getMergedCommits() == null)) {
+            // ignore commits that did not modify any content (e.g., only file permissions changed)
+            if (commit.getLineCount() > 0) {
+                // save log message without trailing empty lines
+                commit.setLogMessage(logMessageBuilder.getTrimmedMessage(), logMessageBuilder.getTrimmedLength());
+                sink.accept(commit);
+                if (seenCommits != null) {
+                    seenCommits.add(commit.getHashValue());
+                }
+                counters[RunMetrics.Counter.COMMITS_KEPT.ordinal()]++;
+                return true;
+            }
+            counters[RunMetrics.Counter.COMMITS_DROPPED_ZERO_LINE_COUNT.ordinal()]++;
+        } else if (fileStatsFiltered) {
+            counters[RunMetrics.Counter.COMMITS_DROPPED_EXTENSION_FILTER.ordinal()]++;
+        } else {
+            counters[RunMetrics.Counter.COMMITS_DROPPED_BINARY_ONLY.ordinal()]++;
+        }
+        return false;
+    }
+
+    private static boolean isIndented(CharSequence line) {
+        return line.length() >= 4
+                && line.charAt(0) == ' ' && line.charAt(1) == ' ' && line.charAt(2) == ' ' && line.charAt(3) == ' ';
+    }
+
+    static String convertDate(String dateString) {
+        // make date string compatible with BigQuery's Timestamp format
+        // (see https://cloud.google.com/bigquery/docs/reference/standard-sql/data-types#time-zones)
+        // "2016-07-08 19:59:01 +0200" => 2016-07-08T19:59:01+02:00
+        String[] dateParts = dateString.split(" ");
+        if (dateParts.length != 3) {
+            throw new IllegalArgumentException("Wrong date format: " + dateString);
+        }
+
+        String date = dateParts[0];
+        String time = dateParts[1];
+        String timeZone = dateParts[2];
+        String result = date + "T" + time;
+
+        // ignore invalid time zone information (see, e.g., file rails_rails§3-2-stable_commits.csv,
+        // hash 4cf94979c9f4d6683c9338d694d5eb3106a4e734: "2011-08-29T06:50:23+51:800")
+        if (timeZone.startsWith("+") && timeZone.length() == 5) {
+            result += timeZone.substring(0,3) + ":" + timeZone.substring(3, timeZone.length());
+        } else {
+            result += "+00:00";
+        }
+
+        return  result;
+    }
+}
@@ -0,0 +1,23 @@
+package de.unitrier.st.gitlogparser;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// receives each commit as soon as the parser has finished it
+interface CommitSink extends Closeable {
+    void accept(Commit commit) throws IOException;
+
+    // receives the hash of each commit that is skipped because it was already passed to the sink
+    // of another branch of the project (see CommitDeduplicator), before its file stats and message are parsed
+    default void acceptDuplicate(String hashValue) throws IOException {
+    }
+
+    // time spent writing the commits, in nanoseconds
+    default long getWriteNanos() {
+        return 0;
+    }
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,236 @@
+package de.unitrier.st.gitlogparser;
+
+import org.apache.commons.io.input.BoundedInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// parses a git log lazily into a stream of commits, for applications that embed the parser, e.g.:
+//
+//   try (Stream<Commit> commits = CommitStream.open(Paths.get("rails_rails§master_commits.log"))) {
+//       long linesAdded = commits.parallel().mapToLong(Commit::getLinesAdded).sum();
+//   }
+//
+// the commits are the ones that are written to the CSV files (e.g. without commits that only modified binary files);
+// the log is parsed in batches of BATCH_SIZE commits while the stream is consumed, so sequential streams need
+// constant memory, and the streams of uncompressed log files split at commit lines for parallel streams;
+// closing the stream closes the log (also an InputStream or Reader that was passed)
+public final class CommitStream {
+    // commits parsed ahead of the consumer
+    private static final int BATCH_SIZE = 256;
+    // byte ranges of log files are only split if both parts are at least this large
+    private static final long MIN_SPLIT_SIZE = 1L << 20;
+    // for the estimated size of byte ranges
+    private static final long AVERAGE_COMMIT_SIZE = 512;
+
+    private CommitStream() {
+    }
+
+    // project and branch are derived from the file name if it is the name of a log file
+    // (e.g. "rails_rails§master_commits.log", optionally compressed as ".log.gz" or ".log.zst")
+    public static Stream<Commit> open(Path logFilePath) throws IOException {
+        String fileName = logFilePath.getFileName().toString();
+        if (LogFile.isLogFileName(fileName)) {
+            try {
+                LogFile logFile = LogFile.of(logFilePath.toFile());
+                return open(logFilePath, logFile.getProject(), logFile.getBranch());
+            } catch (IllegalArgumentException e) {
+                // other file names do not contain project and branch
+            }
+        }
+        return open(logFilePath, "", "");
+    }
+
+    // decoded as UTF-8 (as the log files of GitLogParser)
+    public static Stream<Commit> open(Path logFilePath, String project, String branch) throws IOException {
+        if (!Files.isRegularFile(logFilePath)) {
+            throw new IOException("Not a log file: " + logFilePath);
+        }
+        CommitParser commitParser = new CommitParser(new String[0], false);
+        Set<LogLineReader> openReaders = ConcurrentHashMap.newKeySet();
+        CommitSpliterator spliterator;
+        if (LogFile.isCompressedFileName(logFilePath.getFileName().toString())) {
+            // compressed files can neither be split nor read from a position
+            spliterator = new CommitSpliterator(commitParser, project, branch, openReaders,
+                    new BufferedLogLineReader(new DecompressingInputStream(logFilePath.toFile()), StandardCharsets.UTF_8));
+        } else {
+            spliterator = new CommitSpliterator(commitParser, project, branch, openReaders,
+                    logFilePath, 0, Files.size(logFilePath));
+        }
+        return stream(spliterator, openReaders);
+    }
+
+    // decoded as UTF-8 (as the log files of GitLogParser)
+    public static Stream<Commit> open(InputStream in, String project, String branch) {
+        Set<LogLineReader> openReaders = ConcurrentHashMap.newKeySet();
+        return stream(new CommitSpliterator(new CommitParser(new String[0], false), project, branch, openReaders,
+                new BufferedLogLineReader(in, StandardCharsets.UTF_8)), openReaders);
+    }
+
+    public static Stream<Commit> open(Reader reader, String project, String branch) {
+        Set<LogLineReader> openReaders = ConcurrentHashMap.newKeySet();
+        return stream(new CommitSpliterator(new CommitParser(new String[0], false), project, branch, openReaders,
+                new BufferedLogLineReader(reader)), openReaders);
+    }
+
+    private static Stream<Commit> stream(CommitSpliterator spliterator, Set<LogLineReader> openReaders) {
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            IOException failure = null;
+            for (LogLineReader reader : openReaders) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            openReaders.clear();
+            if (failure != null) {
+                throw new UncheckedIOException(failure);
+            }
+        });
+    }
+
+    // the commits of a byte range of a log file, which is split at the first commit line after its middle,
+    // or of a log that is read from the beginning, which is split into the batches parsed so far
+    private static class CommitSpliterator implements Spliterator<Commit> {
+        private final CommitParser commitParser;
+        private final String project;
+        private final String branch;
+        private final Set<LogLineReader> openReaders;
+        private final Path logFilePath; // null if the log is not read from a byte range of a file
+        private long start;
+        private final long end;
+        private final ParseContext context;
+        private final ArrayDeque<Commit> batch = new ArrayDeque<>(BATCH_SIZE);
+        private LogLineReader reader; // opened on the first batch
+        private boolean finished;
+
+        CommitSpliterator(CommitParser commitParser, String project, String branch, Set<LogLineReader> openReaders,
+                          LogLineReader reader) {
+            this(commitParser, project, branch, openReaders, null, 0, 0);
+            this.reader = reader;
+            openReaders.add(reader);
+        }
+
+        CommitSpliterator(CommitParser commitParser, String project, String branch, Set<LogLineReader> openReaders,
+                          Path logFilePath, long start, long end) {
+            this.commitParser = commitParser;
+            this.project = project;
+            this.branch = branch;
+            this.openReaders = openReaders;
+            this.logFilePath = logFilePath;
+            this.start = start;
+            this.end = end;
+            context = new ParseContext(project, branch);
+            context.setBatchSize(BATCH_SIZE);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Commit> action) {
+            if (batch.isEmpty()) {
+                parseBatch();
+                if (batch.isEmpty()) {
+                    return false;
+                }
+            }
+            action.accept(batch.remove());
+            return true;
+        }
+
+        @Override
+        public Spliterator<Commit> trySplit() {
+            if (logFilePath != null && reader == null && !finished) {
+                long boundary = findSplitBoundary();
+                if (boundary > 0) {
+                    // the prefix up to the boundary is split off, its last commit is closed by the boundary,
+                    // this spliterator continues with the rest of the range
+                    CommitSpliterator prefix = new CommitSpliterator(commitParser, project, branch, openReaders,
+                            logFilePath, start, boundary);
+                    prefix.context.setSaveLastCommit(true);
+                    start = boundary;
+                    return prefix;
+                }
+            }
+            if (batch.isEmpty()) {
+                parseBatch();
+                if (batch.isEmpty()) {
+                    return null;
+                }
+            }
+            Commit[] commits = batch.toArray(new Commit[0]);
+            batch.clear();
+            return Spliterators.spliterator(commits, characteristics());
+        }
+
+        // first commit line after the middle of the range, -1 if the range is too small or has none
+        private long findSplitBoundary() {
+            if (end - start < 2 * MIN_SPLIT_SIZE) {
+                return -1;
+            }
+            try {
+                long boundary = LogSplitter.findCommit(logFilePath, start + (end - start) / 2, end,
+                        new FastLineTokenizer());
+                return boundary >= start + MIN_SPLIT_SIZE && boundary <= end - MIN_SPLIT_SIZE ? boundary : -1;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void parseBatch() {
+            if (finished) {
+                return;
+            }
+            try {
+                if (reader == null) {
+                    reader = openReader();
+                    openReaders.add(reader);
+                }
+                commitParser.parse(reader, context, batch::add);
+                if (!context.hasPendingCommit()) {
+                    finished = true;
+                    openReaders.remove(reader);
+                    reader.close();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // reads the lines in the byte range [start, end) of the file (as GitLogParser)
+        private LogLineReader openReader() throws IOException {
+            FileChannel channel = FileChannel.open(logFilePath, StandardOpenOption.READ);
+            channel.position(start);
+            InputStream range = new BoundedInputStream(Channels.newInputStream(channel), end - start);
+            return new BufferedLogLineReader(range, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public long estimateSize() {
+            if (logFilePath == null) {
+                return Long.MAX_VALUE;
+            }
+            return finished ? batch.size() : Math.max((end - start) / AVERAGE_COMMIT_SIZE, batch.size());
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package de.unitrier.st.gitlogparser;
+
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.io.output.CountingOutputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+// writes the commits of all log files to the consolidated datasets "commits" and "merges",
+// as gzip-compressed CSV shards ("commits-00000.csv.gz", ...) of about the given compressed size, each with header;
+// each file worker writes to a shard of its own, which is returned to the pool after the file
+// (shards are only shared between files, not between threads)
+class ConsolidatedOutput implements Closeable {
+    private static final String[] types = {"commits", "merges"};
+
+    private final Path outputDirPath;
+    private final long shardSize;
+    private final boolean logMessage; // true if the column log_message is written
+    private final Map<String, Deque<Shard>> idleShards = new HashMap<>();
+    private final Map<String, AtomicInteger> shardCounts = new HashMap<>();
+    private final Map<String, LongAdder> rowCounts = new HashMap<>();
+    private final List<Shard> openShards = new ArrayList<>();
+
+    ConsolidatedOutput(Path outputDirPath, long shardSize, boolean logMessage) {
+        this.outputDirPath = outputDirPath;
+        this.shardSize = shardSize;
+        this.logMessage = logMessage;
+        for (String type : types) {
+            idleShards.put(type, new ArrayDeque<>());
+            shardCounts.put(type, new AtomicInteger());
+            rowCounts.put(type, new LongAdder());
+        }
+    }
+
+    // the sink writes to an idle shard of the type (or a new one) until it is closed
+    CommitSink openSink(String type) throws IOException {
+        Shard shard;
+        synchronized (this) {
+            shard = idleShards.get(type).poll();
+        }
+        if (shard == null) {
+            shard = openShard(type);
+        }
+        return new ShardSink(type, shard);
+    }
+
+    private Shard openShard(String type) throws IOException {
+        int index = shardCounts.get(type).getAndIncrement();
+        Path shardPath = outputDirPath.resolve(String.format("%s-%05d.csv.gz", type, index));
+        System.out.println("Writing file: " + shardPath.getFileName());
+        Shard shard = new Shard(shardPath, type, logMessage);
+        synchronized (this) {
+            openShards.add(shard);
+        }
+        return shard;
+    }
+
+    private void closeShard(Shard shard) throws IOException {
+        synchronized (this) {
+            openShards.remove(shard);
+        }
+        shard.close();
+    }
+
+    long getRowCount(String type) {
+        return rowCounts.get(type).sum();
+    }
+
+    int getShardCount(String type) {
+        return shardCounts.get(type).get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        List<Shard> shards;
+        synchronized (this) {
+            shards = new ArrayList<>(openShards);
+            openShards.clear();
+            for (String type : types) {
+                idleShards.get(type).clear();
+            }
+        }
+        for (Shard shard : shards) {
+            shard.close();
+        }
+    }
+
+    private static class Shard implements Closeable {
+        private final CountingOutputStream compressedStream;
+        private final CSVPrinter csvPrinter;
+
+        Shard(Path shardPath, String type, boolean logMessage) throws IOException {
+            compressedStream = new CountingOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(shardPath.toFile()), 1 << 16));
+            // header is automatically written
+            csvPrinter = new CSVPrinter(new OutputStreamWriter(
+                    new GZIPOutputStream(compressedStream, 1 << 16), StandardCharsets.UTF_8),
+                    CsvCommitSink.getCsvFormat(type, logMessage));
+        }
+
+        // compressed bytes written so far (the compressor buffers some input)
+        long getSize() {
+            return compressedStream.getByteCount();
+        }
+
+        @Override
+        public void close() throws IOException {
+            csvPrinter.close();
+        }
+    }
+
+    private class ShardSink implements CommitSink {
+        private final String type;
+        private final LongAdder rowCount;
+        private Shard shard;
+        private long writeNanos;
+
+        ShardSink(String type, Shard shard) {
+            this.type = type;
+            this.rowCount = rowCounts.get(type);
+            this.shard = shard;
+        }
+
+        @Override
+        public void accept(Commit commit) throws IOException {
+            long start = System.nanoTime();
+            if (shard.getSize() >= shardSize) {
+                closeShard(shard);
+                shard = openShard(type);
+            }
+            CsvCommitSink.printRecord(shard.csvPrinter, commit, type, logMessage);
+            rowCount.increment();
+            writeNanos += System.nanoTime() - start;
+        }
+
+        @Override
+        public long getWriteNanos() {
+            return writeNanos;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (shard.getSize() >= shardSize) {
+                closeShard(shard);
+            } else {
+                synchronized (ConsolidatedOutput.this) {
+                    idleShards.get(type).push(shard);
+                }
+            }
+        }
+    }
+}
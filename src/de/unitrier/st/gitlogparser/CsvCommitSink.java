@@ -0,0 +1,175 @@
+package de.unitrier.st.gitlogparser;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.QuoteMode;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// writes the commits of one log file to a UTF-8 CSV file (usually "project§branch_type.csv") while they are parsed
+class CsvCommitSink implements CommitSink {
+    private final String type;
+    private final boolean logMessage; // true if the column log_message is written
+    private final CSVPrinter csvPrinter;
+    private final CommitIndexWriter.Recorder indexRecorder; // null if the output is not indexed
+    private final Utf8CountingWriter countingWriter; // null if the output is not indexed
+    private long writeNanos;
+
+    CsvCommitSink(Path targetFilePath, String type) throws IOException {
+        this(targetFilePath, type, null, false);
+    }
+
+    // the byte offsets of the rows of indexed files are counted while they are written
+    CsvCommitSink(Path targetFilePath, String type, CommitIndexWriter.Recorder indexRecorder, boolean logMessage)
+            throws IOException {
+        File outputDir = targetFilePath.toAbsolutePath().getParent().toFile();
+
+        if (!(outputDir.exists() && outputDir.isDirectory())) {
+            throw new IllegalArgumentException("Illegal output directory");
+        }
+
+        this.type = type;
+        this.logMessage = logMessage;
+        this.indexRecorder = indexRecorder;
+        if (indexRecorder != null) {
+            countingWriter = new Utf8CountingWriter(Files.newBufferedWriter(targetFilePath, StandardCharsets.UTF_8));
+            // header is automatically written
+            csvPrinter = new CSVPrinter(countingWriter, getCsvFormat(type, logMessage));
+        } else {
+            countingWriter = null;
+            // header is automatically written
+            csvPrinter = new CSVPrinter(new OutputStreamWriter(Files.newOutputStream(targetFilePath), StandardCharsets.UTF_8),
+                    getCsvFormat(type, logMessage));
+        }
+    }
+
+    // format of the CSV files of the given type, with header
+    static CSVFormat getCsvFormat(String type) {
+        CSVFormat csvFormat = CSVFormat.DEFAULT
+                .withDelimiter(';')
+                .withQuote('"')
+                .withQuoteMode(QuoteMode.ALL)
+                .withEscape('\\')
+                .withNullString("");
+
+        switch (type) {
+            case "commits":
+                csvFormat = csvFormat.withHeader(Commit.csvHeaderCommits.class);
+                break;
+            case "merges":
+                csvFormat = csvFormat.withHeader(Commit.csvHeaderMerges.class);
+                break;
+            case "commit_files":
+                csvFormat = csvFormat.withHeader(CommitFile.csvHeaderCommitFiles.class);
+                break;
+            case "paths":
+                csvFormat = csvFormat.withHeader(PathDictionary.csvHeaderPaths.class);
+                break;
+            case "commit_branches":
+                csvFormat = csvFormat.withHeader(CommitDeduplicator.csvHeaderCommitBranches.class);
+                break;
+            case "churn_authors":
+                csvFormat = csvFormat.withHeader(ChurnAggregator.csvHeaderChurnAuthors.class);
+                break;
+            case "churn_months":
+                csvFormat = csvFormat.withHeader(ChurnAggregator.csvHeaderChurnMonths.class);
+                break;
+            case "churn_extensions":
+                csvFormat = csvFormat.withHeader(ChurnAggregator.csvHeaderChurnExtensions.class);
+                break;
+            case "churn_branches":
+                csvFormat = csvFormat.withHeader(ChurnAggregator.csvHeaderChurnBranches.class);
+                break;
+        }
+        return csvFormat;
+    }
+
+    // format of the CSV files of commits or merges, with the column log_message after log_message_length
+    // if the (truncated) log messages are written
+    static CSVFormat getCsvFormat(String type, boolean logMessage) {
+        if (!logMessage) {
+            return getCsvFormat(type);
+        }
+        Enum<?>[] columns = type.equals("merges") ? Commit.csvHeaderMerges.values() : Commit.csvHeaderCommits.values();
+        String[] header = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            header[i] = columns[i].name();
+        }
+        return getCsvFormat(type).withHeader(insertLogMessage(header, type, "log_message"));
+    }
+
+    private static String[] insertLogMessage(String[] values, String type, String logMessage) {
+        int index = (type.equals("merges")
+                ? Commit.csvHeaderMerges.log_message_length.ordinal()
+                : Commit.csvHeaderCommits.log_message_length.ordinal()) + 1;
+        String[] result = new String[values.length + 1];
+        System.arraycopy(values, 0, result, 0, index);
+        result[index] = logMessage;
+        System.arraycopy(values, index, result, index + 1, values.length - index);
+        return result;
+    }
+
+    // true if the existing CSV file starts with the header of the current version
+    // (e.g. not before an incremental run that would append rows with more columns)
+    static boolean hasCurrentHeader(Path csvFilePath, String type, boolean logMessage) throws IOException {
+        CSVFormat csvFormat = getCsvFormat(type, logMessage);
+        StringWriter header = new StringWriter();
+        new CSVPrinter(header, csvFormat).flush();
+        try (BufferedReader reader = Files.newBufferedReader(csvFilePath, StandardCharsets.UTF_8)) {
+            String firstLine = reader.readLine();
+            return firstLine != null && header.toString().equals(firstLine + csvFormat.getRecordSeparator());
+        }
+    }
+
+    static void printRecord(CSVPrinter csvPrinter, Commit commit, String type, boolean logMessage) throws IOException {
+        String[] values;
+        switch (type) {
+            case "commits":
+                values = commit.getValuesCommits();
+                break;
+            case "merges":
+                values = commit.getValuesMerges();
+                break;
+            default:
+                return;
+        }
+        if (logMessage) {
+            values = insertLogMessage(values, type, commit.getLogMessage());
+        }
+        csvPrinter.printRecord(Arrays.asList(values));
+    }
+
+    @Override
+    public void accept(Commit commit) throws IOException {
+        long start = System.nanoTime();
+        if (indexRecorder != null) {
+            indexRecorder.add(commit, countingWriter.getByteCount());
+        }
+        printRecord(csvPrinter, commit, type, logMessage);
+        writeNanos += System.nanoTime() - start;
+    }
+
+    @Override
+    public long getWriteNanos() {
+        return writeNanos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            csvPrinter.close();
+        } finally {
+            if (indexRecorder != null) {
+                indexRecorder.close();
+            }
+        }
+    }
+}
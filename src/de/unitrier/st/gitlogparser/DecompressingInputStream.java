@@ -0,0 +1,173 @@
+package de.unitrier.st.gitlogparser;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+
+// decompresses a gzip (".gz") or zstd (".zst") file on a thread of its own and passes the decompressed bytes
+// to the reader through a bounded queue of blocks, so that decompression and parsing overlap;
+// zstd files are decompressed by the zstd command line tool, which must be installed
+class DecompressingInputStream extends InputStream implements ReadMeter {
+    private static final int BLOCK_SIZE = 1 << 18;
+    private static final int QUEUE_BLOCKS = 16;
+    private static final byte[] END = new byte[0];
+
+    private final File file;
+    private final BlockingQueue<byte[]> blocks = new ArrayBlockingQueue<>(QUEUE_BLOCKS);
+    private final MeteredInputStream compressedStream; // null for zstd files (read by zstd)
+    private final Process process; // null for gzip files
+    private final Thread thread;
+    private volatile Throwable failure;
+    private volatile boolean finished; // all compressed bytes have been read
+
+    private byte[] block;
+    private int position;
+    private long readNanos; // time spent waiting for decompressed blocks
+
+    DecompressingInputStream(File file) throws IOException {
+        this.file = file;
+        if (file.getName().endsWith(".gz")) {
+            compressedStream = new MeteredInputStream(new FileInputStream(file));
+            process = null;
+        } else if (file.getName().endsWith(".zst")) {
+            compressedStream = null;
+            process = new ProcessBuilder("zstd", "-dcq", file.getAbsolutePath())
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            process.getOutputStream().close();
+        } else {
+            throw new IllegalArgumentException("Unknown compression of file " + file.getName() + ".");
+        }
+
+        thread = new Thread(this::decompress, "decompress " + file.getName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void decompress() {
+        boolean closed = false;
+        // the gzip header is already read on this thread
+        try (InputStream in = compressedStream != null
+                ? new GZIPInputStream(compressedStream, 1 << 16)
+                : process.getInputStream()) {
+            while (true) {
+                byte[] buffer = new byte[BLOCK_SIZE];
+                int length = 0;
+                int count;
+                while (length < buffer.length && (count = in.read(buffer, length, buffer.length - length)) != -1) {
+                    length += count;
+                }
+                if (length > 0) {
+                    blocks.put(length == buffer.length ? buffer : Arrays.copyOf(buffer, length));
+                }
+                if (length < buffer.length) {
+                    break;
+                }
+            }
+            if (process != null) {
+                int exitValue = process.waitFor();
+                if (exitValue != 0) {
+                    throw new IOException("zstd failed with exit code " + exitValue + " for file " + file.getName() + ".");
+                }
+            }
+            finished = true;
+        } catch (InterruptedException e) {
+            // closed before the end of the file
+            closed = true;
+        } catch (Throwable e) {
+            // also unchecked exceptions and errors, they are thrown to the reader
+            failure = e;
+        } finally {
+            // the reader waits for END unless the stream was closed
+            if (!closed) {
+                try {
+                    blocks.put(END);
+                } catch (InterruptedException e) {
+                    // closed
+                }
+            }
+        }
+    }
+
+    // returns false at the end of the file
+    private boolean nextBlock() throws IOException {
+        if (block == END) {
+            return false;
+        }
+        if (block == null || position == block.length) {
+            long start = System.nanoTime();
+            try {
+                block = blocks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while decompressing " + file.getName() + ".");
+            } finally {
+                readNanos += System.nanoTime() - start;
+            }
+            position = 0;
+            if (block == END) {
+                if (failure instanceof IOException) {
+                    throw (IOException) failure;
+                }
+                if (failure != null) {
+                    throw new IOException("Decompressing " + file.getName() + " failed", failure);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!nextBlock()) {
+            return -1;
+        }
+        return block[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!nextBlock()) {
+            return -1;
+        }
+        int count = Math.min(length, block.length - position);
+        System.arraycopy(block, position, buffer, offset, count);
+        position += count;
+        return count;
+    }
+
+    // compressed bytes read so far (for zstd files, only known at the end of the file)
+    @Override
+    public long getBytesRead() {
+        if (compressedStream != null) {
+            return compressedStream.getBytesRead();
+        }
+        return finished ? file.length() : 0;
+    }
+
+    @Override
+    public long getReadNanos() {
+        return readNanos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (thread.isAlive()) {
+            thread.interrupt();
+        }
+        if (process != null && process.isAlive()) {
+            process.destroy();
+        }
+        blocks.clear();
+    }
+}
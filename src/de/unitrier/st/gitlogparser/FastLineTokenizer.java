@@ -0,0 +1,501 @@
+package de.unitrier.st.gitlogparser;
+
+// classifies each line by its first characters and extracts the fields with index arithmetic,
+// yields exactly the same fields as the regular expressions in RegexLineTokenizer
+// (ASCII case-insensitive keywords, \s = [ \t\n\x0B\f\r], \w = [a-zA-Z_0-9], and "." not matching line terminators)
+class FastLineTokenizer extends LineTokenizer {
+    private static final String REMOTE_TRACKING_BRANCH = "remote-tracking branch '";
+    private static final String[] BRANCH_KEYWORDS = {"remote", "branch"};
+    private static final String[] COMMIT_KEYWORDS = {"commit"};
+
+    @Override
+    LineType classifyHeaderLine(CharSequence line) {
+        if (line.length() > 0) {
+            switch (line.charAt(0)) {
+                case 'c':
+                case 'C':
+                    if (matchCommitHash(line)) {
+                        return LineType.COMMIT_HASH;
+                    }
+                    if (startsWithIgnoreCase(line, 0, "commit:")) {
+                        return matchNameAndEmail(line, 7) ? LineType.COMMITTER : LineType.OTHER;
+                    }
+                    if (startsWithIgnoreCase(line, 0, "commitdate:")) {
+                        return matchDate(line, 11) ? LineType.COMMIT_DATE : LineType.OTHER;
+                    }
+                    return LineType.OTHER;
+                case 'm':
+                case 'M':
+                    if (startsWithIgnoreCase(line, 0, "merge:")) {
+                        return matchMerge(line, 6) ? LineType.MERGE : LineType.OTHER;
+                    }
+                    return LineType.OTHER;
+                case 'a':
+                case 'A':
+                    if (startsWithIgnoreCase(line, 0, "author:")) {
+                        return matchNameAndEmail(line, 7) ? LineType.AUTHOR : LineType.OTHER;
+                    }
+                    if (startsWithIgnoreCase(line, 0, "authordate:")) {
+                        return matchDate(line, 11) ? LineType.AUTHOR_DATE : LineType.OTHER;
+                    }
+                    return LineType.OTHER;
+            }
+        }
+
+        // same as line.trim().length() == 0
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) > ' ') {
+                return LineType.OTHER;
+            }
+        }
+        return LineType.BLANK;
+    }
+
+    @Override
+    LineType classifyBodyLine(CharSequence line) {
+        if (line.length() == 0) {
+            return LineType.OTHER;
+        }
+        char first = line.charAt(0);
+        if (first == 'c' || first == 'C') {
+            return matchCommitHash(line) ? LineType.COMMIT_HASH : LineType.OTHER;
+        }
+        if (isDigit(first) || first == '-') {
+            return matchFileStats(line);
+        }
+        return LineType.OTHER;
+    }
+
+    // commit\s+(\w{40}).*
+    private boolean matchCommitHash(CharSequence line) {
+        if (!startsWithIgnoreCase(line, 0, "commit")) {
+            return false;
+        }
+        int hashStart = skipWhitespace(line, 6);
+        int hashEnd = hashStart + 40;
+        if (hashStart == 6 || hashEnd > line.length()) {
+            return false;
+        }
+        for (int i = hashStart; i < hashEnd; i++) {
+            if (!isWordCharacter(line.charAt(i))) {
+                return false;
+            }
+        }
+        if (hasLineTerminator(line, hashEnd)) {
+            return false;
+        }
+        commitHash = field(line, hashStart, hashEnd);
+        return true;
+    }
+
+    // name: Author:\s+([^<]+).*
+    // email: Author:\s+[^<]+<([^>]+)>.*
+    private boolean matchNameAndEmail(CharSequence line, int start) {
+        int length = line.length();
+        int nameStart = skipWhitespace(line, start);
+        int nameEnd = indexOf(line, '<', nameStart);
+        // [^<]+ needs at least one character, which may be taken back from \s+
+        if (nameStart == start || (nameEnd == nameStart && nameStart - start < 2)) {
+            return false;
+        }
+
+        boolean nameMatches = !hasLineTerminator(line, nameEnd);
+        boolean emailMatches = false;
+        int emailEnd = nameEnd < length ? indexOf(line, '>', nameEnd + 1) : length;
+        if (emailEnd < length && emailEnd > nameEnd + 1) {
+            emailMatches = !hasLineTerminator(line, emailEnd + 1);
+        }
+
+        name = nameMatches ? trimmedField(line, nameStart, nameEnd) : null;
+        email = emailMatches ? trimmedField(line, nameEnd + 1, emailEnd) : null;
+        return nameMatches || emailMatches;
+    }
+
+    // Merge:\s+([\w\s]+).*
+    private boolean matchMerge(CharSequence line, int start) {
+        int groupStart = skipWhitespace(line, start);
+        int groupEnd = groupStart;
+        while (groupEnd < line.length() && (isWordCharacter(line.charAt(groupEnd)) || isWhitespace(line.charAt(groupEnd)))) {
+            groupEnd++;
+        }
+        groupStart = groupStart(start, groupStart, groupEnd);
+        if (groupStart < 0 || hasLineTerminator(line, groupEnd)) {
+            return false;
+        }
+        mergedCommits = field(line, groupStart, groupEnd);
+        return true;
+    }
+
+    // AuthorDate:\s+([\w\s-:+]+).*
+    private boolean matchDate(CharSequence line, int start) {
+        int groupStart = skipWhitespace(line, start);
+        int groupEnd = groupStart;
+        while (groupEnd < line.length() && isDateCharacter(line.charAt(groupEnd))) {
+            groupEnd++;
+        }
+        groupStart = groupStart(start, groupStart, groupEnd);
+        if (groupStart < 0 || hasLineTerminator(line, groupEnd)) {
+            return false;
+        }
+        date = field(line, groupStart, groupEnd);
+        return true;
+    }
+
+    // start of a group that follows \s+ and may also contain whitespace, -1 if \s+ and the group cannot both match
+    private static int groupStart(int whitespaceStart, int whitespaceEnd, int groupEnd) {
+        if (whitespaceEnd == whitespaceStart) {
+            return -1;
+        }
+        if (groupEnd > whitespaceEnd) {
+            return whitespaceEnd;
+        }
+        // the group takes the last whitespace character
+        return whitespaceEnd - whitespaceStart >= 2 ? whitespaceEnd - 1 : -1;
+    }
+
+    // file stats: (\d+|-)\s+(\d+|-)\s+(.+)
+    // lines added/deleted: (\d+)\s+(\d+)\s+(.+)
+    private LineType matchFileStats(CharSequence line) {
+        int length = line.length();
+
+        int addedEnd = line.charAt(0) == '-' ? 1 : skipDigits(line, 0);
+        int deletedStart = skipWhitespace(line, addedEnd);
+        if (deletedStart == addedEnd || deletedStart == length) {
+            return LineType.OTHER;
+        }
+        int deletedEnd;
+        if (line.charAt(deletedStart) == '-') {
+            deletedEnd = deletedStart + 1;
+        } else {
+            deletedEnd = skipDigits(line, deletedStart);
+            if (deletedEnd == deletedStart) {
+                return LineType.OTHER;
+            }
+        }
+        int pathStart = skipWhitespace(line, deletedEnd);
+        if (pathStart == deletedEnd) {
+            return LineType.OTHER;
+        }
+        if (pathStart == length) {
+            // (.+) takes the last whitespace character
+            if (pathStart - deletedEnd < 2 || isLineTerminator(line.charAt(pathStart - 1))) {
+                return LineType.OTHER;
+            }
+            pathStart--;
+        } else if (hasLineTerminator(line, pathStart)) {
+            return LineType.OTHER;
+        }
+
+        // binary files ("- -")
+        if (line.charAt(0) == '-' || line.charAt(deletedStart) == '-') {
+            return LineType.BINARY_FILE_STATS;
+        }
+
+        linesAdded = parseInt(line, 0, addedEnd);
+        linesDeleted = parseInt(line, deletedStart, deletedEnd);
+        path = field(line, pathStart, length);
+        return LineType.FILE_STATS;
+    }
+
+    // the merge shapes of RegexLineTokenizer in one pass, after the common prefix \s*Merged?
+    @Override
+    MergeType classifyMerge(CharSequence line) {
+        int i = skipWhitespace(line, 0);
+        if (!startsWithIgnoreCase(line, i, "merge")) {
+            return null;
+        }
+        i += 5;
+        if (i < line.length() && (line.charAt(i) == 'd' || line.charAt(i) == 'D')) {
+            i++;
+        }
+
+        if (matchPullRequest(line, i)) {
+            return MergeType.PULL_REQUEST;
+        }
+        // " remote-tracking branch '([^\s]+)'" (single blanks)
+        if (i < line.length() && line.charAt(i) == ' '
+                && startsWithIgnoreCase(line, i + 1, REMOTE_TRACKING_BRANCH)
+                && matchQuotedName(line, i + 1 + REMOTE_TRACKING_BRANCH.length(), false)) {
+            return MergeType.REMOTE_TRACKING_BRANCH;
+        }
+        int tagEnd = skipKeyword(line, i, "tag");
+        if (tagEnd >= 0) {
+            int quoteEnd = skipRequiredWhitespace(line, tagEnd);
+            if (quoteEnd >= 0 && quoteEnd < line.length() && line.charAt(quoteEnd) == '\''
+                    && matchQuotedTag(line, quoteEnd + 1)) {
+                return MergeType.TAG;
+            }
+        }
+        int nameStart = skipToQuote(line, i, BRANCH_KEYWORDS, 0);
+        if (nameStart >= 0 && matchQuotedName(line, nameStart, true)) {
+            return MergeType.BRANCH;
+        }
+        nameStart = skipToQuote(line, i, COMMIT_KEYWORDS, 0);
+        if (nameStart >= 0 && matchQuotedName(line, nameStart, false)) {
+            return MergeType.COMMIT;
+        }
+        return null;
+    }
+
+    // \s+pull\s+request\s+#(\d+)(?:\s+from ([^\s]+)/([^\s]+))?.*
+    private boolean matchPullRequest(CharSequence line, int start) {
+        int length = line.length();
+
+        int i = skipKeyword(line, start, "pull");
+        if (i < 0) {
+            return false;
+        }
+        i = skipKeyword(line, i, "request");
+        if (i < 0) {
+            return false;
+        }
+        i = skipRequiredWhitespace(line, i);
+        if (i < 0 || i >= length || line.charAt(i) != '#') {
+            return false;
+        }
+        int idStart = i + 1;
+        int idEnd = skipDigits(line, idStart);
+        if (idEnd == idStart) {
+            return false;
+        }
+
+        // optional "from"-part, the user name extends to the last '/' that leaves a non-empty branch name
+        int from = skipRequiredWhitespace(line, idEnd);
+        if (from >= 0 && startsWithIgnoreCase(line, from, "from ")) {
+            int userStart = from + 5;
+            int tokenEnd = skipNonWhitespace(line, userStart);
+            for (int slash = tokenEnd - 2; slash > userStart; slash--) {
+                if (line.charAt(slash) == '/') {
+                    if (hasLineTerminator(line, tokenEnd)) {
+                        return false;
+                    }
+                    pullRequestId = field(line, idStart, idEnd);
+                    sourceUser = field(line, userStart, slash);
+                    sourceBranch = field(line, slash + 1, tokenEnd);
+                    mergeSource = field(line, userStart, tokenEnd);
+                    mergeTarget = null;
+                    return true;
+                }
+            }
+        }
+
+        if (hasLineTerminator(line, idEnd)) {
+            return false;
+        }
+        pullRequestId = field(line, idStart, idEnd);
+        sourceUser = null;
+        sourceBranch = null;
+        mergeSource = null;
+        mergeTarget = null;
+        return true;
+    }
+
+    // ([^\s]+)'(?:\s+of\s+([^\s]+))?(?:\s+into\s+([^\s]+))?.* after the opening quote,
+    // the name extends to the last quote of the token (only with "of"-part if withRepository is set)
+    private boolean matchQuotedName(CharSequence line, int nameStart, boolean withRepository) {
+        int tokenEnd = skipNonWhitespace(line, nameStart);
+        for (int quote = tokenEnd - 1; quote > nameStart; quote--) {
+            if (line.charAt(quote) == '\'') {
+                // a shorter name is followed by the rest of the token, which leaves more to ".*"
+                return matchTarget(line, nameStart, quote, withRepository);
+            }
+        }
+        return false;
+    }
+
+    // (.+)'(?:\s+into\s+([^\s]+))?.* after the opening quote, the name extends to the last quote
+    // before the first line terminator for which the rest of the line matches
+    private boolean matchQuotedTag(CharSequence line, int nameStart) {
+        int nameLimit = nameStart;
+        while (nameLimit < line.length() && !isLineTerminator(line.charAt(nameLimit))) {
+            nameLimit++;
+        }
+        for (int quote = nameLimit - 1; quote > nameStart; quote--) {
+            if (line.charAt(quote) == '\'' && matchTarget(line, nameStart, quote, false)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // (?:\s+of\s+([^\s]+))?(?:\s+into\s+([^\s]+))?.* after the closing quote of the source
+    private boolean matchTarget(CharSequence line, int sourceStart, int closingQuote, boolean withRepository) {
+        int end = closingQuote + 1;
+        if (withRepository) {
+            int repositoryEnd = skipRepository(line, end);
+            if (repositoryEnd >= 0) {
+                end = repositoryEnd;
+            }
+        }
+        int targetStart = -1;
+        int targetEnd = -1;
+        int intoEnd = skipKeyword(line, end, "into");
+        if (intoEnd >= 0) {
+            int tokenStart = skipRequiredWhitespace(line, intoEnd);
+            if (tokenStart >= 0 && tokenStart < line.length()) {
+                targetStart = tokenStart;
+                targetEnd = skipNonWhitespace(line, tokenStart);
+                end = targetEnd;
+            }
+        }
+        if (hasLineTerminator(line, end)) {
+            return false;
+        }
+        mergeSource = field(line, sourceStart, closingQuote);
+        mergeTarget = targetStart >= 0 ? field(line, targetStart, targetEnd) : null;
+        return true;
+    }
+
+    // (?:\s+keyword)* ... \s+' with the keywords in the given order, each optional,
+    // returns the position after the quote, -1 if there is none
+    // (the combinations are tried like the regular expression tries them: with a keyword before without it)
+    private static int skipToQuote(CharSequence line, int start, String[] optionalKeywords, int keyword) {
+        if (keyword == optionalKeywords.length) {
+            int quote = skipRequiredWhitespace(line, start);
+            return quote >= 0 && quote < line.length() && line.charAt(quote) == '\'' ? quote + 1 : -1;
+        }
+        int keywordEnd = skipKeyword(line, start, optionalKeywords[keyword]);
+        if (keywordEnd >= 0) {
+            int nameStart = skipToQuote(line, keywordEnd, optionalKeywords, keyword + 1);
+            if (nameStart >= 0) {
+                return nameStart;
+            }
+        }
+        return skipToQuote(line, start, optionalKeywords, keyword + 1);
+    }
+
+    // end of \s+keyword, -1 if the line does not continue like this
+    private static int skipKeyword(CharSequence line, int start, String lowerCaseKeyword) {
+        int i = skipRequiredWhitespace(line, start);
+        if (i < 0 || !startsWithIgnoreCase(line, i, lowerCaseKeyword)) {
+            return -1;
+        }
+        return i + lowerCaseKeyword.length();
+    }
+
+    // end of \s+of\s+[^\s]+, -1 if the line does not continue like this
+    private static int skipRepository(CharSequence line, int start) {
+        int i = skipKeyword(line, start, "of");
+        if (i < 0) {
+            return -1;
+        }
+        i = skipRequiredWhitespace(line, i);
+        if (i < 0 || i == line.length()) {
+            return -1;
+        }
+        return skipNonWhitespace(line, i);
+    }
+
+    // decodes only the field if the line is a view on UTF-8 bytes
+    private static String field(CharSequence line, int start, int end) {
+        return line.subSequence(start, end).toString();
+    }
+
+    // same as field(line, start, end).trim()
+    private String trimmedField(CharSequence line, int start, int end) {
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return field(line, start, end);
+    }
+
+    // true if ".*" cannot match the rest of the line
+    private static boolean hasLineTerminator(CharSequence line, int start) {
+        if (line instanceof Utf8Line) {
+            return ((Utf8Line) line).hasLineTerminator(start);
+        }
+        for (int i = start; i < line.length(); i++) {
+            if (isLineTerminator(line.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static boolean startsWithIgnoreCase(CharSequence line, int start, String lowerCasePrefix) {
+        if (start + lowerCasePrefix.length() > line.length()) {
+            return false;
+        }
+        for (int i = 0; i < lowerCasePrefix.length(); i++) {
+            char c = line.charAt(start + i);
+            char p = lowerCasePrefix.charAt(i);
+            if (c != p && !(p >= 'a' && p <= 'z' && c == p - ('a' - 'A'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int parseInt(CharSequence line, int start, int end) {
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            int digit = line.charAt(i) - '0';
+            if (result > (Integer.MAX_VALUE - digit) / 10) {
+                throw new NumberFormatException("For input string: \"" + line.subSequence(start, end) + "\"");
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    private static int indexOf(CharSequence line, char c, int start) {
+        int i = start;
+        while (i < line.length() && line.charAt(i) != c) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipWhitespace(CharSequence line, int start) {
+        int i = start;
+        while (i < line.length() && isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    // end of \s+, -1 if there is no whitespace
+    private static int skipRequiredWhitespace(CharSequence line, int start) {
+        int i = skipWhitespace(line, start);
+        return i > start ? i : -1;
+    }
+
+    private static int skipNonWhitespace(CharSequence line, int start) {
+        int i = start;
+        while (i < line.length() && !isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipDigits(CharSequence line, int start) {
+        int i = start;
+        while (i < line.length() && isDigit(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isWordCharacter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private static boolean isDateCharacter(char c) {
+        return isWordCharacter(c) || isWhitespace(c) || c == '-' || c == ':' || c == '+';
+    }
+}
@@ -0,0 +1,47 @@
+package de.unitrier.st.gitlogparser;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// ids of the file extensions of a run, shared by all files of the run;
+// commits store the ids of the extensions of their files instead of the extensions
+class FileExtensionDictionary {
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    // indexed by id, copied when full (an id is only handed out after its entry is written)
+    private volatile String[] extensions = new String[64];
+    private int size;
+
+    int getId(String extension) {
+        Integer id = ids.get(extension);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(extension);
+            if (id != null) {
+                return id;
+            }
+            if (size == extensions.length) {
+                extensions = Arrays.copyOf(extensions, size * 2);
+            }
+            extensions[size] = extension;
+            ids.put(extension, size);
+            return size++;
+        }
+    }
+
+    // extension without point, "" for files without extension
+    String get(int id) {
+        return extensions[id];
+    }
+
+    // the extension in the column file_extensions, "none" for files without extension
+    String getName(int id) {
+        return getName(get(id));
+    }
+
+    private static String getName(String extension) {
+        return extension.isEmpty() ? "none" : extension;
+    }
+}
@@ -0,0 +1,55 @@
+package de.unitrier.st.gitlogparser;
+
+// result of parsing and writing one log file, printed at the end of a run,
+// the read and parse times of files split into chunks are summed over the chunks (parsed in parallel)
+class FileSummary {
+    private final LogFile logFile;
+    private final int commitCount;
+    private final long bytesRead;
+    private final long readMillis;
+    private final long parseMillis;
+    private final long writeMillis;
+
+    FileSummary(LogFile logFile, int commitCount, long bytesRead, long readMillis, long parseMillis, long writeMillis) {
+        this.logFile = logFile;
+        this.commitCount = commitCount;
+        this.bytesRead = bytesRead;
+        this.readMillis = readMillis;
+        this.parseMillis = parseMillis;
+        this.writeMillis = writeMillis;
+    }
+
+    LogFile getLogFile() {
+        return logFile;
+    }
+
+    int getCommitCount() {
+        return commitCount;
+    }
+
+    long getBytesRead() {
+        return bytesRead;
+    }
+
+    long getReadMillis() {
+        return readMillis;
+    }
+
+    long getParseMillis() {
+        return parseMillis;
+    }
+
+    long getWriteMillis() {
+        return writeMillis;
+    }
+
+    @Override
+    public String toString() {
+        return logFile.getName() + ": "
+                + commitCount + " " + logFile.getType() + ", "
+                + bytesRead / (1024 * 1024) + " MB, "
+                + "read " + readMillis + " ms, "
+                + "parse " + parseMillis + " ms, "
+                + "write " + writeMillis + " ms";
+    }
+}
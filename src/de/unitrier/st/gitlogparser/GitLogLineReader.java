@@ -0,0 +1,111 @@
+package de.unitrier.st.gitlogparser;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// runs git log in a local (bare or working) repository and reads its output without an intermediate file
+class GitLogLineReader implements LogLineReader {
+    // same format as the log files: full author and committer information, ISO dates, and lines added/deleted per file,
+    // names as recorded in the commits and no signature lines (independent of the configuration of the repository)
+    private static final List<String> logOptions = Arrays.asList(
+            "--pretty=fuller", "--date=iso", "--numstat", "--no-color", "--no-mailmap", "--no-show-signature");
+    // all merges of the branch (also those only reachable through second parents),
+    // with file stats relative to their first parent (requires git 2.31)
+    private static final List<String> mergeOptions = Arrays.asList("--merges", "-m", "--diff-merges=first-parent");
+    private static final List<String> commitOptions = Arrays.asList("--no-merges");
+
+    private final Process process;
+    private final MeteredInputStream meteredStream;
+    private final BufferedReader reader;
+    private boolean endOfLog;
+
+    GitLogLineReader(File repository, String branch, String type) throws IOException {
+        List<String> command = new ArrayList<>(Arrays.asList(
+                "git", "--no-pager", "-C", repository.getAbsolutePath(), "log"));
+        command.addAll(logOptions);
+        command.addAll(type.equals("merges") ? mergeOptions : commitOptions);
+        // the branch is never read as an option (requires git 2.24)
+        command.add("--end-of-options");
+        command.add(branch);
+        command.add("--");
+
+        process = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        process.getOutputStream().close();
+        meteredStream = new MeteredInputStream(process.getInputStream());
+        reader = new BufferedReader(new InputStreamReader(meteredStream, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public CharSequence readLine() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            endOfLog = true;
+        }
+        return line;
+    }
+
+    @Override
+    public long getBytesRead() {
+        return meteredStream.getBytesRead();
+    }
+
+    // includes the time spent waiting for git
+    @Override
+    public long getReadNanos() {
+        return meteredStream.getReadNanos();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+        if (!endOfLog) {
+            process.destroy();
+        }
+        int exitValue = waitFor(process);
+        if (endOfLog && exitValue != 0) {
+            throw new IOException("git log failed with exit code " + exitValue + ".");
+        }
+    }
+
+    // branch checked out in the repository (HEAD)
+    static String currentBranch(File repository) throws IOException {
+        Process process = new ProcessBuilder("git", "-C", repository.getAbsolutePath(), "symbolic-ref", "--short", "HEAD")
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        process.getOutputStream().close();
+        String branch;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            branch = reader.readLine();
+        }
+        if (waitFor(process) != 0 || branch == null) {
+            throw new IOException("Could not determine current branch of repository " + repository + ".");
+        }
+        return branch.trim();
+    }
+
+    // working trees contain a .git directory (or file), bare repositories contain HEAD and objects
+    static boolean isRepository(File directory) {
+        return new File(directory, ".git").exists()
+                || (new File(directory, "HEAD").isFile() && new File(directory, "objects").isDirectory());
+    }
+
+    private static int waitFor(Process process) throws IOException {
+        try {
+            return process.waitFor();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroy();
+            throw new InterruptedIOException("Interrupted while waiting for git.");
+        }
+    }
+}
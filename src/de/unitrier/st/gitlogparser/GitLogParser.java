@@ -1,46 +1,55 @@
 package de.unitrier.st.gitlogparser;
 
 import org.apache.commons.cli.*;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVPrinter;
-import org.apache.commons.csv.QuoteMode;
-import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.input.BoundedInputStream;
 
 import java.io.*;
+import java.nio.charset.CharacterCodingException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipException;
 
 class GitLogParser {
-    private static final Pattern fileNamePattern = Pattern.compile("(?i)^(.+_.+)§(.+)_(commits|merges)\\.log$");
-    private static final Pattern commitHashPattern = Pattern.compile("(?i)^commit\\s+(\\w{40}).*");
-    private static final Pattern authorNamePattern = Pattern.compile("(?i)^Author:\\s+([^<]+).*");
-    private static final Pattern authorEmailPattern = Pattern.compile("(?i)^Author:\\s+[^<]+<([^>]+)>.*");
-    private static final Pattern commitNamePattern = Pattern.compile("(?i)^Commit:\\s+([^<]+).*");
-    private static final Pattern commitEmailPattern = Pattern.compile("(?i)^Commit:\\s+[^<]+<([^>]+)>.*");
-    private static final Pattern mergePattern = Pattern.compile("(?i)^Merge:\\s+([\\w\\s]+).*");
-    private static final Pattern authorDatePattern = Pattern.compile("(?i)^AuthorDate:\\s+([\\w\\s-:+]+).*");
-    private static final Pattern commitDatePattern = Pattern.compile("(?i)^CommitDate:\\s+([\\w\\s-:+]+).*");
-    private static final Pattern fileStatsPattern = Pattern.compile("(?i)^(\\d+|-)\\s+(\\d+|-)\\s+(.+)");
-    private static final Pattern linesAddedDeletedPattern = Pattern.compile("(?i)^(\\d+)\\s+(\\d+)\\s+(.+)"); // ignores binary files (-	- PATH)
-    private static final Pattern mergedBranchPattern = Pattern.compile("(?i)\\s*Merged?(?:\\s+remote)?(?:\\s+branch)?\\s+'([^\\s]+)'(?:\\s+of\\s+([^\\s]+))?(?:\\s+into\\s+([^\\s]+))?.*");
-    private static final Pattern mergedRemoteTrackingBranchPattern = Pattern.compile("(?i)\\s*Merged? remote-tracking branch '([^\\s]+)'.*");
-    private static final Pattern mergeTagPattern = Pattern.compile("(?i)\\s*Merged?\\s+tag\\s+'(.+)'(?:\\s+into\\s+([^\\s]+))?.*");
-    private static final Pattern mergedPullRequestPattern = Pattern.compile("(?i)\\s*Merged?\\s+pull\\s+request\\s+#(\\d+)(?:\\s+from ([^\\s]+)/([^\\s]+))?.*");
-    private static final Pattern mergedCommitPattern = Pattern.compile("(?i)\\s*Merged?(?:\\s+commit)?\\s+'([^\\s]+)'(?:\\s+into\\s+([^\\s]+))?.*");
-
-    private Path inputDirPath, outputDirPath;
-    private String[] fileExtensions;
-    private LinkedList<Commit> commits;
-    private String project;
-    private String branch;
-    private String type; // "commits" or "merges"
+    private List<LogFile> logFiles;
+    private Path outputDirPath;
+    private PathFilter pathFilter;
+    private int threads;
+    private boolean memoryMapped;
+    private long chunkSize; // in bytes, 0 if large files are not split
+    private boolean incremental;
+    private boolean columnar;
+    private boolean asyncWriter;
+    private int logMessageLength; // characters of the column log_message, 0 if the column is not written
+    private int progressInterval; // in seconds, 0 if progress is not reported
+    private RunMetrics metrics;
+    private ConsolidatedOutput consolidatedOutput; // null if each log file is written to its own output file
+    private CommitFilesOutput commitFilesOutput; // null if the table commit_files is not written
+    private RunManifest manifest;
+    private CommitIndexWriter indexWriter; // null if the output files are not indexed
+    private ChurnAggregator churnAggregator; // null if the commits are not aggregated
+    private CommitDeduplicator deduplicator; // null if the commits of all branches are kept
+    private CommitParser commitParser;
+    private ExecutorService chunkExecutor;
 
     public static void main(String[] args) {
         System.out.println("GitLogParser");
@@ -49,17 +58,105 @@ class GitLogParser {
         Options options = new Options();
 
         Option inputDir = new Option("i", "input-dir", true, "path to input directory");
-        inputDir.setRequired(true);
+        inputDir.setRequired(false);
         options.addOption(inputDir);
 
+        Option repo = new Option("g", "repo", true, "path to a local git repository to read the log from (instead of an input directory)");
+        repo.setRequired(false);
+        options.addOption(repo);
+
+        Option reposDir = new Option("G", "repos-dir", true, "path to a directory of local git repositories to read the logs from");
+        reposDir.setRequired(false);
+        options.addOption(reposDir);
+
+        Option branchOption = new Option("b", "branch", true, "branch of the git repositories (default: current branch)");
+        branchOption.setRequired(false);
+        options.addOption(branchOption);
+
+        Option projectOption = new Option("p", "project", true, "project name of the git repository (default: directory name)");
+        projectOption.setRequired(false);
+        options.addOption(projectOption);
+
         Option outputDir = new Option("o", "output-dir", true, "path to output directory");
-        inputDir.setRequired(true);
+        outputDir.setRequired(true);
         options.addOption(outputDir);
 
         Option fileExtensionFilter = new Option("f", "file-extension-filter", true, "file extension filter");
         fileExtensionFilter.setRequired(false);
         options.addOption(fileExtensionFilter);
 
+        Option pathFilterOption = new Option("x", "path-filter", true, "path to a file of include and exclude rules for the paths of file stats (e.g. +ext:java, -dir:vendor/, -glob:**/generated/**)");
+        pathFilterOption.setRequired(false);
+        options.addOption(pathFilterOption);
+
+        Option threadsOption = new Option("t", "threads", true, "number of files parsed in parallel (default: number of cores)");
+        threadsOption.setRequired(false);
+        options.addOption(threadsOption);
+
+        Option regexParser = new Option("r", "regex-parser", false, "classify lines with regular expressions (to verify the default parser)");
+        regexParser.setRequired(false);
+        options.addOption(regexParser);
+
+        Option mmap = new Option("m", "mmap", false, "memory-map input files and decode only the extracted fields (UTF-8)");
+        mmap.setRequired(false);
+        options.addOption(mmap);
+
+        Option chunkSizeOption = new Option("c", "chunk-size", true, "split files larger than twice this size (in MB) into chunks parsed in parallel (default: 64, 0: never split)");
+        chunkSizeOption.setRequired(false);
+        options.addOption(chunkSizeOption);
+
+        Option outputFormat = new Option("F", "output-format", true, "format of the output files: csv (default) or columnar");
+        outputFormat.setRequired(false);
+        options.addOption(outputFormat);
+
+        Option consolidate = new Option("C", "consolidate", false, "write all commits and merges to the consolidated datasets commits and merges (gzip-compressed CSV shards)");
+        consolidate.setRequired(false);
+        options.addOption(consolidate);
+
+        Option shardSizeOption = new Option("S", "shard-size", true, "compressed size of the shards of consolidated datasets in MB (default: 1024)");
+        shardSizeOption.setRequired(false);
+        options.addOption(shardSizeOption);
+
+        Option progressIntervalOption = new Option("P", "progress-interval", true, "seconds between progress reports (default: 10, 0: no progress reports)");
+        progressIntervalOption.setRequired(false);
+        options.addOption(progressIntervalOption);
+
+        Option incrementalOption = new Option("n", "incremental", false, "only parse commits newer than the checkpoint of the previous incremental run and add them to the existing output files");
+        incrementalOption.setRequired(false);
+        options.addOption(incrementalOption);
+
+        Option commitFilesOption = new Option("d", "commit-files", false, "also write the table commit_files with the file stats of each commit (paths are stored in a dictionary per project)");
+        commitFilesOption.setRequired(false);
+        options.addOption(commitFilesOption);
+
+        Option asyncWriterOption = new Option("w", "async-writer", false, "write each CSV file on a writer thread of its own, in batches of commits encoded as UTF-8 (parsing and writing overlap)");
+        asyncWriterOption.setRequired(false);
+        options.addOption(asyncWriterOption);
+
+        Option resumeOption = new Option("R", "resume", false, "skip the log files that are complete or quarantined in the manifest of the previous run in the output directory");
+        resumeOption.setRequired(false);
+        options.addOption(resumeOption);
+
+        Option indexOption = new Option("I", "index", false, "build an index of the rows of the CSV files by commit hash and author email (read with CommitIndexReader)");
+        indexOption.setRequired(false);
+        options.addOption(indexOption);
+
+        Option aggregateOption = new Option("a", "aggregate", false, "also write rollups of the commits and lines added and deleted per author email, month, file extension, and branch");
+        aggregateOption.setRequired(false);
+        options.addOption(aggregateOption);
+
+        Option logMessageOption = new Option("M", "log-message", true, "also write the column log_message with the first N characters of each log message (otherwise, only the length of the messages is computed)");
+        logMessageOption.setRequired(false);
+        options.addOption(logMessageOption);
+
+        Option deduplicateOption = new Option("D", "deduplicate", false, "skip commits that were already parsed from another branch of the same project (the branches are written to the table commit_branches)");
+        deduplicateOption.setRequired(false);
+        options.addOption(deduplicateOption);
+
+        Option offHeapHashesOption = new Option("H", "off-heap-hashes", false, "store the commit hashes of --deduplicate outside of the Java heap");
+        offHeapHashesOption.setRequired(false);
+        options.addOption(offHeapHashesOption);
+
         CommandLineParser commandLineParser = new DefaultParser();
         HelpFormatter commandLineFormatter = new HelpFormatter();
         CommandLine commandLine;
@@ -73,14 +170,64 @@ class GitLogParser {
             return;
         }
 
-        Path inputDirPath = Paths.get(commandLine.getOptionValue("input-dir"));
+        int inputCount = (commandLine.hasOption("input-dir") ? 1 : 0)
+                + (commandLine.hasOption("repo") ? 1 : 0)
+                + (commandLine.hasOption("repos-dir") ? 1 : 0);
+        if (inputCount != 1) {
+            System.out.println("Exactly one of the options input-dir, repo, and repos-dir is required.");
+            commandLineFormatter.printHelp("GitLogParser", options);
+            System.exit(1);
+            return;
+        }
+
         Path outputDirPath = Paths.get(commandLine.getOptionValue("output-dir"));
 
-        if (!Files.exists(inputDirPath)) {
-            throw new IllegalArgumentException("Input directory does not exist.");
-        }
-        if (!Files.isDirectory(inputDirPath)) {
-            throw new IllegalArgumentException("Input directory is not a directory.");
+        List<LogFile> logFiles;
+        // files with names that are no log file names, with the reason
+        Map<File, String> malformedFiles = new LinkedHashMap<>();
+        if (commandLine.hasOption("input-dir")) {
+            Path inputDirPath = Paths.get(commandLine.getOptionValue("input-dir"));
+
+            if (!Files.exists(inputDirPath)) {
+                throw new IllegalArgumentException("Input directory does not exist.");
+            }
+            if (!Files.isDirectory(inputDirPath)) {
+                throw new IllegalArgumentException("Input directory is not a directory.");
+            }
+
+            logFiles = listLogFiles(inputDirPath, malformedFiles);
+        } else {
+            // git would read a branch name starting with "-" as an option
+            String branch = commandLine.getOptionValue("branch");
+            if (branch != null && branch.startsWith("-")) {
+                throw new IllegalArgumentException("Invalid branch name: " + branch);
+            }
+
+            List<File> repositories = new ArrayList<>();
+            if (commandLine.hasOption("repo")) {
+                File repository = new File(commandLine.getOptionValue("repo"));
+                if (!GitLogLineReader.isRepository(repository)) {
+                    throw new IllegalArgumentException("Not a git repository: " + repository);
+                }
+                repositories.add(repository);
+            } else {
+                File reposDirFile = new File(commandLine.getOptionValue("repos-dir"));
+                File[] directories = reposDirFile.listFiles(File::isDirectory);
+                if (directories == null) {
+                    throw new IllegalArgumentException("Repositories directory is not a directory.");
+                }
+                Arrays.sort(directories);
+                for (File directory : directories) {
+                    if (GitLogLineReader.isRepository(directory)) {
+                        repositories.add(directory);
+                    }
+                }
+                if (commandLine.hasOption("project")) {
+                    throw new IllegalArgumentException("The project name can only be set for a single repository.");
+                }
+            }
+
+            logFiles = listRepositoryLogs(repositories, branch, commandLine.getOptionValue("project"));
         }
 
         if (!Files.exists(outputDirPath)) {
@@ -91,311 +238,697 @@ class GitLogParser {
             }
         }
 
-        String[] fileExtensions = new String[0];
+        // the extensions of the file extension filter are include rules of the path filter
+        List<PathFilter.Rule> pathFilterRules = new ArrayList<>();
         if (commandLine.hasOption("file-extension-filter")) {
             String fileExtensionFilterString = commandLine.getOptionValue("file-extension-filter");
-            fileExtensions = fileExtensionFilterString.split("\\s+");
+            pathFilterRules.addAll(PathFilter.ofExtensions(fileExtensionFilterString.split("\\s+")).getRules());
+        }
+        if (commandLine.hasOption("path-filter")) {
+            try {
+                pathFilterRules.addAll(PathFilter.readRules(Paths.get(commandLine.getOptionValue("path-filter"))));
+            } catch (IOException e) {
+                e.printStackTrace();
+                System.exit(1);
+            }
+        }
+        PathFilter pathFilter = PathFilter.compile(pathFilterRules);
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (commandLine.hasOption("threads")) {
+            threads = Integer.parseInt(commandLine.getOptionValue("threads"));
+            if (threads < 1) {
+                throw new IllegalArgumentException("Number of threads must be at least 1.");
+            }
         }
 
-        GitLogParser gitLogParser = new GitLogParser(inputDirPath, outputDirPath, fileExtensions);
+        boolean useRegexTokenizer = commandLine.hasOption("regex-parser");
+        boolean memoryMapped = commandLine.hasOption("mmap");
+
+        long chunkSize = 64;
+        if (commandLine.hasOption("chunk-size")) {
+            chunkSize = Long.parseLong(commandLine.getOptionValue("chunk-size"));
+            if (chunkSize < 0) {
+                throw new IllegalArgumentException("Chunk size must not be negative.");
+            }
+        }
+
+        boolean columnar = false;
+        if (commandLine.hasOption("output-format")) {
+            switch (commandLine.getOptionValue("output-format")) {
+                case "csv":
+                    break;
+                case "columnar":
+                    columnar = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Output format must either be csv or columnar.");
+            }
+        }
+
+        boolean incremental = commandLine.hasOption("incremental");
+        if (incremental && columnar) {
+            throw new IllegalArgumentException("Incremental runs are only supported for CSV output.");
+        }
+
+        long shardSize = 0;
+        if (commandLine.hasOption("consolidate")) {
+            if (incremental || columnar) {
+                throw new IllegalArgumentException("Consolidated datasets can neither be written incrementally nor in columnar format.");
+            }
+            shardSize = 1024;
+            if (commandLine.hasOption("shard-size")) {
+                shardSize = Long.parseLong(commandLine.getOptionValue("shard-size"));
+                if (shardSize < 1) {
+                    throw new IllegalArgumentException("Shard size must be at least 1 MB.");
+                }
+            }
+        }
+
+        boolean commitFiles = commandLine.hasOption("commit-files");
+        if (commitFiles && (incremental || columnar)) {
+            throw new IllegalArgumentException("The table commit_files can neither be written incrementally nor in columnar format.");
+        }
+
+        boolean asyncWriter = commandLine.hasOption("async-writer");
+        if (asyncWriter && (columnar || shardSize > 0)) {
+            throw new IllegalArgumentException("The writer thread is only supported for CSV files per log.");
+        }
+
+        boolean resume = commandLine.hasOption("resume");
+        if (resume && (incremental || shardSize > 0 || commitFiles)) {
+            throw new IllegalArgumentException("Runs can only be resumed without the options incremental, consolidate, and commit-files.");
+        }
+
+        boolean index = commandLine.hasOption("index");
+        if (index && (incremental || columnar || shardSize > 0)) {
+            throw new IllegalArgumentException("Only CSV files per log that are not written incrementally can be indexed.");
+        }
+
+        boolean aggregate = commandLine.hasOption("aggregate");
+        if (aggregate && (incremental || resume)) {
+            throw new IllegalArgumentException("Rollups can only be written for all commits (not incrementally or in resumed runs).");
+        }
+
+        boolean deduplicate = commandLine.hasOption("deduplicate");
+        if (deduplicate && (incremental || resume)) {
+            throw new IllegalArgumentException("Commits can only be deduplicated for all logs (not incrementally or in resumed runs).");
+        }
+        boolean offHeapHashes = commandLine.hasOption("off-heap-hashes");
+        if (offHeapHashes && !deduplicate) {
+            throw new IllegalArgumentException("Commit hashes are only stored with the option deduplicate.");
+        }
+
+        int logMessageLength = 0;
+        if (commandLine.hasOption("log-message")) {
+            logMessageLength = Integer.parseInt(commandLine.getOptionValue("log-message"));
+            if (logMessageLength < 1) {
+                throw new IllegalArgumentException("Log messages must be written with at least 1 character.");
+            }
+            if (columnar) {
+                throw new IllegalArgumentException("Log messages are only written to CSV files.");
+            }
+        }
+
+        int progressInterval = 10;
+        if (commandLine.hasOption("progress-interval")) {
+            progressInterval = Integer.parseInt(commandLine.getOptionValue("progress-interval"));
+            if (progressInterval < 0) {
+                throw new IllegalArgumentException("Progress interval must not be negative.");
+            }
+        }
+
+        RunManifest manifest;
+        CommitIndexWriter indexWriter = null;
+        try {
+            if (index) {
+                indexWriter = new CommitIndexWriter(outputDirPath);
+            }
+            manifest = new RunManifest(outputDirPath, resume);
+            for (Map.Entry<File, String> malformedFile : malformedFiles.entrySet()) {
+                manifest.quarantine(malformedFile.getKey(), malformedFile.getValue());
+            }
+            logFiles = manifest.removeFinished(logFiles);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+            return;
+        }
+
+        GitLogParser gitLogParser = new GitLogParser(logFiles, outputDirPath, pathFilter, threads,
+                useRegexTokenizer, memoryMapped, chunkSize * 1024 * 1024, incremental, columnar,
+                shardSize * 1024 * 1024, commitFiles, asyncWriter, manifest, indexWriter, aggregate, deduplicate,
+                offHeapHashes, logMessageLength, progressInterval);
         gitLogParser.parseFiles();
     }
 
-    private GitLogParser(Path inputDirPath, Path outputDirPath, String[] fileExtensions) {
-        this.inputDirPath = inputDirPath;
+    private GitLogParser(List<LogFile> logFiles, Path outputDirPath, PathFilter pathFilter, int threads,
+                         boolean useRegexTokenizer, boolean memoryMapped, long chunkSize, boolean incremental,
+                         boolean columnar, long shardSize, boolean commitFiles, boolean asyncWriter,
+                         RunManifest manifest, CommitIndexWriter indexWriter, boolean aggregate,
+                         boolean deduplicate, boolean offHeapHashes, int logMessageLength,
+                         int progressInterval) {
+        this.logFiles = logFiles;
         this.outputDirPath = outputDirPath;
-        this.fileExtensions = fileExtensions;
+        this.pathFilter = pathFilter;
+        this.threads = threads;
+        this.memoryMapped = memoryMapped;
+        this.chunkSize = chunkSize;
+        this.incremental = incremental;
+        this.columnar = columnar;
+        this.asyncWriter = asyncWriter;
+        this.logMessageLength = logMessageLength;
+        this.manifest = manifest;
+        this.indexWriter = indexWriter;
+        this.progressInterval = progressInterval;
+        if (shardSize > 0) {
+            this.consolidatedOutput = new ConsolidatedOutput(outputDirPath, shardSize, logMessageLength > 0);
+        }
+        if (commitFiles) {
+            this.commitFilesOutput = new CommitFilesOutput(outputDirPath.toAbsolutePath());
+        }
+        if (deduplicate) {
+            this.deduplicator = new CommitDeduplicator(outputDirPath.toAbsolutePath(), offHeapHashes);
+        }
+
+        // the total size is unknown if logs are read from repositories
+        long totalBytes = 0;
+        for (LogFile logFile : logFiles) {
+            if (logFile.isRepository()) {
+                totalBytes = 0;
+                break;
+            }
+            totalBytes += logFile.getFile().length();
+        }
+        this.metrics = new RunMetrics(totalBytes, logFiles.size());
+        // the messages are only copied for the column log_message, otherwise only their length is computed
+        this.commitParser = new CommitParser(pathFilter, useRegexTokenizer, metrics, logMessageLength);
+        if (aggregate) {
+            this.churnAggregator = new ChurnAggregator(outputDirPath, commitParser.getExtensionDictionary());
+        }
     }
 
-    private void parseFiles() {
+    // files with malformed names are added to malformedFiles instead of stopping the run
+    private static List<LogFile> listLogFiles(Path inputDirPath, Map<File, String> malformedFiles) {
+        List<LogFile> logFiles = new ArrayList<>();
         try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(inputDirPath)) {
             for (Path path : directoryStream) {
                 File file = new File(path.toAbsolutePath().toString());
                 if (file.exists() && file.isFile() && !file.isHidden()
-                        && FilenameUtils.getExtension(file.getName()).equals("log")) {
-                    commits = parseFile(file);
-                    writeData(outputDirPath);
+                        && LogFile.isLogFileName(file.getName())) {
+                    try {
+                        logFiles.add(LogFile.of(file));
+                    } catch (IllegalArgumentException e) {
+                        malformedFiles.put(file, e.getMessage());
+                    }
                 }
             }
         } catch (IOException e) {
             e.printStackTrace();
             System.exit(1);
         }
+        return logFiles;
     }
 
-    private LinkedList<Commit> parseFile(File file) {
-        System.out.println("Parsing file: " + file.getName());
+    // commits and merges of the given branch of each repository
+    private static List<LogFile> listRepositoryLogs(List<File> repositories, String branch, String project) {
+        List<LogFile> logFiles = new ArrayList<>();
+        for (File repository : repositories) {
+            String repositoryBranch = branch;
+            if (repositoryBranch == null) {
+                try {
+                    repositoryBranch = GitLogLineReader.currentBranch(repository);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    System.exit(1);
+                }
+            }
+            String repositoryProject = project;
+            if (repositoryProject == null) {
+                repositoryProject = repository.getAbsoluteFile().getName().replaceFirst("\\.git$", "");
+            }
+            logFiles.add(LogFile.ofRepository(repository, repositoryProject, repositoryBranch, "commits"));
+            logFiles.add(LogFile.ofRepository(repository, repositoryProject, repositoryBranch, "merges"));
+        }
+        return logFiles;
+    }
 
-        commits = new LinkedList<>();
-        project = "";
-        branch = "";
-        type = "";
+    private void parseFiles() {
+        // largest files first, small files in batches (see BatchScheduler),
+        // the logs of a project one after another if commits are deduplicated
+        BatchScheduler scheduler = new BatchScheduler(threads, chunkSize, deduplicator != null);
+        List<BatchScheduler.Batch> batches = scheduler.schedule(logFiles);
+        System.out.println(scheduler.getPlan(logFiles.size(), batches.size()));
+        long startNanos = System.nanoTime();
+
+        // each file is parsed and written by one worker, output files do not overlap
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(batches.size(), 1)));
+        // chunks of large files are parsed on a separate pool, file workers block while waiting for them
+        chunkExecutor = Executors.newFixedThreadPool(threads);
+        List<Future<List<FileSummary>>> futures = new ArrayList<>(batches.size());
+        for (BatchScheduler.Batch batch : batches) {
+            futures.add(executor.submit(() -> processBatch(batch)));
+        }
+        executor.shutdown();
+
+        ScheduledExecutorService progressExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (progressInterval > 0) {
+            progressExecutor.scheduleAtFixedRate(() -> System.out.println(metrics.getProgress()),
+                    progressInterval, progressInterval, TimeUnit.SECONDS);
+        }
 
+        List<FileSummary> summaries = new ArrayList<>(logFiles.size());
         try {
-            if (file.getName().endsWith("_commits.log")) {
-                type = "commits";
-            } else if (file.getName().endsWith("_merges.log")){
-                type = "merges";
-            } else {
-                throw new IllegalArgumentException("File must either be a commit or merge log file.");
+            for (Future<List<FileSummary>> future : futures) {
+                summaries.addAll(future.get());
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+            chunkExecutor.shutdownNow();
+            return;
+        } catch (ExecutionException e) {
+            executor.shutdownNow();
+            chunkExecutor.shutdownNow();
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            e.getCause().printStackTrace();
+            System.exit(1);
+        } finally {
+            progressExecutor.shutdownNow();
+        }
+        chunkExecutor.shutdown();
 
-            // extract project and branch from file name
-            Matcher fileNameMatcher = fileNamePattern.matcher(file.getName());
-            if (fileNameMatcher.matches()) {
-                project = fileNameMatcher.group(1);
-                branch = fileNameMatcher.group(2);
-            } else {
-                throw new IllegalArgumentException("Illegal file name format.");
-            }
-
-            BufferedReader reader = new BufferedReader(new FileReader(file));
-            String line;
-            Commit currentCommit = null;
-            boolean readingHeader = true;
-            boolean readingLogMessage = false;
-            StringBuilder logMessageBuilder = new StringBuilder();
-
-            while ((line = reader.readLine()) != null) {
-                // commit hash
-                Matcher commitHashMatcher = commitHashPattern.matcher(line);
-                if (commitHashMatcher.matches()) {
-                    // save previous commit
-                    if (currentCommit != null) {
-                        // ignore commits that only modified binary files (fileCount 0, not a merge)
-                        if (!(currentCommit.getFileCount() == 0 && currentCommit.getMergedCommits() == null)) {
-                            // ignore commits that did not modify any content (e.g., only file permissions changed)
-                            if (currentCommit.getLineCount() > 0) {
-                                // save log message without trailing empty lines
-                                currentCommit.setLogMessage(logMessageBuilder.toString().trim());
-                                commits.add(currentCommit);
-                            }
-                        }
-                        logMessageBuilder = new StringBuilder();
-                        readingLogMessage = false; // needed in case file stats not present on log (true for merges)
-                    }
-
-                    String commitHash = commitHashMatcher.group(1);
-                    currentCommit = new Commit(project, branch, commitHash);
-                    readingHeader = true;
-                    continue;
-                }
+        printSummary(summaries);
+        System.out.println(scheduler.getReport(summaries, System.nanoTime() - startNanos));
+        for (PathFilter.Rule rule : pathFilter.getRules()) {
+            System.out.println("Path filter rule " + rule + ": " + rule.getMatched() + " file stats matched.");
+        }
 
-                if (readingHeader && currentCommit != null) {
-                    // merged commits
-                    Matcher mergeMatcher = mergePattern.matcher(line);
-                    if (mergeMatcher.matches()) {
-                        String mergedCommits = mergeMatcher.group(1);
-                        currentCommit.setMergedCommits(mergedCommits);
-                        continue;
-                    }
+        if (consolidatedOutput != null) {
+            try {
+                consolidatedOutput.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+                System.exit(1);
+            }
+            for (String type : new String[]{"commits", "merges"}) {
+                System.out.println(type + ": " + consolidatedOutput.getRowCount(type) + " rows in "
+                        + consolidatedOutput.getShardCount(type) + " shards.");
+            }
+        }
 
-                    // author name and email
-                    Matcher authorNameMatcher = authorNamePattern.matcher(line);
-                    Matcher authorEmailMatcher = authorEmailPattern.matcher(line);
-                    if (authorNameMatcher.matches() || authorEmailMatcher.matches()) {
-                        if (authorNameMatcher.matches()) {
-                            String authorName = authorNameMatcher.group(1).trim();
-                            currentCommit.setAuthorName(authorName);
-                        }
-                        if (authorEmailMatcher.matches()) {
-                            String authorEmail = authorEmailMatcher.group(1).trim();
-                            if (authorEmail.contains("@")) {
-                                currentCommit.setAuthorEmail(authorEmail);
-                            } else {
-                                currentCommit.setAuthorEmail("");
-                            }
-                        }
-                        continue;
-                    }
+        if (commitFilesOutput != null) {
+            try {
+                commitFilesOutput.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+                System.exit(1);
+            }
+            System.out.println("commit_files: " + commitFilesOutput.getRowCount() + " rows, "
+                    + commitFilesOutput.getPathCount() + " paths and directories in the dictionaries of "
+                    + commitFilesOutput.getProjectCount() + " projects.");
+        }
 
-                    // author date
-                    Matcher authorDateMatcher = authorDatePattern.matcher(line);
-                    if (authorDateMatcher.matches()) {
-                        String date = authorDateMatcher.group(1);
-                        currentCommit.setAuthorDate(convertDate(date));
-                        continue;
-                    }
+        if (deduplicator != null) {
+            System.out.println("commit_branches: " + deduplicator.getRowCount() + " rows, "
+                    + deduplicator.getCommitCount() + " distinct commits.");
+        }
 
-                    // commit name and email
-                    Matcher commitNameMatcher = commitNamePattern.matcher(line);
-                    Matcher commitEmailMatcher = commitEmailPattern.matcher(line);
-                    if (commitNameMatcher.matches() || commitEmailMatcher.matches()) {
-                        if (commitNameMatcher.matches()) {
-                            String commitName = commitNameMatcher.group(1).trim();
-                            currentCommit.setCommitName(commitName);
-                        }
-                        if (commitEmailMatcher.matches()) {
-                            String commitEmail = commitEmailMatcher.group(1).trim();
-                            if (commitEmail.contains("@")) {
-                                currentCommit.setCommitEmail(commitEmail);
-                            } else {
-                                currentCommit.setCommitEmail("");
-                            }
-                        }
-                        continue;
-                    }
+        if (churnAggregator != null) {
+            try {
+                churnAggregator.write();
+            } catch (IOException e) {
+                e.printStackTrace();
+                System.exit(1);
+            }
+        }
 
-                    // commit date
-                    Matcher commitDateMatcher = commitDatePattern.matcher(line);
-                    if (commitDateMatcher.matches()) {
-                        String date = commitDateMatcher.group(1);
-                        currentCommit.setCommitDate(convertDate(date));
-                        continue;
-                    }
+        if (indexWriter != null) {
+            try {
+                indexWriter.merge();
+            } catch (IOException e) {
+                e.printStackTrace();
+                System.exit(1);
+            }
+        }
 
-                    // detect beginning of log message
-                    // an empty line separates the header from the log message and the file stats from the next commit,
-                    // see https://git-scm.com/docs/pretty-formats
-                    if (line.trim().length() == 0) {
-                        readingHeader = false;
-                        readingLogMessage = true;
-                    }
-                } else { // readingHeader is false
+        Path summaryFilePath = outputDirPath.resolve("gitlogparser-summary.json");
+        System.out.println("Writing file: " + summaryFilePath.getFileName());
+        try {
+            metrics.writeSummary(OutputFiles.getTempPath(summaryFilePath), summaries, pathFilter.getRules());
+            OutputFiles.commit(summaryFilePath);
+            manifest.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
 
-                    if (currentCommit == null) {
-                        continue;
-                    }
+    // the summaries of the files of the batch that were not quarantined
+    private List<FileSummary> processBatch(BatchScheduler.Batch batch) {
+        List<FileSummary> summaries = new ArrayList<>(batch.getLogFiles().size());
+        for (LogFile logFile : batch.getLogFiles()) {
+            FileSummary summary = processFile(logFile);
+            if (summary != null) {
+                summaries.add(summary);
+            }
+        }
+        return summaries;
+    }
 
-                    // file stats (lines added/deleted or "- -" in case of binary files)
-                    Matcher fileStatsMatcher = fileStatsPattern.matcher(line);
-                    if (fileStatsMatcher.matches()) {
-                        readingLogMessage = false;
-
-                        // extract lines added/deleted and ignore binary files ("- -")
-                        Matcher linesAddedDeletedMatcher = linesAddedDeletedPattern.matcher(line);
-                        if (linesAddedDeletedMatcher.matches()) {
-                            int linesAdded = Integer.parseInt(linesAddedDeletedMatcher.group(1));
-                            int linesDeleted = Integer.parseInt(linesAddedDeletedMatcher.group(2));
-                            String path = linesAddedDeletedMatcher.group(3);
-
-                            // if file extension filter is defined, apply the filter
-                            if (fileExtensions.length > 0) {
-                                for (String fileExtension : fileExtensions) {
-                                    if (path.endsWith("." + fileExtension)) {
-                                        currentCommit.addFile(new CommitFile(linesAdded, linesDeleted, path));
-                                    }
-                                }
-                            } else { // otherwise just add the file
-                                currentCommit.addFile(new CommitFile(linesAdded, linesDeleted, path));
-                            }
-
-                            continue;
-                        }
-                    }
+    // returns null if the log file is malformed, its output files are discarded and it is quarantined
+    private FileSummary processFile(LogFile logFile) {
+        metrics.startFile(logFile);
+        Path targetFilePath = outputDirPath.toAbsolutePath()
+                .resolve(logFile.getOutputFileName(columnar ? ColumnarFormat.FILE_EXTENSION : ".csv"));
+        FileSummary summary;
+        RunMetrics.Counter outcome = RunMetrics.Counter.FILES_FAILED;
+        try {
+            summary = parseAndWrite(logFile, targetFilePath);
+            manifest.complete(logFile);
+            outcome = RunMetrics.Counter.FILES_WRITTEN;
+        } catch (IOException | RuntimeException e) {
+            // rows of consolidated datasets cannot be discarded, repositories are not files
+            if (!isMalformedInput(e) || consolidatedOutput != null || logFile.isRepository()) {
+                throw e instanceof IOException ? new UncheckedIOException((IOException) e) : (RuntimeException) e;
+            }
+            OutputFiles.discard(targetFilePath);
+            if (commitFilesOutput != null) {
+                commitFilesOutput.discard(logFile);
+            }
+            if (indexWriter != null) {
+                indexWriter.discard(targetFilePath.getFileName().toString());
+            }
+            if (churnAggregator != null) {
+                churnAggregator.discard(logFile);
+            }
+            if (deduplicator != null) {
+                deduplicator.discard(logFile);
+            }
+            try {
+                manifest.quarantine(logFile.getFile(), e.toString());
+            } catch (IOException manifestException) {
+                throw new UncheckedIOException(manifestException);
+            }
+            outcome = RunMetrics.Counter.FILES_QUARANTINED;
+            summary = null;
+        } finally {
+            metrics.finishFile(logFile, outcome);
+        }
+        return summary;
+    }
 
-                    if (readingLogMessage) {
-                        // log messages are indented by 4 blanks
-                        if (line.startsWith("    ")) {
-                            line = line.substring(4);
-                        }
-
-                        // append current line to string builder
-                        logMessageBuilder.append(line).append("\n");
-
-                        // check if log contains information about merged pull request
-                        Matcher mergedPullRequestMatcher = mergedPullRequestPattern.matcher(line);
-                        if (mergedPullRequestMatcher.matches()) {
-                            String pullRequestId = mergedPullRequestMatcher.group(1);
-                            currentCommit.setPullRequestId(pullRequestId);
-
-                            if (mergedPullRequestMatcher.group(2) != null && mergedPullRequestMatcher.group(3) != null) {
-                                // "from"-part present
-                                String pullRequestUser = mergedPullRequestMatcher.group(2);
-                                currentCommit.setSourceUser(pullRequestUser);
-                                String sourceBranch = mergedPullRequestMatcher.group(3);
-                                currentCommit.setSourceBranch(sourceBranch);
-                            }
-
-                            continue;
-                        }
-
-                        // print merge log messages that were not matched
-                        //if (line.trim().toLowerCase().startsWith("merge")) {
-                        //    System.out.println(line);
-                        //}
-                    }
+    // exceptions caused by the content of a log file (e.g. a wrong date format or a truncated gzip file),
+    // other exceptions (e.g. a full disk) stop the run, which can then be resumed
+    private static boolean isMalformedInput(Exception e) {
+        if (e instanceof UncheckedIOException) {
+            return isMalformedInput(((UncheckedIOException) e).getCause());
+        }
+        // wrong dates and file names (IllegalArgumentException) and line counts (NumberFormatException),
+        // other runtime exceptions are bugs
+        return e instanceof IllegalArgumentException
+                || e instanceof CharacterCodingException
+                || e instanceof ZipException
+                || e instanceof EOFException;
+    }
 
-                }
+    // writes the output files of the log to temporary files and renames them when they are complete
+    private FileSummary parseAndWrite(LogFile logFile, Path targetFilePath) throws IOException {
+        ParseContext context = new ParseContext(logFile.getProject(), logFile.getBranch());
+        if (deduplicator != null) {
+            context.setSeenCommits(deduplicator.getSeenCommits(logFile));
+        }
+        Path outputFilePath = OutputFiles.getTempPath(targetFilePath);
+        long writeNanos;
+
+        // in incremental runs, the rows of the existing output file are appended to the new commits
+        // (logs are newest first)
+        if (incremental && Files.exists(targetFilePath)) {
+            context.setStopHash(Checkpoint.read(targetFilePath));
+            if (context.getStopHash() != null && !CsvCommitSink.hasCurrentHeader(targetFilePath, logFile.getType(), logMessageLength > 0)) {
+                // rows with other columns cannot be appended
+                System.out.println("Columns of " + targetFilePath.getFileName() + " changed, parsing the whole log.");
+                context.setStopHash(null);
             }
-        } catch (IOException e) {
-            e.printStackTrace();
-            System.exit(1);
         }
 
-        return commits;
-    }
+        try (CommitSink sink = openSink(logFile, targetFilePath, outputFilePath)) {
+            parseFile(logFile, context, sink);
+            writeNanos = sink.getWriteNanos();
+        }
 
-    private static String convertDate(String dateString) {
-        // make date string compatible with BigQuery's Timestamp format
-        // (see https://cloud.google.com/bigquery/docs/reference/standard-sql/data-types#time-zones)
-        // "2016-07-08 19:59:01 +0200" => 2016-07-08T19:59:01+02:00
-        String[] dateParts = dateString.split(" ");
-        if (dateParts.length != 3) {
-            throw new IllegalArgumentException("Wrong date format: " + dateString);
+        long commitStart = System.nanoTime();
+        if (context.getStopHash() != null) {
+            if (context.isStopped()) {
+                appendRows(targetFilePath, outputFilePath);
+            } else {
+                // e.g. after a force-push, the temporary file contains the whole log
+                System.out.println("Checkpoint " + context.getStopHash() + " not found in "
+                        + logFile.getName() + ", parsed the whole log.");
+            }
+        }
+        // the checkpoint is pending until the output file is renamed (see Checkpoint)
+        boolean checkpoint = incremental && context.getFirstCommitHash() != null;
+        if (checkpoint) {
+            Checkpoint.prepare(targetFilePath, context.getFirstCommitHash());
+        }
+        if (consolidatedOutput == null) {
+            OutputFiles.commit(targetFilePath);
+        }
+        if (checkpoint) {
+            Checkpoint.commit(targetFilePath);
+        }
+        if (commitFilesOutput != null) {
+            commitFilesOutput.commit(logFile);
+        }
+        if (indexWriter != null) {
+            indexWriter.commit(targetFilePath.getFileName().toString());
+        }
+        if (churnAggregator != null) {
+            churnAggregator.commit(logFile);
         }
+        if (deduplicator != null) {
+            deduplicator.commit(logFile);
+        }
+        writeNanos += System.nanoTime() - commitStart;
 
-        String date = dateParts[0];
-        String time = dateParts[1];
-        String timeZone = dateParts[2];
-        String result = date + "T" + time;
+        return new FileSummary(logFile, context.getCommitCount(), context.getBytesRead(),
+                context.getReadNanos() / 1_000_000, context.getParseNanos() / 1_000_000, writeNanos / 1_000_000);
+    }
 
-        // ignore invalid time zone information (see, e.g., file rails_rails§3-2-stable_commits.csv,
-        // hash 4cf94979c9f4d6683c9338d694d5eb3106a4e734: "2011-08-29T06:50:23+51:800")
-        if (timeZone.startsWith("+") && timeZone.length() == 5) {
-            result += timeZone.substring(0,3) + ":" + timeZone.substring(3, timeZone.length());
+    private CommitSink openSink(LogFile logFile, Path targetFilePath, Path outputFilePath) throws IOException {
+        CommitSink sink;
+        if (consolidatedOutput != null) {
+            sink = consolidatedOutput.openSink(logFile.getType());
         } else {
-            result += "+00:00";
+            System.out.println("Writing file: " + targetFilePath.getFileName());
+            if (columnar) {
+                sink = new ColumnarCommitSink(outputFilePath, logFile.getType());
+            } else {
+                // the segments of the index are named after the output file
+                CommitIndexWriter.Recorder indexRecorder = indexWriter != null
+                        ? indexWriter.openFile(targetFilePath.getFileName().toString()) : null;
+                if (asyncWriter) {
+                    sink = new AsyncCsvCommitSink(outputFilePath, logFile.getType(), indexRecorder,
+                            logMessageLength > 0);
+                } else {
+                    sink = new CsvCommitSink(outputFilePath, logFile.getType(), indexRecorder, logMessageLength > 0);
+                }
+            }
         }
-
-        return  result;
+        if (commitFilesOutput != null) {
+            try {
+                sink = commitFilesOutput.openSink(logFile, sink);
+            } catch (IOException e) {
+                sink.close();
+                throw e;
+            }
+        }
+        if (churnAggregator != null) {
+            sink = churnAggregator.openSink(logFile, sink);
+        }
+        // receives the skipped commits from the parser, the other sinks only receive the commits that are kept
+        if (deduplicator != null) {
+            try {
+                sink = deduplicator.openSink(logFile, sink);
+            } catch (IOException e) {
+                sink.close();
+                throw e;
+            }
+        }
+        return sink;
     }
 
-    private void writeData(Path outputDirPath) {
-        File outputDir = outputDirPath.toFile();
+    // appends the rows of an existing output file (without its header) to a new one
+    private static void appendRows(Path sourceFilePath, Path targetFilePath) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(sourceFilePath));
+             OutputStream out = Files.newOutputStream(targetFilePath, StandardOpenOption.APPEND)) {
+            // skip the header, which is terminated by the first record separator "\r\n"
+            int previous = -1;
+            int current;
+            while ((current = in.read()) != -1) {
+                if (previous == '\r' && current == '\n') {
+                    break;
+                }
+                previous = current;
+            }
+            byte[] buffer = new byte[1 << 16];
+            int length;
+            while ((length = in.read(buffer)) != -1) {
+                out.write(buffer, 0, length);
+            }
+        }
+    }
 
-        if (!(outputDir.exists() && outputDir.isDirectory())) {
-            throw new IllegalArgumentException("Illegal output directory");
+    private static void printSummary(List<FileSummary> summaries) {
+        System.out.println("Summary:");
+        int commitCount = 0;
+        for (FileSummary summary : summaries) {
+            System.out.println(summary);
+            commitCount += summary.getCommitCount();
         }
+        System.out.println(summaries.size() + " files, " + commitCount + " commits and merges in total.");
+    }
 
-        CSVFormat csvFormat = CSVFormat.DEFAULT
-                .withDelimiter(';')
-                .withQuote('"')
-                .withQuoteMode(QuoteMode.ALL)
-                .withEscape('\\')
-                .withNullString("");
+    // passes every commit that is kept to the sink as soon as the next commit line closes it,
+    // the number of commits passed and the newest commit hash are stored in the context
+    private void parseFile(LogFile logFile, ParseContext context, CommitSink sink) throws IOException {
+        System.out.println("Parsing file: " + logFile.getName());
 
-        switch (type) {
-            case "commits":
-                csvFormat = csvFormat.withHeader(Commit.csvHeaderCommits.class);
-                break;
-            case "merges":
-                csvFormat = csvFormat.withHeader(Commit.csvHeaderMerges.class);
-                break;
+        if (logFile.isRepository()) {
+            // closing the reader before the end of the log (at the checkpoint) stops git
+            try (LogLineReader reader = new GitLogLineReader(logFile.getRepository(), logFile.getBranch(), logFile.getType())) {
+                commitParser.parse(reader, context, sink);
+                return;
+            }
         }
 
-        Path targetFilePath = Paths.get(outputDirPath.toAbsolutePath().toString(),
-                project + "§" + branch + "_" + type + ".csv");
-        File targetFile = targetFilePath.toFile();
+        File file = logFile.getFile();
+        if (logFile.isCompressed()) {
+            // compressed files can neither be split nor memory-mapped
+            try (LogLineReader reader = new BufferedLogLineReader(
+                    new DecompressingInputStream(file), StandardCharsets.UTF_8)) {
+                commitParser.parse(reader, context, sink);
+                return;
+            }
+        }
 
-        System.out.println("Writing file: " + targetFile.getName());
+        // the commits before a checkpoint are usually only a small part of the log, chunks would parse all of it
+        if (chunkSize > 0 && file.length() >= 2 * chunkSize && context.getStopHash() == null) {
+            List<Long> boundaries = LogSplitter.split(file.toPath(), chunkSize);
+            if (boundaries.size() > 2) {
+                parseChunks(logFile, boundaries, context, sink);
+                return;
+            }
+        }
 
-        try (CSVPrinter csvPrinter = new CSVPrinter(new FileWriter(targetFile), csvFormat)) {
-            // header is automatically written
-            // write commit data
-            for (Commit commit : commits) {
-                switch (type) {
-                    case "commits":
-                        csvPrinter.printRecord(Arrays.asList(commit.getValuesCommits()));
-                        break;
-                    case "merges":
-                        csvPrinter.printRecord(Arrays.asList(commit.getValuesMerges()));
-                        break;
+        try (LogLineReader reader = openReader(file, 0, Long.MAX_VALUE)) {
+            commitParser.parse(reader, context, sink);
+        }
+    }
+
+    // parses the chunks of a large log in parallel and passes their commits to the sink in the original order,
+    // at most one chunk per thread is parsed ahead of the sink
+    private void parseChunks(LogFile logFile, List<Long> boundaries, ParseContext context, CommitSink sink)
+            throws IOException {
+        int chunkCount = boundaries.size() - 1;
+        System.out.println("Splitting file " + logFile.getName() + " into " + chunkCount + " chunks");
+
+        Deque<Future<ChunkCommits>> pendingChunks = new ArrayDeque<>();
+        Deque<ParseContext> pendingContexts = new ArrayDeque<>();
+        int submittedChunks = 0;
+        ParseContext firstChunkContext = null;
+        try {
+            for (int writtenChunks = 0; writtenChunks < chunkCount; writtenChunks++) {
+                while (submittedChunks < chunkCount && pendingChunks.size() < threads) {
+                    long start = boundaries.get(submittedChunks);
+                    long end = boundaries.get(submittedChunks + 1);
+                    // the last commit of a chunk is closed by the first line of the next chunk
+                    ParseContext chunkContext = new ParseContext(logFile.getProject(), logFile.getBranch());
+                    chunkContext.setSeenCommits(context.getSeenCommits());
+                    chunkContext.setSaveLastCommit(submittedChunks < chunkCount - 1);
+                    if (firstChunkContext == null) {
+                        firstChunkContext = chunkContext;
+                    }
+                    pendingChunks.add(chunkExecutor.submit(() -> parseChunk(logFile, start, end, chunkContext)));
+                    pendingContexts.add(chunkContext);
+                    submittedChunks++;
+                }
+                ChunkCommits chunkCommits = pendingChunks.remove().get();
+                for (Commit commit : chunkCommits.commits) {
+                    sink.accept(commit);
+                    context.addCommit();
                 }
+                for (String hashValue : chunkCommits.duplicateHashValues) {
+                    sink.acceptDuplicate(hashValue);
+                }
+                ParseContext chunkContext = pendingContexts.remove();
+                context.addRead(chunkContext.getBytesRead(), chunkContext.getReadNanos());
+                context.addParseNanos(chunkContext.getParseNanos());
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while parsing " + logFile.getName());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            for (Future<ChunkCommits> pendingChunk : pendingChunks) {
+                pendingChunk.cancel(true);
+            }
+        }
+        // the first chunk has been parsed completely at this point
+        context.setFirstCommitHash(firstChunkContext.getFirstCommitHash());
+    }
+
+    private ChunkCommits parseChunk(LogFile logFile, long start, long end, ParseContext chunkContext)
+            throws IOException {
+        ChunkCommits chunkCommits = new ChunkCommits();
+        try (LogLineReader reader = openReader(logFile.getFile(), start, end)) {
+            commitParser.parse(reader, chunkContext, chunkCommits);
         }
+        return chunkCommits;
+    }
 
+    // reads the lines in the byte range [start, end) of the file
+    private LogLineReader openReader(File file, long start, long end) throws IOException {
+        if (memoryMapped) {
+            return new MappedLogLineReader(file.toPath(), start, end, MappedLogLineReader.DEFAULT_WINDOW_SIZE);
+        }
+        // decoded as UTF-8 (as by MappedLogLineReader)
+        if (start == 0 && end == Long.MAX_VALUE) {
+            return new BufferedLogLineReader(new FileInputStream(file), StandardCharsets.UTF_8);
+        }
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        channel.position(start);
+        InputStream chunk = new BoundedInputStream(Channels.newInputStream(channel), end - start);
+        return new BufferedLogLineReader(chunk, StandardCharsets.UTF_8);
+    }
+
+    // the commits of a chunk and the hashes of the commits skipped as duplicates, passed to the sink of the log
+    private static class ChunkCommits implements CommitSink {
+        private final List<Commit> commits = new ArrayList<>();
+        private final List<String> duplicateHashValues = new ArrayList<>();
+
+        @Override
+        public void accept(Commit commit) {
+            commits.add(commit);
+        }
+
+        @Override
+        public void acceptDuplicate(String hashValue) {
+            duplicateHashValues.add(hashValue);
+        }
     }
 }
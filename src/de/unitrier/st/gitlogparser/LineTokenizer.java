@@ -0,0 +1,111 @@
+package de.unitrier.st.gitlogparser;
+
+// classifies the lines of a git log and extracts their fields,
+// one instance per parsed file (the fields of the last classified line are kept in the tokenizer)
+abstract class LineTokenizer {
+    enum LineType {
+        COMMIT_HASH,
+        // header
+        MERGE, AUTHOR, AUTHOR_DATE, COMMITTER, COMMIT_DATE, BLANK,
+        // file stats with lines added/deleted, or "- -" in case of binary files
+        FILE_STATS, BINARY_FILE_STATS,
+        OTHER
+    }
+
+    // shape of the first log message line of a merge commit
+    enum MergeType {
+        PULL_REQUEST, // "Merge pull request #4996 from Fivell/issue_4977"
+        REMOTE_TRACKING_BRANCH, // "Merge remote-tracking branch 'origin/master' into feature"
+        TAG, // "Merge tag 'v4.2.0' into master"
+        BRANCH, // "Merge branch 'feature' of github.com:rails/rails into master"
+        COMMIT; // "Merge commit 'b8510da' into master"
+
+        private final String columnValue = name().toLowerCase();
+
+        // value of the column merge_type, e.g. "pull_request"
+        String getColumnValue() {
+            return columnValue;
+        }
+    }
+
+    // fields of the last classified line, only valid for the returned line type
+    String commitHash;
+    String mergedCommits;
+    String name; // author or committer name, null if the name part did not match
+    String email; // author or committer email, null if the email part did not match
+    String date;
+    int linesAdded;
+    int linesDeleted;
+    String path;
+    // fields of the last classified merge, the pull request fields only for pull requests
+    String pullRequestId;
+    String sourceUser; // null if the "from"-part is not present
+    String sourceBranch;
+    String mergeSource; // merged branch, tag, or commit ("user/branch" for pull requests), null if not present
+    String mergeTarget; // null if the "into"-part is not present
+
+    static LineTokenizer create(boolean useRegex) {
+        return useRegex ? new RegexLineTokenizer() : new FastLineTokenizer();
+    }
+
+    // commit hash, header lines, or blank line
+    abstract LineType classifyHeaderLine(CharSequence line);
+
+    // commit hash or file stats
+    abstract LineType classifyBodyLine(CharSequence line);
+
+    // first log message line (without indentation) of a merge commit, null if it has none of the merge shapes
+    abstract MergeType classifyMerge(CharSequence line);
+
+    String getCommitHash() {
+        return commitHash;
+    }
+
+    String getMergedCommits() {
+        return mergedCommits;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getEmail() {
+        return email;
+    }
+
+    String getDate() {
+        return date;
+    }
+
+    int getLinesAdded() {
+        return linesAdded;
+    }
+
+    int getLinesDeleted() {
+        return linesDeleted;
+    }
+
+    String getPath() {
+        return path;
+    }
+
+    String getPullRequestId() {
+        return pullRequestId;
+    }
+
+    String getSourceUser() {
+        return sourceUser;
+    }
+
+    String getSourceBranch() {
+        return sourceBranch;
+    }
+
+    String getMergeSource() {
+        return mergeSource;
+    }
+
+    String getMergeTarget() {
+        return mergeTarget;
+    }
+}
@@ -0,0 +1,119 @@
+package de.unitrier.st.gitlogparser;
+
+import java.io.File;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// project, branch, and type of one input log, either a log file with these properties in its name
+// (e.g. "rails_rails§master_commits.log", optionally compressed as ".log.gz" or ".log.zst")
+// or the output of git log in a local repository
+class LogFile {
+    private static final Pattern fileNamePattern = Pattern.compile("(?i)^(.+_.+)§(.+)_(commits|merges)\\.log$");
+    private static final String[] compressionSuffixes = {".gz", ".zst"};
+
+    private final File file; // null for repositories
+    private final File repository; // null for log files
+    private final String project;
+    private final String branch;
+    private final String type; // "commits" or "merges"
+
+    private LogFile(File file, File repository, String project, String branch, String type) {
+        this.file = file;
+        this.repository = repository;
+        this.project = project;
+        this.branch = branch;
+        this.type = type;
+    }
+
+    // log files and compressed log files
+    static boolean isLogFileName(String fileName) {
+        return fileName.endsWith(".log") || !getCompressionSuffix(fileName).isEmpty();
+    }
+
+    static boolean isCompressedFileName(String fileName) {
+        return !getCompressionSuffix(fileName).isEmpty();
+    }
+
+    // ".gz" or ".zst" for compressed log files, "" otherwise
+    private static String getCompressionSuffix(String fileName) {
+        for (String compressionSuffix : compressionSuffixes) {
+            if (fileName.endsWith(".log" + compressionSuffix)) {
+                return compressionSuffix;
+            }
+        }
+        return "";
+    }
+
+    static LogFile of(File file) {
+        // project, branch, and type are derived from the name without compression suffix
+        String fileName = file.getName();
+        fileName = fileName.substring(0, fileName.length() - getCompressionSuffix(fileName).length());
+
+        String type;
+        if (fileName.endsWith("_commits.log")) {
+            type = "commits";
+        } else if (fileName.endsWith("_merges.log")){
+            type = "merges";
+        } else {
+            throw new IllegalArgumentException("File must either be a commit or merge log file.");
+        }
+
+        // extract project and branch from file name
+        Matcher fileNameMatcher = fileNamePattern.matcher(fileName);
+        if (fileNameMatcher.matches()) {
+            return new LogFile(file, null, fileNameMatcher.group(1), fileNameMatcher.group(2), type);
+        } else {
+            throw new IllegalArgumentException("Illegal file name format.");
+        }
+    }
+
+    static LogFile ofRepository(File repository, String project, String branch, String type) {
+        return new LogFile(null, repository, project, branch, type);
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    File getRepository() {
+        return repository;
+    }
+
+    boolean isRepository() {
+        return repository != null;
+    }
+
+    boolean isCompressed() {
+        return file != null && !getCompressionSuffix(file.getName()).isEmpty();
+    }
+
+    String getName() {
+        if (isRepository()) {
+            return repository.getName() + " (" + branch + ", " + type + ")";
+        }
+        return file.getName();
+    }
+
+    String getProject() {
+        return project;
+    }
+
+    String getBranch() {
+        return branch;
+    }
+
+    String getType() {
+        return type;
+    }
+
+    // e.g. "rails_rails§master_commits.csv" for the extension ".csv"
+    String getOutputFileName(String extension) {
+        // branch names of repositories may contain slashes (e.g. "feature/x")
+        return project + "§" + branch.replace('/', '-') + "_" + type + extension;
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
@@ -0,0 +1,20 @@
+package de.unitrier.st.gitlogparser;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// reads a git log line by line, lines are split at "\n", "\r", or "\r\n" (see BufferedReader.readLine)
+interface LogLineReader extends Closeable {
+    // the returned line is only valid until the next call, null at the end of the log
+    CharSequence readLine() throws IOException;
+
+    // bytes of the log read so far (0 if unknown)
+    default long getBytesRead() {
+        return 0;
+    }
+
+    // time spent reading the log from the file or process so far, in nanoseconds (0 if unknown)
+    default long getReadNanos() {
+        return 0;
+    }
+}
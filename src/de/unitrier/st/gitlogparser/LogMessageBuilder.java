@@ -0,0 +1,84 @@
+package de.unitrier.st.gitlogparser;
+
+// collects the lines of a log message, each followed by a line break, and computes the length of the message
+// without leading and trailing whitespace (as String.trim) while the lines are appended;
+// only the first maxLength characters of the trimmed message are kept (without splitting a surrogate pair),
+// with a maxLength of 0 no characters are copied and only the ends of each line are scanned for whitespace;
+// the characters of memory-mapped lines are counted on their UTF-8 bytes, only the copied bytes are decoded
+class LogMessageBuilder {
+    private final int maxLength;
+    private final StringBuilder prefix = new StringBuilder();
+    private boolean prefixComplete; // the prefix was cut before the end of a line
+    private int length; // characters appended so far, including line breaks
+    private int start = -1; // index of the first character that is not whitespace, -1 if there is none yet
+    private int end; // index after the last character that is not whitespace
+
+    LogMessageBuilder(int maxLength) {
+        this.maxLength = maxLength;
+    }
+
+    // appends the characters of the line from the given index and a line break
+    void appendLine(CharSequence line, int from) {
+        // the indices of memory-mapped lines are byte offsets, whitespace (<= ' ') is ASCII in both cases
+        Utf8Line utf8Line = line instanceof Utf8Line ? (Utf8Line) line : null;
+        int lineLength = utf8Line != null ? utf8Line.charCount(from, line.length()) : line.length() - from;
+
+        int last = line.length() - 1;
+        while (last >= from && line.charAt(last) <= ' ') {
+            last--;
+        }
+        int copyFrom = from;
+        if (last >= from) {
+            if (start < 0) {
+                int first = from;
+                while (line.charAt(first) <= ' ') {
+                    first++;
+                }
+                start = length + first - from;
+                copyFrom = first;
+            }
+            end = length + lineLength - (line.length() - 1 - last);
+        }
+
+        if (start >= 0 && !prefixComplete && prefix.length() < maxLength) {
+            int remaining = maxLength - prefix.length();
+            int copyTo;
+            if (utf8Line != null) {
+                copyTo = utf8Line.charsEnd(copyFrom, remaining);
+                prefix.append(utf8Line.subSequence(copyFrom, copyTo));
+            } else {
+                copyTo = (int) Math.min(line.length(), (long) copyFrom + remaining);
+                if (copyTo < line.length() && copyTo > copyFrom && Character.isHighSurrogate(line.charAt(copyTo - 1))) {
+                    copyTo--;
+                }
+                prefix.append(line, copyFrom, copyTo);
+            }
+            if (copyTo < line.length()) {
+                prefixComplete = true;
+            } else if (prefix.length() < maxLength) {
+                prefix.append('\n');
+            }
+        }
+        length += lineLength + 1;
+    }
+
+    int getTrimmedLength() {
+        return start < 0 ? 0 : end - start;
+    }
+
+    // the first maxLength characters of the trimmed message, null if maxLength is 0
+    String getTrimmedMessage() {
+        if (maxLength == 0) {
+            return null;
+        }
+        return prefix.substring(0, Math.min(prefix.length(), getTrimmedLength()));
+    }
+
+    void reset() {
+        prefix.setLength(0);
+        prefixComplete = false;
+        length = 0;
+        start = -1;
+        end = 0;
+    }
+}
@@ -0,0 +1,53 @@
+package de.unitrier.st.gitlogparser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// splits a large log into chunks of roughly the given size at lines that start a commit,
+// the parser resets its state at these lines, so the chunks can be parsed independently
+class LogSplitter {
+    private static final long SCAN_WINDOW_SIZE = 1L << 20;
+
+    private LogSplitter() {
+    }
+
+    // byte positions of the chunk boundaries, starting with 0 and ending with the file size
+    static List<Long> split(Path path, long chunkSize) throws IOException {
+        long size = Files.size(path);
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+
+        LineTokenizer tokenizer = new FastLineTokenizer();
+        for (long target = chunkSize; target < size; target += chunkSize) {
+            if (target <= boundaries.get(boundaries.size() - 1)) {
+                continue;
+            }
+            long boundary = findCommit(path, target, size, tokenizer);
+            if (boundary < 0) {
+                break; // no further commit
+            }
+            boundaries.add(boundary);
+        }
+
+        boundaries.add(size);
+        return boundaries;
+    }
+
+    // byte position of the first line that starts a commit after the line at position start, before end,
+    // -1 if there is none
+    static long findCommit(Path path, long start, long end, LineTokenizer tokenizer) throws IOException {
+        try (MappedLogLineReader reader = new MappedLogLineReader(path, start, end, SCAN_WINDOW_SIZE)) {
+            reader.readLine(); // skip the (partial) line at the start position
+            CharSequence line;
+            while ((line = reader.readLine()) != null) {
+                if (tokenizer.classifyBodyLine(line) == LineTokenizer.LineType.COMMIT_HASH) {
+                    return reader.getLineStart();
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,122 @@
+package de.unitrier.st.gitlogparser;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// memory-maps the log in windows and scans it for line breaks at the byte level,
+// the returned lines are views on the mapped bytes (see Utf8Line), fields are only decoded when they are extracted
+class MappedLogLineReader implements LogLineReader {
+    static final long DEFAULT_WINDOW_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+    private final long start;
+    private final long end;
+    private final long windowSize;
+    private final Utf8Line line = new Utf8Line();
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int windowLength;
+    private long position;
+    private long lineStart; // position of the last line read
+    private boolean skipLineFeed; // previous line ended with "\r"
+    private long mapNanos; // page faults while scanning the mapped bytes are not included
+
+    MappedLogLineReader(Path path) throws IOException {
+        this(path, 0, Long.MAX_VALUE, DEFAULT_WINDOW_SIZE);
+    }
+
+    // reads the lines in the byte range [start, end) of the file
+    MappedLogLineReader(Path path, long start, long end, long windowSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.end = Math.min(end, channel.size());
+        this.windowSize = Math.min(windowSize, Integer.MAX_VALUE);
+        this.start = start;
+        this.position = start;
+    }
+
+    @Override
+    public CharSequence readLine() throws IOException {
+        if (skipLineFeed) {
+            skipLineFeed = false;
+            if (position < end && byteAt(position) == '\n') {
+                position++;
+            }
+        }
+        if (position >= end) {
+            return null;
+        }
+
+        if (position < windowStart || position >= windowStart + windowLength) {
+            map(position, windowSize);
+        }
+        lineStart = position;
+        int lineOffset = (int) (position - windowStart);
+        int i = lineOffset;
+        while (true) {
+            while (i < windowLength) {
+                byte b = window.get(i);
+                if (b == '\n' || b == '\r') {
+                    line.set(window, lineOffset, i - lineOffset);
+                    position = windowStart + i + 1;
+                    skipLineFeed = b == '\r';
+                    return line;
+                }
+                i++;
+            }
+            if (windowStart + windowLength >= end) {
+                // last line without line break
+                line.set(window, lineOffset, i - lineOffset);
+                position = end;
+                return line;
+            }
+            // the line crosses the end of the window, map a new window starting at the line
+            long scanned = windowStart + i - position;
+            map(position, Math.max(windowSize, 2 * scanned));
+            lineOffset = 0;
+            i = (int) scanned;
+        }
+    }
+
+    // byte position of the line returned by the last call to readLine
+    long getLineStart() {
+        return lineStart;
+    }
+
+    private byte byteAt(long bytePosition) throws IOException {
+        if (bytePosition < windowStart || bytePosition >= windowStart + windowLength) {
+            map(bytePosition, windowSize);
+        }
+        return window.get((int) (bytePosition - windowStart));
+    }
+
+    private void map(long windowStart, long size) throws IOException {
+        long length = Math.min(size, end - windowStart);
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Line too long at byte " + windowStart + ".");
+        }
+        long mapStart = System.nanoTime();
+        window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length);
+        mapNanos += System.nanoTime() - mapStart;
+        this.windowStart = windowStart;
+        windowLength = (int) length;
+    }
+
+    @Override
+    public long getBytesRead() {
+        return position - start;
+    }
+
+    @Override
+    public long getReadNanos() {
+        return mapNanos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
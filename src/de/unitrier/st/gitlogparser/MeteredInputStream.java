@@ -0,0 +1,56 @@
+package de.unitrier.st.gitlogparser;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// counts the bytes read from the stream and the time spent reading them,
+// meant for the block reads of a buffered reader (one clock read per block, not per line);
+// the counters are written by the reading thread and may be read by another one
+class MeteredInputStream extends FilterInputStream implements ReadMeter {
+    private volatile long bytesRead;
+    private volatile long readNanos;
+
+    MeteredInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        long start = System.nanoTime();
+        int b = super.read();
+        readNanos += System.nanoTime() - start;
+        if (b >= 0) {
+            bytesRead++;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        long start = System.nanoTime();
+        int count = super.read(buffer, offset, length);
+        readNanos += System.nanoTime() - start;
+        if (count > 0) {
+            bytesRead += count;
+        }
+        return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        bytesRead += skipped;
+        return skipped;
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    @Override
+    public long getReadNanos() {
+        return readNanos;
+    }
+}
@@ -0,0 +1,38 @@
+package de.unitrier.st.gitlogparser;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// output files are written to a temporary file next to them ("project§branch_type.csv.tmp")
+// and renamed when they are complete, a crashed run never leaves an output file that looks complete
+class OutputFiles {
+    private static final String TEMP_EXTENSION = ".tmp";
+
+    static Path getTempPath(Path targetFilePath) {
+        return targetFilePath.resolveSibling(targetFilePath.getFileName() + TEMP_EXTENSION);
+    }
+
+    // replaces the output file with its complete temporary file,
+    // which is forced to disk first (a renamed file must not lose its content in a crash)
+    static void commit(Path targetFilePath) throws IOException {
+        Path tempFilePath = getTempPath(targetFilePath);
+        try (FileChannel channel = FileChannel.open(tempFilePath, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tempFilePath, targetFilePath,
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // removes the temporary file of an output file that will not be completed
+    static void discard(Path targetFilePath) {
+        try {
+            Files.deleteIfExists(getTempPath(targetFilePath));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package de.unitrier.st.gitlogparser;
+
+// settings and results of parsing one log, or one chunk of a log
+class ParseContext {
+    private final String project;
+    private final String branch;
+    // the last commit of a log is not closed by a commit line and only saved if this is set
+    // (used for chunks of a log, which end where the next chunk starts with a commit line)
+    private boolean saveLastCommit;
+    // parsing stops at the commit with this hash (checkpoint of an incremental run), null to parse the whole log
+    private String stopHash;
+    // commits whose hashes are already in the set are skipped, null to parse all commits (see CommitDeduplicator)
+    private CommitHashSet seenCommits;
+    // parse returns after passing this many commits to the sink and continues with the next call on the same reader,
+    // 0 to parse the whole log in one call (see CommitStream)
+    private int batchSize;
+    // the commit whose header line ended the previous call of parse, null if the log is finished
+    private Commit pendingCommit;
+
+    private int commitCount;
+    private String firstCommitHash;
+    private boolean stopped;
+    private long bytesRead;
+    private long readNanos;
+    private long parseNanos; // without reading and writing
+
+    ParseContext(String project, String branch) {
+        this.project = project;
+        this.branch = branch;
+    }
+
+    String getProject() {
+        return project;
+    }
+
+    String getBranch() {
+        return branch;
+    }
+
+    boolean isSaveLastCommit() {
+        return saveLastCommit;
+    }
+
+    void setSaveLastCommit(boolean saveLastCommit) {
+        this.saveLastCommit = saveLastCommit;
+    }
+
+    String getStopHash() {
+        return stopHash;
+    }
+
+    void setStopHash(String stopHash) {
+        this.stopHash = stopHash;
+    }
+
+    CommitHashSet getSeenCommits() {
+        return seenCommits;
+    }
+
+    void setSeenCommits(CommitHashSet seenCommits) {
+        this.seenCommits = seenCommits;
+    }
+
+    int getBatchSize() {
+        return batchSize;
+    }
+
+    void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    // true if parse returned at the end of a batch and the log is not finished
+    boolean hasPendingCommit() {
+        return pendingCommit != null;
+    }
+
+    Commit takePendingCommit() {
+        Commit commit = pendingCommit;
+        pendingCommit = null;
+        return commit;
+    }
+
+    void setPendingCommit(Commit pendingCommit) {
+        this.pendingCommit = pendingCommit;
+    }
+
+    // number of commits passed to the sink
+    int getCommitCount() {
+        return commitCount;
+    }
+
+    void addCommit() {
+        commitCount++;
+    }
+
+    // hash of the first (newest) commit in the log, whether it was saved or not
+    String getFirstCommitHash() {
+        return firstCommitHash;
+    }
+
+    void setFirstCommitHash(String firstCommitHash) {
+        this.firstCommitHash = firstCommitHash;
+    }
+
+    // true if parsing stopped at the stop hash
+    boolean isStopped() {
+        return stopped;
+    }
+
+    void setStopped(boolean stopped) {
+        this.stopped = stopped;
+    }
+
+    long getBytesRead() {
+        return bytesRead;
+    }
+
+    long getReadNanos() {
+        return readNanos;
+    }
+
+    void addRead(long bytesRead, long readNanos) {
+        this.bytesRead += bytesRead;
+        this.readNanos += readNanos;
+    }
+
+    long getParseNanos() {
+        return parseNanos;
+    }
+
+    void addParseNanos(long parseNanos) {
+        this.parseNanos += parseNanos;
+    }
+}
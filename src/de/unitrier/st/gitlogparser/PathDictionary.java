@@ -0,0 +1,126 @@
+package de.unitrier.st.gitlogparser;
+
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// ids of the paths of the file stats of one project, shared by all logs of the project;
+// the paths are prefix-compressed: every directory and file is stored once, as the id of its parent directory
+// and its name, and new entries are written to "project§paths.csv" as soon as they are added
+// (the path of an id is the path of its parent, "/", and its name), the file is renamed from its temporary file on close
+class PathDictionary implements Closeable {
+    enum csvHeaderPaths {
+        path_id, parent_id, name
+    }
+
+    private static final int NO_PARENT = -1;
+    private static final int EMPTY = -1;
+
+    // indexed by id
+    private int[] parentIds = new int[1024];
+    private String[] names = new String[1024];
+    private int[] hashes = new int[1024];
+    private int size;
+    // open addressing table of the ids by the hash of their parent id and name
+    private int[] table = newTable(2048);
+
+    private final Path dictionaryFilePath;
+    private final CSVPrinter csvPrinter;
+
+    PathDictionary(Path dictionaryFilePath) throws IOException {
+        this.dictionaryFilePath = dictionaryFilePath;
+        // header is automatically written
+        csvPrinter = new CSVPrinter(Files.newBufferedWriter(OutputFiles.getTempPath(dictionaryFilePath), StandardCharsets.UTF_8),
+                CsvCommitSink.getCsvFormat("paths"));
+    }
+
+    // id of the file path, adds the path and the directories that are not in the dictionary yet
+    synchronized int getId(String path) throws IOException {
+        int id = NO_PARENT;
+        int start = 0;
+        while (true) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            id = getId(id, path, start, end);
+            if (end == path.length()) {
+                return id;
+            }
+            start = end + 1;
+        }
+    }
+
+    // id of the entry with the given parent and the name path[start, end), only creates the name if it is new
+    private int getId(int parentId, String path, int start, int end) throws IOException {
+        int hash = parentId;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + path.charAt(i);
+        }
+        hash ^= hash >>> 16;
+
+        int slot = hash & (table.length - 1);
+        int length = end - start;
+        while (table[slot] != EMPTY) {
+            int id = table[slot];
+            if (hashes[id] == hash && parentIds[id] == parentId
+                    && names[id].length() == length && path.regionMatches(start, names[id], 0, length)) {
+                return id;
+            }
+            slot = (slot + 1) & (table.length - 1);
+        }
+        return add(parentId, path.substring(start, end), hash, slot);
+    }
+
+    private int add(int parentId, String name, int hash, int slot) throws IOException {
+        int id = size++;
+        if (id == parentIds.length) {
+            parentIds = Arrays.copyOf(parentIds, id * 2);
+            names = Arrays.copyOf(names, id * 2);
+            hashes = Arrays.copyOf(hashes, id * 2);
+        }
+        parentIds[id] = parentId;
+        names[id] = name;
+        hashes[id] = hash;
+        table[slot] = id;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+
+        csvPrinter.printRecord(id, parentId == NO_PARENT ? null : parentId, name);
+        return id;
+    }
+
+    private void rehash() {
+        table = newTable(table.length * 2);
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & (table.length - 1);
+            while (table[slot] != EMPTY) {
+                slot = (slot + 1) & (table.length - 1);
+            }
+            table[slot] = id;
+        }
+    }
+
+    private static int[] newTable(int capacity) {
+        int[] table = new int[capacity];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+
+    // number of directories and files
+    synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        csvPrinter.close();
+        OutputFiles.commit(dictionaryFilePath);
+    }
+}
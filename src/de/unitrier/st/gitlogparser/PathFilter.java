@@ -0,0 +1,349 @@
+package de.unitrier.st.gitlogparser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+// include and exclude rules for the paths of file stats, compiled once per run:
+// directory prefixes are stored in a trie, extensions in a hash table of their hashes,
+// and globs are attached to the trie node of their literal prefix (a glob is only tried if the path has its prefix);
+// a path is kept if it matches an include rule (or there are no include rules) and no exclude rule
+//
+// rules (one per line in a rules file, "#" starts a comment):
+//   +ext:java            include paths ending with ".java" (same as "-f java")
+//   -dir:vendor/         exclude paths starting with "vendor/"
+//   -glob:**/generated/**  exclude paths matching the glob ("*" and "?" do not match "/", "**" matches anything)
+class PathFilter {
+    enum Kind {
+        EXT, DIR, GLOB
+    }
+
+    private final List<Rule> rules = new ArrayList<>();
+    private boolean hasIncludes;
+
+    // trie of directory prefixes and literal prefixes of globs
+    private Node root;
+    private Pattern[] globPatterns; // indexed by rule
+    // open addressing table of extension hashes, each slot lists the extension rules with that hash
+    private int[] extensionHashes;
+    private int[][] extensionRules;
+
+    private static final int INCLUDED = 1;
+    private static final int EXCLUDED = 2;
+
+    private PathFilter() {
+    }
+
+    // "-f" filter: keeps paths with one of the extensions
+    static PathFilter ofExtensions(String[] fileExtensions) {
+        List<Rule> rules = new ArrayList<>();
+        for (String fileExtension : fileExtensions) {
+            if (fileExtension.isEmpty()) {
+                continue;
+            }
+            rules.add(Rule.parse("+ext:" + fileExtension));
+        }
+        return compile(rules);
+    }
+
+    static List<Rule> readRules(Path rulesFilePath) throws IOException {
+        List<Rule> rules = new ArrayList<>();
+        for (String line : Files.readAllLines(rulesFilePath, StandardCharsets.UTF_8)) {
+            int commentStart = line.indexOf('#');
+            if (commentStart >= 0) {
+                line = line.substring(0, commentStart);
+            }
+            line = line.trim();
+            if (!line.isEmpty()) {
+                rules.add(Rule.parse(line));
+            }
+        }
+        return rules;
+    }
+
+    static PathFilter compile(List<Rule> rules) {
+        PathFilter filter = new PathFilter();
+        filter.rules.addAll(rules);
+        filter.globPatterns = new Pattern[rules.size()];
+
+        BuilderNode rootBuilder = new BuilderNode();
+        List<Integer> extensionRuleIndexes = new ArrayList<>();
+        for (int i = 0; i < rules.size(); i++) {
+            Rule rule = rules.get(i);
+            filter.hasIncludes |= rule.include;
+            switch (rule.kind) {
+                case EXT:
+                    extensionRuleIndexes.add(i);
+                    break;
+                case DIR:
+                    rootBuilder.get(rule.pattern).prefixRules.add(i);
+                    break;
+                case GLOB:
+                    filter.globPatterns[i] = Pattern.compile(globToRegex(rule.pattern));
+                    rootBuilder.get(literalPrefix(rule.pattern)).globRules.add(i);
+                    break;
+            }
+        }
+        filter.root = rootBuilder.build();
+
+        int capacity = Integer.highestOneBit(Math.max(extensionRuleIndexes.size(), 1) * 4);
+        filter.extensionHashes = new int[capacity];
+        filter.extensionRules = new int[capacity][];
+        for (int i : extensionRuleIndexes) {
+            int hash = rules.get(i).pattern.hashCode();
+            int slot = hash & (capacity - 1);
+            while (filter.extensionRules[slot] != null && filter.extensionHashes[slot] != hash) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            filter.extensionHashes[slot] = hash;
+            filter.extensionRules[slot] = filter.extensionRules[slot] == null
+                    ? new int[]{i}
+                    : appendTo(filter.extensionRules[slot], i);
+        }
+        return filter;
+    }
+
+    List<Rule> getRules() {
+        return rules;
+    }
+
+    // local counts of the rules, added to the rules with addCounts
+    long[] newCounts() {
+        return new long[rules.size()];
+    }
+
+    void addCounts(long[] counts) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                rules.get(i).matched.add(counts[i]);
+                counts[i] = 0;
+            }
+        }
+    }
+
+    // true if the path is kept, every matching rule is counted (even if an earlier one decided)
+    boolean accept(String path, long[] counts) {
+        if (rules.isEmpty()) {
+            return true;
+        }
+        int matches = 0; // INCLUDED and EXCLUDED bits
+
+        // directory prefixes and globs, along the path in the trie
+        Node node = root;
+        int position = 0;
+        while (node != null) {
+            for (int rule : node.prefixRules) {
+                matches |= count(rule, counts);
+            }
+            for (int rule : node.globRules) {
+                if (globPatterns[rule].matcher(path).matches()) {
+                    matches |= count(rule, counts);
+                }
+            }
+            node = position < path.length() ? node.getChild(path.charAt(position++)) : null;
+        }
+
+        // extensions: the hash of each suffix of the file name that follows a point,
+        // computed from the end of the path like String.hashCode (no substrings are created)
+        int hash = 0;
+        int power = 1;
+        for (int i = path.length() - 1; i >= 0; i--) {
+            char c = path.charAt(i);
+            if (c == '/') {
+                break;
+            }
+            if (c == '.' && i < path.length() - 1) {
+                int[] candidates = getExtensionRules(hash);
+                if (candidates != null) {
+                    for (int rule : candidates) {
+                        String extension = rules.get(rule).pattern;
+                        if (extension.length() == path.length() - i - 1
+                                && path.regionMatches(i + 1, extension, 0, extension.length())) {
+                            matches |= count(rule, counts);
+                        }
+                    }
+                }
+            }
+            hash += c * power;
+            power *= 31;
+        }
+
+        return ((matches & INCLUDED) != 0 || !hasIncludes) && (matches & EXCLUDED) == 0;
+    }
+
+    private int count(int rule, long[] counts) {
+        counts[rule]++;
+        return rules.get(rule).include ? INCLUDED : EXCLUDED;
+    }
+
+    private int[] getExtensionRules(int hash) {
+        int slot = hash & (extensionHashes.length - 1);
+        while (extensionRules[slot] != null) {
+            if (extensionHashes[slot] == hash) {
+                return extensionRules[slot];
+            }
+            slot = (slot + 1) & (extensionHashes.length - 1);
+        }
+        return null;
+    }
+
+    private static int[] appendTo(int[] values, int value) {
+        int[] result = Arrays.copyOf(values, values.length + 1);
+        result[values.length] = value;
+        return result;
+    }
+
+    // characters before the first wildcard
+    private static String literalPrefix(String glob) {
+        int end = 0;
+        while (end < glob.length() && glob.charAt(end) != '*' && glob.charAt(end) != '?') {
+            end++;
+        }
+        return glob.substring(0, end);
+    }
+
+    private static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        int literalStart = 0;
+        int i = 0;
+        while (i < glob.length()) {
+            char c = glob.charAt(i);
+            if (c != '*' && c != '?') {
+                i++;
+                continue;
+            }
+            if (i > literalStart) {
+                regex.append(Pattern.quote(glob.substring(literalStart, i)));
+            }
+            if (c == '?') {
+                regex.append("[^/]");
+                i++;
+            } else if (glob.startsWith("**/", i)) {
+                regex.append("(?:.*/)?");
+                i += 3;
+            } else if (glob.startsWith("**", i)) {
+                regex.append(".*");
+                i += 2;
+            } else {
+                regex.append("[^/]*");
+                i++;
+            }
+            literalStart = i;
+        }
+        if (literalStart < glob.length()) {
+            regex.append(Pattern.quote(glob.substring(literalStart)));
+        }
+        return regex.toString();
+    }
+
+    static class Rule {
+        private final boolean include;
+        private final Kind kind;
+        private final String pattern;
+        private final LongAdder matched = new LongAdder();
+
+        private Rule(boolean include, Kind kind, String pattern) {
+            this.include = include;
+            this.kind = kind;
+            this.pattern = pattern;
+        }
+
+        // e.g. "+ext:java", "-dir:vendor/", or "-glob:**/generated/**"
+        static Rule parse(String rule) {
+            int separator = rule.indexOf(':');
+            if (rule.length() < 2 || (rule.charAt(0) != '+' && rule.charAt(0) != '-') || separator < 0
+                    || separator == rule.length() - 1) {
+                throw new IllegalArgumentException("Path filter rules must look like +ext:java, -dir:vendor/, "
+                        + "or -glob:**/generated/**, not " + rule + ".");
+            }
+            Kind kind;
+            try {
+                kind = Kind.valueOf(rule.substring(1, separator).toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown kind of path filter rule: " + rule + ".");
+            }
+            String pattern = rule.substring(separator + 1);
+            if (kind == Kind.EXT && pattern.indexOf('/') >= 0) {
+                throw new IllegalArgumentException("File extensions must not contain /: " + rule + ".");
+            }
+            return new Rule(rule.charAt(0) == '+', kind, pattern);
+        }
+
+        boolean isInclude() {
+            return include;
+        }
+
+        Kind getKind() {
+            return kind;
+        }
+
+        String getPattern() {
+            return pattern;
+        }
+
+        // number of file stats whose path matched the rule
+        long getMatched() {
+            return matched.sum();
+        }
+
+        @Override
+        public String toString() {
+            return (include ? "+" : "-") + kind.name().toLowerCase() + ":" + pattern;
+        }
+    }
+
+    private static class Node {
+        private static final int[] NO_RULES = new int[0];
+
+        private char[] labels; // sorted
+        private Node[] children;
+        private int[] prefixRules = NO_RULES; // directory rules that end at this node
+        private int[] globRules = NO_RULES; // globs whose literal prefix ends at this node
+
+        Node getChild(char c) {
+            int index = Arrays.binarySearch(labels, c);
+            return index >= 0 ? children[index] : null;
+        }
+    }
+
+    private static class BuilderNode {
+        private final Map<Character, BuilderNode> children = new TreeMap<>();
+        private final List<Integer> prefixRules = new ArrayList<>();
+        private final List<Integer> globRules = new ArrayList<>();
+
+        BuilderNode get(String prefix) {
+            BuilderNode node = this;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.children.computeIfAbsent(prefix.charAt(i), c -> new BuilderNode());
+            }
+            return node;
+        }
+
+        Node build() {
+            Node node = new Node();
+            node.labels = new char[children.size()];
+            node.children = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, BuilderNode> child : children.entrySet()) {
+                node.labels[i] = child.getKey();
+                node.children[i] = child.getValue().build();
+                i++;
+            }
+            if (!prefixRules.isEmpty()) {
+                node.prefixRules = prefixRules.stream().mapToInt(Integer::intValue).toArray();
+            }
+            if (!globRules.isEmpty()) {
+                node.globRules = globRules.stream().mapToInt(Integer::intValue).toArray();
+            }
+            return node;
+        }
+    }
+}
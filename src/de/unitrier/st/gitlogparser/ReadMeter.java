@@ -0,0 +1,8 @@
+package de.unitrier.st.gitlogparser;
+
+// bytes of the input read so far and the time spent reading them (see LogLineReader)
+interface ReadMeter {
+    long getBytesRead();
+
+    long getReadNanos();
+}
@@ -0,0 +1,162 @@
+package de.unitrier.st.gitlogparser;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// reference implementation based on regular expressions, kept to verify FastLineTokenizer
+class RegexLineTokenizer extends LineTokenizer {
+    private static final Pattern commitHashPattern = Pattern.compile("(?i)^commit\\s+(\\w{40}).*");
+    private static final Pattern authorNamePattern = Pattern.compile("(?i)^Author:\\s+([^<]+).*");
+    private static final Pattern authorEmailPattern = Pattern.compile("(?i)^Author:\\s+[^<]+<([^>]+)>.*");
+    private static final Pattern commitNamePattern = Pattern.compile("(?i)^Commit:\\s+([^<]+).*");
+    private static final Pattern commitEmailPattern = Pattern.compile("(?i)^Commit:\\s+[^<]+<([^>]+)>.*");
+    private static final Pattern mergePattern = Pattern.compile("(?i)^Merge:\\s+([\\w\\s]+).*");
+    private static final Pattern authorDatePattern = Pattern.compile("(?i)^AuthorDate:\\s+([\\w\\s-:+]+).*");
+    private static final Pattern commitDatePattern = Pattern.compile("(?i)^CommitDate:\\s+([\\w\\s-:+]+).*");
+    private static final Pattern fileStatsPattern = Pattern.compile("(?i)^(\\d+|-)\\s+(\\d+|-)\\s+(.+)");
+    private static final Pattern linesAddedDeletedPattern = Pattern.compile("(?i)^(\\d+)\\s+(\\d+)\\s+(.+)"); // ignores binary files (-	- PATH)
+    // merge shapes in the order they are tried
+    private static final Pattern mergedPullRequestPattern = Pattern.compile("(?i)\\s*Merged?\\s+pull\\s+request\\s+#(\\d+)(?:\\s+from ([^\\s]+)/([^\\s]+))?.*");
+    private static final Pattern mergedRemoteTrackingBranchPattern = Pattern.compile("(?i)\\s*Merged? remote-tracking branch '([^\\s]+)'(?:\\s+into\\s+([^\\s]+))?.*");
+    private static final Pattern mergeTagPattern = Pattern.compile("(?i)\\s*Merged?\\s+tag\\s+'(.+)'(?:\\s+into\\s+([^\\s]+))?.*");
+    private static final Pattern mergedBranchPattern = Pattern.compile("(?i)\\s*Merged?(?:\\s+remote)?(?:\\s+branch)?\\s+'([^\\s]+)'(?:\\s+of\\s+([^\\s]+))?(?:\\s+into\\s+([^\\s]+))?.*");
+    private static final Pattern mergedCommitPattern = Pattern.compile("(?i)\\s*Merged?(?:\\s+commit)?\\s+'([^\\s]+)'(?:\\s+into\\s+([^\\s]+))?.*");
+
+    private final Matcher commitHashMatcher = commitHashPattern.matcher("");
+    private final Matcher authorNameMatcher = authorNamePattern.matcher("");
+    private final Matcher authorEmailMatcher = authorEmailPattern.matcher("");
+    private final Matcher commitNameMatcher = commitNamePattern.matcher("");
+    private final Matcher commitEmailMatcher = commitEmailPattern.matcher("");
+    private final Matcher mergeMatcher = mergePattern.matcher("");
+    private final Matcher authorDateMatcher = authorDatePattern.matcher("");
+    private final Matcher commitDateMatcher = commitDatePattern.matcher("");
+    private final Matcher fileStatsMatcher = fileStatsPattern.matcher("");
+    private final Matcher linesAddedDeletedMatcher = linesAddedDeletedPattern.matcher("");
+    private final Matcher mergedPullRequestMatcher = mergedPullRequestPattern.matcher("");
+    private final Matcher mergedRemoteTrackingBranchMatcher = mergedRemoteTrackingBranchPattern.matcher("");
+    private final Matcher mergeTagMatcher = mergeTagPattern.matcher("");
+    private final Matcher mergedBranchMatcher = mergedBranchPattern.matcher("");
+    private final Matcher mergedCommitMatcher = mergedCommitPattern.matcher("");
+
+    // the patterns are matched against the decoded line
+    @Override
+    LineType classifyHeaderLine(CharSequence line) {
+        line = line.toString();
+        if (matchCommitHash(line)) {
+            return LineType.COMMIT_HASH;
+        }
+
+        // merged commits
+        if (mergeMatcher.reset(line).matches()) {
+            mergedCommits = mergeMatcher.group(1);
+            return LineType.MERGE;
+        }
+
+        // author name and email
+        if (matchNameAndEmail(line, authorNameMatcher, authorEmailMatcher)) {
+            return LineType.AUTHOR;
+        }
+
+        // author date
+        if (authorDateMatcher.reset(line).matches()) {
+            date = authorDateMatcher.group(1);
+            return LineType.AUTHOR_DATE;
+        }
+
+        // commit name and email
+        if (matchNameAndEmail(line, commitNameMatcher, commitEmailMatcher)) {
+            return LineType.COMMITTER;
+        }
+
+        // commit date
+        if (commitDateMatcher.reset(line).matches()) {
+            date = commitDateMatcher.group(1);
+            return LineType.COMMIT_DATE;
+        }
+
+        if (((String) line).trim().length() == 0) {
+            return LineType.BLANK;
+        }
+
+        return LineType.OTHER;
+    }
+
+    private boolean matchNameAndEmail(CharSequence line, Matcher nameMatcher, Matcher emailMatcher) {
+        boolean nameMatches = nameMatcher.reset(line).matches();
+        boolean emailMatches = emailMatcher.reset(line).matches();
+        name = nameMatches ? nameMatcher.group(1).trim() : null;
+        email = emailMatches ? emailMatcher.group(1).trim() : null;
+        return nameMatches || emailMatches;
+    }
+
+    @Override
+    LineType classifyBodyLine(CharSequence line) {
+        line = line.toString();
+        if (matchCommitHash(line)) {
+            return LineType.COMMIT_HASH;
+        }
+
+        if (fileStatsMatcher.reset(line).matches()) {
+            // extract lines added/deleted and ignore binary files ("- -")
+            if (linesAddedDeletedMatcher.reset(line).matches()) {
+                linesAdded = Integer.parseInt(linesAddedDeletedMatcher.group(1));
+                linesDeleted = Integer.parseInt(linesAddedDeletedMatcher.group(2));
+                path = linesAddedDeletedMatcher.group(3);
+                return LineType.FILE_STATS;
+            }
+            return LineType.BINARY_FILE_STATS;
+        }
+
+        return LineType.OTHER;
+    }
+
+    private boolean matchCommitHash(CharSequence line) {
+        if (commitHashMatcher.reset(line).matches()) {
+            commitHash = commitHashMatcher.group(1);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    MergeType classifyMerge(CharSequence line) {
+        line = line.toString();
+        if (mergedPullRequestMatcher.reset(line).matches()) {
+            pullRequestId = mergedPullRequestMatcher.group(1);
+            if (mergedPullRequestMatcher.group(2) != null && mergedPullRequestMatcher.group(3) != null) {
+                // "from"-part present
+                sourceUser = mergedPullRequestMatcher.group(2);
+                sourceBranch = mergedPullRequestMatcher.group(3);
+                mergeSource = sourceUser + "/" + sourceBranch;
+            } else {
+                sourceUser = null;
+                sourceBranch = null;
+                mergeSource = null;
+            }
+            mergeTarget = null;
+            return MergeType.PULL_REQUEST;
+        }
+        if (mergedRemoteTrackingBranchMatcher.reset(line).matches()) {
+            mergeSource = mergedRemoteTrackingBranchMatcher.group(1);
+            mergeTarget = mergedRemoteTrackingBranchMatcher.group(2);
+            return MergeType.REMOTE_TRACKING_BRANCH;
+        }
+        if (mergeTagMatcher.reset(line).matches()) {
+            mergeSource = mergeTagMatcher.group(1);
+            mergeTarget = mergeTagMatcher.group(2);
+            return MergeType.TAG;
+        }
+        if (mergedBranchMatcher.reset(line).matches()) {
+            // the repository of the "of"-part is not kept
+            mergeSource = mergedBranchMatcher.group(1);
+            mergeTarget = mergedBranchMatcher.group(3);
+            return MergeType.BRANCH;
+        }
+        if (mergedCommitMatcher.reset(line).matches()) {
+            mergeSource = mergedCommitMatcher.group(1);
+            mergeTarget = mergedCommitMatcher.group(2);
+            return MergeType.COMMIT;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,162 @@
+package de.unitrier.st.gitlogparser;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// log files of a run whose output files are complete or that could not be parsed (quarantined),
+// stored in "gitlogparser-manifest.tsv" in the output directory, one line per log file:
+// status, file name, size, last modified time (in ms), CRC-32 of the content, and the reason of a quarantine;
+// lines are appended and forced to disk as soon as a log file is finished, later lines replace earlier ones;
+// the CRC-32 is only computed in resumed runs (reading each log file again), other runs record NO_CHECKSUM
+class RunManifest implements Closeable {
+    static final String FILE_NAME = "gitlogparser-manifest.tsv";
+
+    private static final String COMPLETE = "complete";
+    private static final String QUARANTINED = "quarantined";
+    private static final long NO_CHECKSUM = -1;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final FileChannel channel;
+    private final boolean resume;
+
+    // the entries of the previous run are only kept if the run is resumed
+    RunManifest(Path outputDirPath, boolean resume) throws IOException {
+        this.resume = resume;
+        Path manifestPath = outputDirPath.resolve(FILE_NAME);
+        if (resume && Files.exists(manifestPath)) {
+            for (String line : Files.readAllLines(manifestPath, StandardCharsets.UTF_8)) {
+                String[] values = line.split("\t", -1);
+                // the last line may be incomplete after a crash
+                if (values.length != 6) {
+                    continue;
+                }
+                try {
+                    entries.put(values[1], new Entry(values[0], Long.parseLong(values[2]),
+                            Long.parseLong(values[3]), Long.parseLong(values[4])));
+                } catch (NumberFormatException e) {
+                    // incomplete line
+                }
+            }
+            channel = FileChannel.open(manifestPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            // terminates an incomplete last line
+            if (channel.size() > 0) {
+                ByteBuffer lastByte = ByteBuffer.allocate(1);
+                try (FileChannel readChannel = FileChannel.open(manifestPath, StandardOpenOption.READ)) {
+                    readChannel.read(lastByte, readChannel.size() - 1);
+                }
+                if (lastByte.get(0) != '\n') {
+                    channel.write(ByteBuffer.wrap(new byte[]{'\n'}));
+                }
+            }
+        } else {
+            channel = FileChannel.open(manifestPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+    }
+
+    // the log files that are neither complete nor quarantined in the previous run,
+    // log files whose size or content changed since then are parsed again
+    List<LogFile> removeFinished(List<LogFile> logFiles) throws IOException {
+        List<LogFile> remaining = new ArrayList<>(logFiles.size());
+        int completeCount = 0;
+        int quarantinedCount = 0;
+        for (LogFile logFile : logFiles) {
+            // repositories have no file to compare, they are always read again
+            Entry entry = logFile.isRepository() ? null : entries.get(logFile.getFile().getName());
+            if (entry == null || !isUnchanged(logFile.getFile(), entry)) {
+                remaining.add(logFile);
+            } else if (entry.status.equals(COMPLETE)) {
+                completeCount++;
+            } else {
+                System.out.println("Skipping quarantined file: " + logFile.getName());
+                quarantinedCount++;
+            }
+        }
+        if (completeCount + quarantinedCount > 0) {
+            System.out.println("Resuming run: skipping " + completeCount + " complete and "
+                    + quarantinedCount + " quarantined files.");
+        }
+        return remaining;
+    }
+
+    // the checksum is only computed if the size is the same but the file was modified (e.g. copied)
+    private static boolean isUnchanged(File file, Entry entry) throws IOException {
+        if (file.length() != entry.size) {
+            return false;
+        }
+        return file.lastModified() == entry.lastModified
+                || entry.checksum != NO_CHECKSUM && checksum(file) == entry.checksum;
+    }
+
+    void complete(LogFile logFile) throws IOException {
+        if (!logFile.isRepository()) {
+            File file = logFile.getFile();
+            append(COMPLETE, file, resume ? checksum(file) : NO_CHECKSUM, "");
+        }
+    }
+
+    // files that are already quarantined in the manifest of the previous run are not recorded again
+    void quarantine(File file, String reason) throws IOException {
+        Entry entry = entries.get(file.getName());
+        if (entry != null && entry.status.equals(QUARANTINED) && isUnchanged(file, entry)) {
+            return;
+        }
+        System.out.println("Quarantined file: " + file.getName() + " (" + reason + ")");
+        append(QUARANTINED, file, NO_CHECKSUM, reason);
+    }
+
+    private synchronized void append(String status, File file, long checksum, String reason) throws IOException {
+        String line = status + "\t" + file.getName() + "\t" + file.length() + "\t" + file.lastModified() + "\t"
+                + checksum + "\t" + reason.replaceAll("[\t\r\n]", " ") + "\n";
+        ByteBuffer bytes = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        channel.force(false);
+    }
+
+    private static long checksum(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[1 << 16];
+        try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer);
+            int length;
+            while ((length = fileChannel.read(bytes)) != -1) {
+                crc.update(buffer, 0, length);
+                bytes.clear();
+            }
+        }
+        return crc.getValue();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private static class Entry {
+        private final String status;
+        private final long size;
+        private final long lastModified;
+        private final long checksum;
+
+        Entry(String status, long size, long lastModified, long checksum) {
+            this.status = status;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.checksum = checksum;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package de.unitrier.st.gitlogparser;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// counters of a run, updated by the parser threads in batches (see CommitParser.flushCounters)
+// and read by the progress report and the summary
+class RunMetrics {
+    enum Counter {
+        BYTES_READ,
+        LINES_CLASSIFIED,
+        COMMITS_KEPT,
+        // commits that only modified binary files (or no files at all), see CommitParser.saveCommit
+        COMMITS_DROPPED_BINARY_ONLY,
+        // commits that did not modify any content (e.g., only file permissions changed)
+        COMMITS_DROPPED_ZERO_LINE_COUNT,
+        // commits whose file stats were all removed by the path filter (see PathFilter)
+        COMMITS_DROPPED_EXTENSION_FILTER,
+        // file stats removed by the path filter
+        FILE_STATS_FILTERED,
+        // commits skipped because another branch of the project already contained them (see CommitDeduplicator)
+        COMMITS_SKIPPED_DUPLICATE,
+        // log files whose output files were committed
+        FILES_WRITTEN,
+        // malformed log files whose output files were discarded (see RunManifest.quarantine)
+        FILES_QUARANTINED,
+        // log files whose parsing stopped the run (e.g. a full disk)
+        FILES_FAILED
+    }
+
+    private final LongAdder[] counters = new LongAdder[Counter.values().length];
+    private final long totalBytes; // size of all input files, 0 if unknown (repositories)
+    private final int totalFiles;
+    private final long startNanos = System.nanoTime();
+    // files that are currently parsed, with the time they were started
+    private final Map<LogFile, Long> activeFiles = new ConcurrentHashMap<>();
+
+    RunMetrics(long totalBytes, int totalFiles) {
+        this.totalBytes = totalBytes;
+        this.totalFiles = totalFiles;
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+    }
+
+    void add(Counter counter, long value) {
+        counters[counter.ordinal()].add(value);
+    }
+
+    long get(Counter counter) {
+        return counters[counter.ordinal()].sum();
+    }
+
+    void startFile(LogFile logFile) {
+        activeFiles.put(logFile, System.nanoTime());
+    }
+
+    // outcome is FILES_WRITTEN, FILES_QUARANTINED, or FILES_FAILED
+    void finishFile(LogFile logFile, Counter outcome) {
+        activeFiles.remove(logFile);
+        add(outcome, 1);
+    }
+
+    // e.g. "Progress: 1024 of 4096 MB (25.0%), 85.3 MB/s, 1203344 commits, 3 of 12 files (1 quarantined), ETA 00:00:36,
+    //       active: rails_rails§master_commits.log (00:00:12)"
+    String getProgress() {
+        long nanos = System.nanoTime() - startNanos;
+        long bytesRead = get(Counter.BYTES_READ);
+        double megabytesPerSecond = nanos > 0 ? (bytesRead / 1e6) / (nanos / 1e9) : 0;
+
+        StringBuilder progress = new StringBuilder("Progress: ");
+        progress.append(bytesRead / (1024 * 1024));
+        if (totalBytes > 0) {
+            progress.append(" of ").append(totalBytes / (1024 * 1024)).append(" MB (")
+                    .append(String.format("%.1f", 100.0 * bytesRead / totalBytes)).append("%)");
+        } else {
+            progress.append(" MB");
+        }
+        progress.append(", ").append(String.format("%.1f", megabytesPerSecond)).append(" MB/s, ")
+                .append(get(Counter.COMMITS_KEPT)).append(" commits, ")
+                .append(get(Counter.FILES_WRITTEN)).append(" of ").append(totalFiles).append(" files");
+        long quarantined = get(Counter.FILES_QUARANTINED);
+        if (quarantined > 0) {
+            progress.append(" (").append(quarantined).append(" quarantined)");
+        }
+        if (totalBytes > 0 && bytesRead > 0) {
+            long remainingNanos = (long) (nanos * ((double) (totalBytes - bytesRead) / bytesRead));
+            progress.append(", ETA ").append(formatDuration(Math.max(remainingNanos, 0)));
+        }
+
+        List<String> active = new ArrayList<>();
+        long now = System.nanoTime();
+        for (Map.Entry<LogFile, Long> activeFile : activeFiles.entrySet()) {
+            active.add(activeFile.getKey().getName() + " (" + formatDuration(now - activeFile.getValue()) + ")");
+        }
+        if (!active.isEmpty()) {
+            progress.append(", active: ").append(String.join(", ", active));
+        }
+        return progress.toString();
+    }
+
+    private static String formatDuration(long nanos) {
+        Duration duration = Duration.ofNanos(nanos);
+        return String.format("%02d:%02d:%02d", duration.toHours(), duration.toMinutes() % 60, duration.getSeconds() % 60);
+    }
+
+    // writes the counters, the number of file stats matched by each path filter rule,
+    // and the summaries of all files as JSON
+    void writeSummary(Path summaryFilePath, List<FileSummary> summaries, List<PathFilter.Rule> pathFilterRules)
+            throws IOException {
+        long nanos = System.nanoTime() - startNanos;
+        try (Writer writer = Files.newBufferedWriter(summaryFilePath, StandardCharsets.UTF_8)) {
+            writer.write("{\n");
+            writer.write("  \"elapsed_ms\": " + nanos / 1_000_000 + ",\n");
+            writer.write("  \"total_bytes\": " + totalBytes + ",\n");
+            writer.write("  \"megabytes_per_second\": "
+                    + String.format("%.3f", nanos > 0 ? (get(Counter.BYTES_READ) / 1e6) / (nanos / 1e9) : 0.0) + ",\n");
+            writer.write("  \"counters\": {\n");
+            Counter[] values = Counter.values();
+            for (int i = 0; i < values.length; i++) {
+                writer.write("    " + quote(values[i].name().toLowerCase()) + ": " + get(values[i])
+                        + (i < values.length - 1 ? ",\n" : "\n"));
+            }
+            writer.write("  },\n");
+            writer.write("  \"path_filter_rules\": [\n");
+            for (int i = 0; i < pathFilterRules.size(); i++) {
+                PathFilter.Rule rule = pathFilterRules.get(i);
+                writer.write("    {\"rule\": " + quote(rule.toString()) + ", \"matched\": " + rule.getMatched() + "}"
+                        + (i < pathFilterRules.size() - 1 ? ",\n" : "\n"));
+            }
+            writer.write("  ],\n");
+            writer.write("  \"files\": [\n");
+            for (int i = 0; i < summaries.size(); i++) {
+                FileSummary summary = summaries.get(i);
+                writer.write("    {"
+                        + "\"name\": " + quote(summary.getLogFile().getName()) + ", "
+                        + "\"project\": " + quote(summary.getLogFile().getProject()) + ", "
+                        + "\"branch\": " + quote(summary.getLogFile().getBranch()) + ", "
+                        + "\"type\": " + quote(summary.getLogFile().getType()) + ", "
+                        + "\"commits\": " + summary.getCommitCount() + ", "
+                        + "\"bytes_read\": " + summary.getBytesRead() + ", "
+                        + "\"read_ms\": " + summary.getReadMillis() + ", "
+                        + "\"parse_ms\": " + summary.getParseMillis() + ", "
+                        + "\"write_ms\": " + summary.getWriteMillis()
+                        + "}" + (i < summaries.size() - 1 ? ",\n" : "\n"));
+            }
+            writer.write("  ]\n");
+            writer.write("}\n");
+        }
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,58 @@
+package de.unitrier.st.gitlogparser;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// bounded pool of canonical strings for the repeated fields of commits (names and emails),
+// shared by all files of a run; the pool is split into segments with a lock and an LRU order of their own,
+// so that parser threads rarely wait for each other and rare values (e.g. one-time contributors) are evicted
+class StringPool {
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    // capacity is the total number of strings kept, 0 disables pooling
+    StringPool(int capacity) {
+        int segmentCapacity = (capacity + SEGMENTS - 1) / SEGMENTS;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    // returns the pooled string equal to value, or value itself after adding it to the pool
+    String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        int hash = value.hashCode();
+        Segment segment = segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+        if (segment.capacity == 0) {
+            return value;
+        }
+        synchronized (segment) {
+            String pooled = segment.get(value);
+            if (pooled == null) {
+                segment.put(value, value);
+                return value;
+            }
+            return pooled;
+        }
+    }
+
+    private static class Segment extends LinkedHashMap<String, String> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Segment(int capacity) {
+            // access order: the least recently used string is evicted first
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > capacity;
+        }
+    }
+}
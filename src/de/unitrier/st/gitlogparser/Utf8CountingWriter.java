@@ -0,0 +1,55 @@
+package de.unitrier.st.gitlogparser;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+// counts the UTF-8 bytes of the characters written to a UTF-8 writer (e.g. the offset of the next CSV row),
+// the text is decoded from the logs and contains no unpaired surrogates
+class Utf8CountingWriter extends FilterWriter {
+    private long byteCount;
+
+    Utf8CountingWriter(Writer out) {
+        super(out);
+    }
+
+    long getByteCount() {
+        return byteCount;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        // a surrogate pair is counted as 2 + 2 bytes
+        byteCount += c < 0x80 ? 1 : c < 0x800 || Character.isSurrogate((char) c) ? 2 : 3;
+        out.write(c);
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) throws IOException {
+        byteCount += length(CharBuffer.wrap(chars), offset, offset + length);
+        out.write(chars, offset, length);
+    }
+
+    @Override
+    public void write(String string, int offset, int length) throws IOException {
+        byteCount += length(string, offset, offset + length);
+        out.write(string, offset, length);
+    }
+
+    // UTF-8 length of the characters [start, end)
+    static long length(CharSequence chars, int start, int end) {
+        long length = 0;
+        for (int i = start; i < end; i++) {
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800 || Character.isSurrogate(c)) {
+                length += 2;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
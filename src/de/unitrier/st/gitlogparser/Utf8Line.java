@@ -0,0 +1,101 @@
+package de.unitrier.st.gitlogparser;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// line of a memory-mapped log as a view on its UTF-8 bytes:
+// indices are byte offsets and charAt returns single bytes, which is sufficient to find the ASCII delimiters
+// of git log lines (UTF-8 multi-byte sequences never contain ASCII bytes),
+// subSequence and toString decode the bytes of the requested range
+final class Utf8Line implements CharSequence {
+    private ByteBuffer buffer;
+    private int offset;
+    private int length;
+    private byte[] bytes = new byte[256];
+
+    void set(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (buffer.get(offset + index) & 0xFF);
+    }
+
+    @Override
+    public String subSequence(int start, int end) {
+        int byteCount = end - start;
+        if (bytes.length < byteCount) {
+            bytes = new byte[Math.max(byteCount, 2 * bytes.length)];
+        }
+        // cast for Java 8, where position(int) is only declared in Buffer
+        ((Buffer) buffer).position(offset + start);
+        buffer.get(bytes, 0, byteCount);
+        return new String(bytes, 0, byteCount, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length);
+    }
+
+    // number of chars of the decoded range: one for each byte that does not continue a UTF-8 sequence,
+    // two for the lead bytes of four-byte sequences (decoded as surrogate pairs)
+    int charCount(int start, int end) {
+        int chars = 0;
+        for (int i = offset + start, last = offset + end; i < last; i++) {
+            int b = buffer.get(i) & 0xFF;
+            if ((b & 0xC0) != 0x80) {
+                chars += b >= 0xF0 ? 2 : 1;
+            }
+        }
+        return chars;
+    }
+
+    // index after the bytes of at most maxChars chars from the given index,
+    // neither a UTF-8 sequence nor a surrogate pair is split
+    int charsEnd(int start, int maxChars) {
+        int chars = 0;
+        int i = start;
+        while (i < length) {
+            int b = buffer.get(offset + i) & 0xFF;
+            chars += b >= 0xF0 ? 2 : 1;
+            if (chars > maxChars) {
+                break;
+            }
+            i++;
+            while (i < length && (buffer.get(offset + i) & 0xC0) == 0x80) {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    // true if the decoded line contains U+0085, U+2028, or U+2029 after the given index
+    // (the line terminators matched by neither "." in regular expressions nor BufferedReader.readLine),
+    // lead bytes 0xC2 and 0xE2 always start a new UTF-8 sequence, so a byte scan is exact
+    boolean hasLineTerminator(int start) {
+        for (int i = offset + start, end = offset + length; i < end - 1; i++) {
+            byte b = buffer.get(i);
+            if (b == (byte) 0xC2) {
+                if (buffer.get(i + 1) == (byte) 0x85) {
+                    return true;
+                }
+            } else if (b == (byte) 0xE2 && i < end - 2 && buffer.get(i + 1) == (byte) 0x80) {
+                byte last = buffer.get(i + 2);
+                if (last == (byte) 0xA8 || last == (byte) 0xA9) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,31 @@
+package de.unitrier.st.gitlogparser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AsyncCsvCommitSinkTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    // the writer thread fails on the first batch (the commits are null), the parser must not wait for it
+    @Test
+    public void reportsFailuresOfWriter() throws IOException {
+        AsyncCsvCommitSink sink = new AsyncCsvCommitSink(
+                temporaryFolder.getRoot().toPath().resolve("p_a§master_commits.csv"), "commits");
+        try {
+            for (int i = 0; i < 4 * AsyncCsvCommitSink.BATCH_SIZE; i++) {
+                sink.accept(null);
+            }
+            sink.close();
+            fail("The failure of the writer was not reported.");
+        } catch (IOException e) {
+            assertTrue(e.getCause() instanceof NullPointerException);
+        }
+    }
+}
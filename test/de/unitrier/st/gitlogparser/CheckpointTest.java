@@ -0,0 +1,91 @@
+package de.unitrier.st.gitlogparser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static de.unitrier.st.gitlogparser.TestLogs.commit;
+import static de.unitrier.st.gitlogparser.TestLogs.hash;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class CheckpointTest {
+    private static final String FILE_NAME = "p_a§master_commits.csv";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    // the new commits are parsed until the checkpoint and the rows of the previous run are appended
+    // (the file stats of the older commits change, so that their rows show which run wrote them)
+    @Test
+    public void appendsRowsOfPreviousRun() throws IOException {
+        File inputDir = temporaryFolder.newFolder("input");
+        File outputDir = temporaryFolder.newFolder("output");
+        writeLog(inputDir, "1\t0\tA.java", '3', '2', '1');
+        TestLogs.parse(inputDir, outputDir, "-n");
+        String previousRows = TestLogs.read(outputDir, FILE_NAME);
+        assertEquals(hash('3'), Checkpoint.read(outputDir.toPath().resolve(FILE_NAME)));
+
+        writeLog(inputDir, "2\t0\tA.java", '5', '4', '3', '2', '1');
+        TestLogs.parse(inputDir, outputDir, "-n");
+        Path targetFilePath = outputDir.toPath().resolve(FILE_NAME);
+        assertEquals(hash('5'), Checkpoint.read(targetFilePath));
+        assertFalse(OutputFiles.getTempPath(targetFilePath).toFile().exists());
+        assertFalse(OutputFiles.getTempPath(Checkpoint.getPath(targetFilePath)).toFile().exists());
+
+        // header and the rows of 5 and 4, then the rows of 3 and 2
+        String[] newRows = parseWholeLog(inputDir).split("\r\n", 4);
+        assertEquals(newRows[0] + "\r\n" + newRows[1] + "\r\n" + newRows[2] + "\r\n"
+                        + previousRows.substring(previousRows.indexOf("\r\n") + 2),
+                TestLogs.read(outputDir, FILE_NAME));
+    }
+
+    // e.g. after a force-push, the whole log is parsed again
+    @Test
+    public void parsesWholeLogWithoutCheckpointCommit() throws IOException {
+        File inputDir = temporaryFolder.newFolder("input");
+        File outputDir = temporaryFolder.newFolder("output");
+        writeLog(inputDir, "1\t0\tA.java", '3', '2', '1');
+        TestLogs.parse(inputDir, outputDir, "-n");
+
+        writeLog(inputDir, "1\t0\tA.java", '7', '6', '1', '0');
+        TestLogs.parse(inputDir, outputDir, "-n");
+        assertEquals(hash('7'), Checkpoint.read(outputDir.toPath().resolve(FILE_NAME)));
+        assertEquals(parseWholeLog(inputDir), TestLogs.read(outputDir, FILE_NAME));
+    }
+
+    // a pending checkpoint is kept if its CSV file was renamed and removed otherwise
+    @Test
+    public void recoversPendingCheckpoint() throws IOException {
+        Path targetFilePath = temporaryFolder.getRoot().toPath().resolve(FILE_NAME);
+        Checkpoint.prepare(targetFilePath, hash('1'));
+        Checkpoint.commit(targetFilePath);
+
+        Checkpoint.prepare(targetFilePath, hash('2'));
+        assertEquals(hash('2'), Checkpoint.read(targetFilePath));
+
+        Checkpoint.prepare(targetFilePath, hash('3'));
+        OutputFiles.getTempPath(targetFilePath).toFile().createNewFile();
+        assertEquals(hash('2'), Checkpoint.read(targetFilePath));
+        assertFalse(OutputFiles.getTempPath(Checkpoint.getPath(targetFilePath)).toFile().exists());
+    }
+
+    // commits with the given hashes, file stats of the older commits (up to 3)
+    private static void writeLog(File inputDir, String fileStat, char... digits) throws IOException {
+        String[] commits = new String[digits.length];
+        for (int i = 0; i < digits.length; i++) {
+            commits[i] = commit(hash(digits[i]), "Change " + digits[i], digits[i] <= '3' ? fileStat : "1\t0\tA.java");
+        }
+        TestLogs.write(inputDir, "p_a§master_commits.log", commits);
+    }
+
+    private String parseWholeLog(File inputDir) throws IOException {
+        File outputDir = temporaryFolder.newFolder();
+        TestLogs.parse(inputDir, outputDir);
+        return TestLogs.read(outputDir, FILE_NAME);
+    }
+}
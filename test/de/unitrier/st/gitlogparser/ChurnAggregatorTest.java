@@ -0,0 +1,129 @@
+package de.unitrier.st.gitlogparser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static de.unitrier.st.gitlogparser.TestLogs.commit;
+import static de.unitrier.st.gitlogparser.TestLogs.hash;
+import static de.unitrier.st.gitlogparser.TestLogs.merge;
+import static org.junit.Assert.assertEquals;
+
+public class ChurnAggregatorTest {
+    private static final String[] LOG_NAMES = {"p_a§master_commits", "p_a§master_merges", "p_b§dev_commits"};
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    // the rollups are the sums of the rows of the CSV files (and of the commit_files tables for the extensions)
+    @Test
+    public void addsUpRowsOfCsvFiles() throws IOException {
+        File inputDir = temporaryFolder.newFolder("input");
+        TestLogs.write(inputDir, "p_a§master_commits.log",
+                commit(hash('5'), "Fifth", "3\t1\tsrc/A.java", "2\t2\tsrc/B.java", "7\t0\tweb/app.js"),
+                commit(hash('4'), "Fourth", "1\t0\tMakefile", "-\t-\tlogo.png")
+                        .replace("ann@example.com", "bob@example.com"),
+                commit(hash('3'), "Third", "10\t4\tREADME.md")
+                        .replace("2018-02-20", "2018-03-01"),
+                commit(hash('2'), "Second", "0\t9\tsrc/A.java", "1\t1\tREADME.md")
+                        .replace("2018-02-20", "2017-12-31"),
+                commit(hash('1'), "First", "1\t0\tsrc/A.java"));
+        TestLogs.write(inputDir, "p_a§master_merges.log",
+                merge(hash('8'), "2222222 3333333", "Merge branch 'dev'", "4\t4\tsrc/A.java", "1\t0\tweb/app.js"),
+                merge(hash('7'), "1111111 2222222", "Merge branch 'fix'")
+                        .replace("ann@example.com", "bob@example.com"),
+                merge(hash('6'), "0000000 1111111", "Merge branch 'old'", "1\t0\tA.java"));
+        TestLogs.write(inputDir, "p_b§dev_commits.log",
+                commit(hash('c'), "Change", "5\t5\tlib/x.py", "6\t0\tlib/y.py")
+                        .replace("ann@example.com", "bob@example.com"),
+                commit(hash('b'), "Change", "2\t3\tsrc/A.java")
+                        .replace("2018-02-20", "2018-03-15"),
+                commit(hash('a'), "Change", "1\t0\tsrc/A.java"));
+
+        File outputDir = temporaryFolder.newFolder("output");
+        TestLogs.parse(inputDir, outputDir, "-a", "-d", "-t", "2");
+
+        Map<String, List<Long>> authors = new TreeMap<>();
+        Map<String, List<Long>> months = new TreeMap<>();
+        Map<String, List<Long>> extensions = new TreeMap<>();
+        Map<String, List<Long>> branches = new TreeMap<>();
+        for (String logName : LOG_NAMES) {
+            String type = logName.substring(logName.lastIndexOf('_') + 1);
+            String project = logName.substring(0, logName.indexOf('§'));
+            for (Map<String, String> row : readCsv(outputDir, logName + ".csv")) {
+                long added = Long.parseLong(row.get("lines_added"));
+                long deleted = Long.parseLong(row.get("lines_deleted"));
+                add(authors, row.get("author_email") + ";" + type, 1, added, deleted);
+                add(months, row.get("author_date").substring(0, 7) + ";" + type, 1, added, deleted);
+                add(branches, row.get("project") + ";" + row.get("branch") + ";" + type, 1, added, deleted);
+                for (String extension : row.get("file_extensions").trim().split(" ")) {
+                    if (!extension.isEmpty()) {
+                        add(extensions, extension + ";" + type, 1, 0, 0);
+                    }
+                }
+            }
+            Map<String, String> names = new HashMap<>();
+            for (Map<String, String> path : readCsv(outputDir, project + "§paths.csv")) {
+                names.put(path.get("path_id"), path.get("name"));
+            }
+            for (Map<String, String> file : readCsv(outputDir, logName + "_files.csv")) {
+                String name = names.get(file.get("path_id"));
+                String extension = name.contains(".") ? name.substring(name.lastIndexOf('.') + 1) : "none";
+                add(extensions, extension + ";" + type, 0,
+                        Long.parseLong(file.get("lines_added")), Long.parseLong(file.get("lines_deleted")));
+            }
+        }
+
+        assertEquals(authors, readRollups(outputDir, "churn_authors.csv", 1));
+        assertEquals(months, readRollups(outputDir, "churn_months.csv", 1));
+        assertEquals(extensions, readRollups(outputDir, "churn_extensions.csv", 1));
+        assertEquals(branches, readRollups(outputDir, "churn_branches.csv", 2));
+        assertEquals(Arrays.asList(4L, 24L, 17L), branches.get("p_a;master;commits"));
+    }
+
+    private static void add(Map<String, List<Long>> rollups, String key, long commits, long added, long deleted) {
+        List<Long> sums = rollups.computeIfAbsent(key, k -> new ArrayList<>(Arrays.asList(0L, 0L, 0L)));
+        sums.set(0, sums.get(0) + commits);
+        sums.set(1, sums.get(1) + added);
+        sums.set(2, sums.get(2) + deleted);
+    }
+
+    // the key columns, the type, and the sums
+    private static Map<String, List<Long>> readRollups(File dir, String fileName, int keyColumnCount)
+            throws IOException {
+        Map<String, List<Long>> rollups = new TreeMap<>();
+        List<String> lines = Arrays.asList(TestLogs.read(dir, fileName).split("\r\n"));
+        for (String line : lines.subList(1, lines.size())) {
+            String[] values = line.replace("\"", "").split(";", -1);
+            String key = String.join(";", Arrays.copyOf(values, keyColumnCount + 1));
+            add(rollups, key, Long.parseLong(values[keyColumnCount + 1]),
+                    Long.parseLong(values[keyColumnCount + 2]), Long.parseLong(values[keyColumnCount + 3]));
+        }
+        return rollups;
+    }
+
+    // the values of the rows contain neither quotes, nor delimiters, nor line breaks
+    private static List<Map<String, String>> readCsv(File dir, String fileName) throws IOException {
+        String[] lines = TestLogs.read(dir, fileName).split("\r\n");
+        String[] header = lines[0].replace("\"", "").split(";", -1);
+        List<Map<String, String>> rows = new ArrayList<>();
+        for (int i = 1; i < lines.length; i++) {
+            String[] values = lines[i].replace("\"", "").split(";", -1);
+            Map<String, String> row = new HashMap<>();
+            for (int column = 0; column < header.length; column++) {
+                row.put(header[column], values[column]);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
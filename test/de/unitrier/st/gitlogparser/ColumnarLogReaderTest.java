@@ -0,0 +1,89 @@
+package de.unitrier.st.gitlogparser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.unitrier.st.gitlogparser.TestLogs.commit;
+import static de.unitrier.st.gitlogparser.TestLogs.hash;
+import static de.unitrier.st.gitlogparser.TestLogs.merge;
+import static org.junit.Assert.assertEquals;
+
+public class ColumnarLogReaderTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    // the values read from the columnar files are the values of the CSV files
+    @Test
+    public void readsValuesOfCsvFiles() throws IOException {
+        File inputDir = temporaryFolder.newFolder("input");
+        TestLogs.write(inputDir, "p_a§master_commits.log",
+                commit(hash('4'), "Änderung für 日本語", "3\t1\tsrc/café/Straße.java", "-\t-\tlogo.png")
+                        .replace("Ann Author", "José Müller"),
+                commit(hash('3'), "Third", "1\t0\tREADME"),
+                commit(hash('2'), "Second", "1\t2\tA.java", "5\t0\tb.js")
+                        .replace("2018-02-20 18:34:32 -0500", "2018-02-20 18:34:32 +0000"),
+                commit(hash('1'), "First", "1\t0\tA.java"));
+        TestLogs.write(inputDir, "p_a§master_merges.log",
+                merge(hash('7'), "2222222 3333333", "Merge pull request #12 from zoë/fix-ü", "1\t0\tA.java"),
+                merge(hash('6'), "1111111 2222222", "Merge branch 'dev' into master", "2\t0\tA.java"),
+                merge(hash('5'), "0000000 1111111", "Merge branch 'dev'", "1\t0\tA.java"));
+
+        File csvDir = temporaryFolder.newFolder("csv");
+        TestLogs.parse(inputDir, csvDir);
+        File columnarDir = temporaryFolder.newFolder("columnar");
+        TestLogs.parse(inputDir, columnarDir, "-F", "columnar");
+
+        for (String name : new String[]{"p_a§master_commits", "p_a§master_merges"}) {
+            List<List<String>> csvRows = readCsv(csvDir, name + ".csv");
+            try (ColumnarLogReader reader = new ColumnarLogReader(
+                    columnarDir.toPath().resolve(name + ColumnarFormat.FILE_EXTENSION))) {
+                assertEquals(name.endsWith("merges") ? "merges" : "commits", reader.getType());
+                List<String> header = new ArrayList<>();
+                for (ColumnarFormat.Column column : reader.getColumns()) {
+                    header.add(column.getName());
+                }
+                assertEquals(csvRows.get(0), header);
+                assertEquals(csvRows.size() - 1, reader.getRowCount());
+                assertEquals(csvRows.subList(1, csvRows.size()), readRows(reader));
+            }
+        }
+    }
+
+    // rows of the columnar file, missing values as empty strings (as in the CSV files)
+    private static List<List<String>> readRows(ColumnarLogReader reader) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        for (int chunk = 0; chunk < reader.getChunkCount(); chunk++) {
+            List<String[]> columns = new ArrayList<>();
+            for (ColumnarFormat.Column column : reader.getColumns()) {
+                columns.add(reader.readStrings(chunk, column));
+            }
+            for (int row = 0; row < reader.getRowCount(chunk); row++) {
+                List<String> values = new ArrayList<>();
+                for (String[] column : columns) {
+                    values.add(column[row] == null ? "" : column[row]);
+                }
+                rows.add(values);
+            }
+        }
+        return rows;
+    }
+
+    // the values of the rows contain neither quotes, nor delimiters, nor line breaks
+    private static List<List<String>> readCsv(File dir, String fileName) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        for (String line : TestLogs.read(dir, fileName).split("\r\n")) {
+            List<String> values = new ArrayList<>();
+            for (String value : line.split(";", -1)) {
+                values.add(value.replace("\"", ""));
+            }
+            rows.add(values);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,66 @@
+package de.unitrier.st.gitlogparser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static de.unitrier.st.gitlogparser.TestLogs.commit;
+import static de.unitrier.st.gitlogparser.TestLogs.hash;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CommitDeduplicatorTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    // the last commit of a log is never written, its hash must not hide the commit in other branches
+    @Test
+    public void keepsCommitsDroppedByOtherBranches() throws IOException {
+        File inputDir = temporaryFolder.newFolder("input");
+        TestLogs.write(inputDir, "o_p§a_commits.log",
+                commit(hash('3'), "Third", "1\t0\tA.java"),
+                commit(hash('2'), "Second", "1\t0\tA.java"),
+                commit(hash('1'), "First", "1\t0\tA.java"));
+        TestLogs.write(inputDir, "o_p§b_commits.log",
+                commit(hash('5'), "Fifth", "1\t0\tB.java"),
+                commit(hash('1'), "First", "1\t0\tA.java"),
+                commit(hash('0'), "Initial", "1\t0\tA.java"));
+
+        File outputDir = temporaryFolder.newFolder("output");
+        TestLogs.parse(inputDir, outputDir, "-D", "-t", "2");
+
+        String branchA = TestLogs.read(outputDir, "o_p§a_commits.csv");
+        String branchB = TestLogs.read(outputDir, "o_p§b_commits.csv");
+        assertTrue(branchA.contains(hash('3')));
+        assertTrue(branchA.contains(hash('2')));
+        assertFalse(branchA.contains(hash('1')));
+        assertTrue(branchB.contains(hash('5')));
+        assertTrue(branchB.contains(hash('1')));
+        assertFalse(TestLogs.read(outputDir, "o_p§b_commits_branches.csv").contains(hash('1')));
+    }
+
+    @Test
+    public void writesBranchesOfSkippedCommits() throws IOException {
+        File inputDir = temporaryFolder.newFolder("input");
+        TestLogs.write(inputDir, "o_p§a_commits.log",
+                commit(hash('3'), "Third", "1\t0\tA.java"),
+                commit(hash('2'), "Second", "1\t0\tA.java"),
+                commit(hash('1'), "First", "1\t0\tA.java"));
+        TestLogs.write(inputDir, "o_p§b_commits.log",
+                commit(hash('4'), "Fourth", "1\t0\tB.java"),
+                commit(hash('2'), "Second", "1\t0\tA.java"),
+                commit(hash('1'), "First", "1\t0\tA.java"));
+
+        File outputDir = temporaryFolder.newFolder("output");
+        TestLogs.parse(inputDir, outputDir, "-D");
+
+        String branchB = TestLogs.read(outputDir, "o_p§b_commits.csv");
+        assertTrue(branchB.contains(hash('4')));
+        assertFalse(branchB.contains(hash('2')));
+        assertTrue(TestLogs.read(outputDir, "o_p§b_commits_branches.csv")
+                .contains("\"o_p\";\"b\";\"" + hash('2') + "\""));
+    }
+}
@@ -0,0 +1,91 @@
+package de.unitrier.st.gitlogparser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.unitrier.st.gitlogparser.TestLogs.commit;
+import static de.unitrier.st.gitlogparser.TestLogs.hash;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CommitIndexReaderTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void findsRowsByHashAndAuthorEmail() throws IOException {
+        File inputDir = temporaryFolder.newFolder("input");
+        TestLogs.write(inputDir, "p_a§master_commits.log",
+                commit(hash('3'), "Third", "1\t0\tA.java").replace("ann@example.com", "Bob@Example.com"),
+                commit(hash('2'), "Second", "1\t0\tA.java"),
+                commit(hash('1'), "First", "1\t0\tA.java"));
+        TestLogs.write(inputDir, "p_a§dev_commits.log",
+                commit(hash('4'), "Fourth", "1\t0\tB.java"),
+                commit(hash('2'), "Second", "1\t0\tA.java"),
+                commit(hash('1'), "First", "1\t0\tA.java"));
+        File outputDir = temporaryFolder.newFolder("output");
+        TestLogs.parse(inputDir, outputDir, "-I");
+
+        try (CommitIndexReader reader = new CommitIndexReader(outputDir.toPath())) {
+            assertEquals(4, assertRowsFound(reader, outputDir, "p_a§master_commits.csv", "p_a§dev_commits.csv"));
+            assertEquals(2, reader.findByHash(hash('2')).size());
+            assertEquals(0, reader.findByHash(hash('1')).size());
+
+            List<CommitIndexReader.Location> locations = reader.findByAuthorEmail("bob@EXAMPLE.com");
+            assertEquals(1, locations.size());
+            assertEquals("p_a§master_commits.csv", locations.get(0).getFileName());
+            assertTrue(reader.readRow(locations.get(0)).startsWith("\"p_a\";\"master\";\"" + hash('3') + "\";"));
+            assertEquals(3, reader.findByAuthorEmail(" Ann@example.com").size());
+        }
+    }
+
+    // more output files than segments merged at once
+    @Test
+    public void mergesSegmentsInSeveralPasses() throws IOException {
+        File inputDir = temporaryFolder.newFolder("input");
+        String[] fileNames = new String[CommitIndexWriter.MERGE_FAN_IN + 2];
+        for (int i = 0; i < fileNames.length; i++) {
+            TestLogs.write(inputDir, "p_" + i + "§master_commits.log",
+                    commit(String.format("%040x", 2 * i + 1), "Change " + i, "1\t0\tA.java"),
+                    commit(String.format("%040x", 2 * i), "Initial", "1\t0\tA.java"));
+            fileNames[i] = "p_" + i + "§master_commits.csv";
+        }
+        File outputDir = temporaryFolder.newFolder("output");
+        TestLogs.parse(inputDir, outputDir, "-I", "-t", "2");
+
+        try (CommitIndexReader reader = new CommitIndexReader(outputDir.toPath())) {
+            assertEquals(fileNames.length, assertRowsFound(reader, outputDir, fileNames));
+            assertEquals(fileNames.length, reader.findByAuthorEmail("ann@example.com").size());
+        }
+        assertEquals(0, new File(outputDir, CommitIndexWriter.DIRECTORY_NAME).list(
+                (dir, name) -> name.endsWith(".tmp")).length);
+    }
+
+    // every row of the CSV files is found by its hash and read back exactly, returns the number of rows
+    private static int assertRowsFound(CommitIndexReader reader, File outputDir, String... fileNames)
+            throws IOException {
+        int rowCount = 0;
+        for (String fileName : fileNames) {
+            String[] rows = TestLogs.read(outputDir, fileName).split("\r\n");
+            for (int i = 1; i < rows.length; i++) {
+                String hash = rows[i].split(";")[2].replace("\"", "");
+                List<String> foundRows = new ArrayList<>();
+                for (CommitIndexReader.Location location : reader.findByHash(hash)) {
+                    if (location.getFileName().equals(fileName)) {
+                        foundRows.add(reader.readRow(location));
+                    }
+                }
+                assertEquals(1, foundRows.size());
+                assertEquals(rows[i], foundRows.get(0));
+                rowCount++;
+            }
+        }
+        return rowCount;
+    }
+}
@@ -0,0 +1,101 @@
+package de.unitrier.st.gitlogparser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static de.unitrier.st.gitlogparser.TestLogs.commit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class CommitStreamTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    // a log of several MB is split into byte ranges, the parallel stream has the commits of the sequential one
+    @Test
+    public void parallelStreamHasCommitsOfSequentialStream() throws IOException {
+        File inputDir = temporaryFolder.newFolder("input");
+        Path logFilePath = writeLog(inputDir, 12000);
+        assertTrue(Files.size(logFilePath) > 4 << 20);
+
+        List<String> commits = readCommits(CommitStream.open(logFilePath));
+        assertEquals(12000 - 1, commits.size());
+        assertEquals(commits, readCommits(CommitStream.open(logFilePath).parallel()));
+        try (Stream<Commit> stream = CommitStream.open(logFilePath)) {
+            assertNotNull(stream.spliterator().trySplit());
+        }
+
+        // the same commits as in the CSV file
+        File outputDir = temporaryFolder.newFolder("output");
+        TestLogs.parse(inputDir, outputDir);
+        List<String> rows = new ArrayList<>();
+        for (String row : TestLogs.read(outputDir, "p_a§master_commits.csv").split("\r\n")) {
+            rows.add(row);
+        }
+        assertEquals(rows.subList(1, rows.size()), commits);
+    }
+
+    // compressed logs and streams are read from the beginning, their parallel streams split into batches
+    @Test
+    public void parallelStreamOfCompressedLogHasCommitsOfSequentialStream() throws IOException {
+        Path logFilePath = writeLog(temporaryFolder.newFolder("input"), 3000);
+        List<String> commits = readCommits(CommitStream.open(logFilePath));
+
+        Path compressedFilePath = logFilePath.resolveSibling("p_a§master_commits.log.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressedFilePath))) {
+            Files.copy(logFilePath, out);
+        }
+        assertEquals(commits, readCommits(CommitStream.open(compressedFilePath).parallel()));
+        try (InputStream in = Files.newInputStream(logFilePath)) {
+            assertEquals(commits, readCommits(CommitStream.open(in, "p_a", "master").parallel()));
+        }
+        try (Stream<Commit> stream = CommitStream.open(compressedFilePath)) {
+            Spliterator<Commit> spliterator = stream.spliterator();
+            assertEquals(256, spliterator.trySplit().getExactSizeIfKnown());
+        }
+    }
+
+    // commits with 1 to 20 file stats and log messages of up to 20 lines
+    private static Path writeLog(File inputDir, int commitCount) throws IOException {
+        Random random = new Random(42);
+        String[] commits = new String[commitCount];
+        for (int n = 0; n < commitCount; n++) {
+            String[] fileStats = new String[1 + random.nextInt(20)];
+            for (int i = 0; i < fileStats.length; i++) {
+                fileStats[i] = random.nextInt(100) + "\t" + random.nextInt(100) + "\tsrc/dir" + random.nextInt(10)
+                        + "/File" + i + (random.nextBoolean() ? ".java" : ".js");
+            }
+            StringBuilder message = new StringBuilder("Change " + n);
+            for (int i = random.nextInt(20); i > 0; i--) {
+                message.append("\n    line ").append(i);
+            }
+            String hash = String.format("%040x", n + 1);
+            commits[commitCount - 1 - n] = commit(hash, message.toString(), fileStats);
+        }
+        return TestLogs.write(inputDir, "p_a§master_commits.log", commits);
+    }
+
+    // the rows of the commits as in the CSV files, in the order of the stream
+    private static List<String> readCommits(Stream<Commit> stream) {
+        try (Stream<Commit> commits = stream) {
+            return commits.map(commit -> "\"" + String.join("\";\"", commit.getValuesCommits()) + "\"")
+                    .collect(Collectors.toList());
+        }
+    }
+}
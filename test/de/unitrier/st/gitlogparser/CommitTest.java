@@ -0,0 +1,39 @@
+package de.unitrier.st.gitlogparser;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+public class CommitTest {
+    // the column file_extensions lists the extensions of the files in the order of a HashSet of all of them
+    @Test
+    public void listsFileExtensionsInOrderOfHashSet() {
+        FileExtensionDictionary extensionDictionary = new FileExtensionDictionary();
+        Random random = new Random(42);
+        for (int n = 0; n < 1000; n++) {
+            Commit commit = new Commit("p_a", "master", TestLogs.hash('1'), extensionDictionary);
+            Set<String> expected = new HashSet<>();
+            int fileCount = random.nextInt(40);
+            int extensionCount = 1 + random.nextInt(30);
+            for (int i = 0; i < fileCount; i++) {
+                int extension = random.nextInt(extensionCount);
+                if (extension == 0) {
+                    commit.addFile(1, 0, "src/Makefile");
+                    expected.add("none");
+                } else {
+                    commit.addFile(1, 0, "src/File" + i + ".x" + extension);
+                    expected.add("x" + extension);
+                }
+            }
+            StringBuilder expectedColumn = new StringBuilder();
+            for (String fileExtension : expected) {
+                expectedColumn.append(' ').append(fileExtension);
+            }
+            assertEquals(expectedColumn.toString(), commit.getFileExtensions());
+        }
+    }
+}
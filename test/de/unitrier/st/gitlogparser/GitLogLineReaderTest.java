@@ -0,0 +1,109 @@
+package de.unitrier.st.gitlogparser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GitLogLineReaderTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void writesCommitsAndMergesOfRepository() throws IOException, InterruptedException {
+        File repository = temporaryFolder.newFolder("repo");
+        git(repository, "init", "-q", "-b", "master");
+        String first = commit(repository, "A.java", "First");
+        git(repository, "checkout", "-q", "-b", "feature");
+        String feature = commit(repository, "B.java", "Feature");
+        git(repository, "checkout", "-q", "master");
+        String second = commit(repository, "A.java", "Second");
+        String merge = merge(repository, "feature");
+        git(repository, "checkout", "-q", "-b", "fix");
+        String fix = commit(repository, "C.java", "Fix");
+        git(repository, "checkout", "-q", "master");
+        String third = commit(repository, "A.java", "Third");
+        String lastMerge = merge(repository, "fix");
+        git(repository, "checkout", "-q", "feature");
+
+        File outputDir = temporaryFolder.newFolder("output");
+        GitLogParser.main(new String[]{"-g", repository.getAbsolutePath(), "-b", "master",
+                "-o", outputDir.getAbsolutePath(), "-P", "0"});
+
+        // the last (oldest) commit of each log is never written
+        String commits = TestLogs.read(outputDir, "repo§master_commits.csv");
+        for (String hash : Arrays.asList(feature, second, fix, third)) {
+            assertTrue(commits.contains("\"" + hash + "\""));
+        }
+        assertFalse(commits.contains(first));
+        assertFalse(commits.contains(merge));
+        assertFalse(commits.contains(lastMerge));
+        assertTrue(commits.contains("\"Ann Author\";\"ann@example.com\""));
+        assertTrue(commits.contains("\"" + fix + "\";\"Ann Author\";\"ann@example.com\";"));
+        assertTrue(commits.contains(";\"3\";\"1\";\"1\";\"0\";\" java\"\r\n"));
+
+        String merges = TestLogs.read(outputDir, "repo§master_merges.csv");
+        assertTrue(merges.contains("\"" + lastMerge + "\""));
+        // merged commits as abbreviated hashes, file stats relative to the first parent
+        String mergedCommits = third.substring(0, 7) + " " + fix.substring(0, 7);
+        assertTrue(merges.contains("\"" + lastMerge + "\";\"" + mergedCommits + "\";"));
+        assertTrue(merges.contains(";\"1\";\"1\";\"0\";\" java\";"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsBranchOption() throws IOException, InterruptedException {
+        File repository = temporaryFolder.newFolder("repo");
+        git(repository, "init", "-q", "-b", "master");
+        commit(repository, "A.java", "First");
+        GitLogParser.main(new String[]{"-g", repository.getAbsolutePath(), "--branch=--output=x",
+                "-o", temporaryFolder.newFolder("output").getAbsolutePath(), "-P", "0"});
+    }
+
+    private static String commit(File repository, String fileName, String message)
+            throws IOException, InterruptedException {
+        File file = new File(repository, fileName);
+        Files.write(file.toPath(), (message + "\n").getBytes(StandardCharsets.UTF_8));
+        git(repository, "add", fileName);
+        git(repository, "commit", "-q", "-m", message);
+        return git(repository, "rev-parse", "HEAD");
+    }
+
+    private static String merge(File repository, String branch) throws IOException, InterruptedException {
+        git(repository, "merge", "-q", "--no-ff", "-m", "Merge " + branch, branch);
+        return git(repository, "rev-parse", "HEAD");
+    }
+
+    // runs git without the configuration of the user and returns the first line of its output
+    private static String git(File repository, String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(Arrays.asList("git", "-C", repository.getAbsolutePath(),
+                "-c", "user.name=Ann Author", "-c", "user.email=ann@example.com", "-c", "commit.gpgSign=false"));
+        command.addAll(Arrays.asList(args));
+        ProcessBuilder processBuilder = new ProcessBuilder(command).redirectErrorStream(true);
+        processBuilder.environment().put("GIT_CONFIG_GLOBAL", "/dev/null");
+        processBuilder.environment().put("GIT_CONFIG_NOSYSTEM", "1");
+        Process process = processBuilder.start();
+        String line;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            line = reader.readLine();
+            while (reader.readLine() != null) {
+                // drain the output
+            }
+        }
+        assertEquals(command + ": " + line, 0, process.waitFor());
+        return line;
+    }
+}
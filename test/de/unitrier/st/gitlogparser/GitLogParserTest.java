@@ -0,0 +1,141 @@
+package de.unitrier.st.gitlogparser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// the options that change how logs are read, parsed, or written must not change the CSV files
+public class GitLogParserTest {
+    // large enough to be split into chunks with a chunk size of 1 MB
+    private static final int COMMIT_COUNT = 6000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void writesSameCsvFilesWithAnyNumberOfThreads() throws IOException {
+        File inputDir = writeLogs();
+        Map<String, byte[]> expected = parse(inputDir);
+        assertEquals(2, expected.size());
+        assertSameFiles("-t 1", expected, parse(inputDir, "-t", "1"));
+        assertSameFiles("-t 4", expected, parse(inputDir, "-t", "4"));
+    }
+
+    @Test
+    public void writesSameCsvFilesWithRegexParser() throws IOException {
+        File inputDir = writeLogs();
+        assertSameFiles("-r", parse(inputDir), parse(inputDir, "-r"));
+    }
+
+    @Test
+    public void writesSameCsvFilesWithMemoryMappedLogs() throws IOException {
+        File inputDir = writeLogs();
+        assertSameFiles("-m", parse(inputDir), parse(inputDir, "-m"));
+    }
+
+    @Test
+    public void writesSameCsvFilesWithChunks() throws IOException {
+        File inputDir = writeLogs();
+        Map<String, byte[]> expected = parse(inputDir);
+        assertSameFiles("-c 1", expected, parse(inputDir, "-c", "1"));
+        assertSameFiles("-m -c 1", expected, parse(inputDir, "-m", "-c", "1"));
+    }
+
+    @Test
+    public void writesSameCsvFilesWithAsyncWriter() throws IOException {
+        File inputDir = writeLogs();
+        assertSameFiles("-w", parse(inputDir), parse(inputDir, "-w"));
+    }
+
+    // a prefix of 22 chars ends before the emoji, which must not be split
+    @Test
+    public void writesSameLogMessagesWithAllReaders() throws IOException {
+        File inputDir = writeLogs();
+        Map<String, byte[]> expected = parse(inputDir, "-M", "22");
+        String commits = new String(expected.get("p_u§master_commits.csv"), StandardCharsets.UTF_8);
+        assertTrue(commits.contains("\"Corrige l'encodage des\""));
+        assertTrue(commits.contains("\"Änderung für 日本語 und \""));
+        assertSameFiles("-M 22 -r", expected, parse(inputDir, "-M", "22", "-r"));
+        assertSameFiles("-M 22 -m", expected, parse(inputDir, "-M", "22", "-m"));
+        assertSameFiles("-M 22 -w", expected, parse(inputDir, "-M", "22", "-w"));
+        assertSameFiles("-M 22 -m -c 1", expected, parse(inputDir, "-M", "22", "-m", "-c", "1"));
+        assertSameFiles("-M 1000 -m", parse(inputDir, "-M", "1000"), parse(inputDir, "-M", "1000", "-m"));
+    }
+
+    private static void assertSameFiles(String variant, Map<String, byte[]> expected, Map<String, byte[]> actual) {
+        assertEquals(variant, expected.keySet(), actual.keySet());
+        for (Map.Entry<String, byte[]> file : expected.entrySet()) {
+            assertArrayEquals(variant + ": " + file.getKey(), file.getValue(), actual.get(file.getKey()));
+        }
+    }
+
+    // the CSV files written with the options, by file name
+    private Map<String, byte[]> parse(File inputDir, String... options) throws IOException {
+        File outputDir = temporaryFolder.newFolder("output" + temporaryFolder.getRoot().list().length);
+        TestLogs.parse(inputDir, outputDir, options);
+
+        Map<String, byte[]> files = new TreeMap<>();
+        for (File file : outputDir.listFiles()) {
+            if (file.getName().endsWith(".csv")) {
+                files.put(file.getName(), Files.readAllBytes(file.toPath()));
+            }
+        }
+        return files;
+    }
+
+    // a log of commits and a log of merges with non-ASCII names, paths, and messages and CRLF line endings
+    private File writeLogs() throws IOException {
+        File inputDir = temporaryFolder.newFolder("input");
+        StringBuilder commits = new StringBuilder();
+        StringBuilder merges = new StringBuilder();
+        for (int i = 0; i < COMMIT_COUNT; i++) {
+            appendCommit(commits, i, null);
+            if (i % 10 == 0) {
+                appendCommit(merges, i, String.format("%07x %07x", i, i + 1));
+            }
+        }
+        TestLogs.write(inputDir, "p_u§master_commits.log", commits.toString().replace("\n", "\r\n"));
+        TestLogs.write(inputDir, "p_u§master_merges.log", merges.toString().replace("\n", "\r\n"));
+        return inputDir;
+    }
+
+    private static void appendCommit(StringBuilder log, int i, String mergedCommits) {
+        log.append("commit ").append(String.format("%040x", i + 1)).append('\n');
+        if (mergedCommits != null) {
+            log.append("Merge: ").append(mergedCommits).append('\n');
+        }
+        log.append("Author:     José Müller <jose").append(i % 7).append("@example.com>\n")
+                .append("AuthorDate: 2018-02-20 18:34:").append(String.format("%02d", i % 60)).append(" -0500\n")
+                .append("Commit:     Zoë Øster <zoe@example.com>\n")
+                .append("CommitDate: 2019-03-24 10:53:57 +0200\n")
+                .append('\n');
+        if (mergedCommits != null) {
+            log.append("    Merge pull request #").append(i).append(" from zoë/fix-").append(i).append('\n');
+        } else if (i % 3 == 0) {
+            log.append("    Corrige l'encodage des caractères spéciaux\n");
+        } else {
+            log.append("    ").append(i % 2 == 0 ? "  " : "").append("Änderung für 日本語 und 😀 emoji ")
+                    .append(i).append(" \n");
+        }
+        log.append("    \n")
+                .append("    Détails: ").append("ünïcödé ".substring(0, i % 8)).append('\n')
+                .append('\n')
+                .append(i % 11).append('\t').append(i % 5).append("\tsrc/café/Straße").append(i % 13).append(".java\n")
+                .append("-\t-\timages/logo-").append(i % 3).append(".png\n");
+        if (i % 4 == 0) {
+            log.append("3\t0\tdocs/résumé.md\n");
+        }
+        log.append('\n');
+    }
+}
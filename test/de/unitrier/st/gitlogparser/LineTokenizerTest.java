@@ -0,0 +1,110 @@
+package de.unitrier.st.gitlogparser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static de.unitrier.st.gitlogparser.TestLogs.hash;
+import static de.unitrier.st.gitlogparser.TestLogs.merge;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LineTokenizerTest {
+    // first message line, merge type, merge source, merge target (null if the line has none of the merge shapes)
+    private static final String[][] MERGES = {
+            {"Merge pull request #12 from zoë/fix-ü", "pull_request", "zoë/fix-ü", null},
+            {"merged  PULL request #7", "pull_request", null, null},
+            {"Merge remote-tracking branch 'origin/master' into feature", "remote_tracking_branch", "origin/master", "feature"},
+            {"Merge tag 'v1.0 final' into master", "tag", "v1.0 final", "master"},
+            {"Merge branch 'feature' of github.com:rails/rails into master", "branch", "feature", "master"},
+            {"Merge remote branch 'origin/dev'", "branch", "origin/dev", null},
+            {"Merge 'feature'", "branch", "feature", null},
+            {"Merge commit 'b8510da' into dev", "commit", "b8510da", "dev"},
+            {"Merge remote-tracking branch 'a b'", null, null, null},
+            {"Merged in feature (pull request #3)", null, null, null},
+            {"Update README", null, null, null}
+    };
+    private static final String[] FRAGMENTS = {
+            "Merge", "merged", "d", " ", "  ", "\t", "pull", "request", "#", "12", "from", "user/branch", "/",
+            "remote", "-tracking", "remote-tracking", "branch", "tag", "commit", "'", "x", "ü", "of", "into", "master"
+    };
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void classifiesMerges() {
+        for (boolean useRegex : new boolean[]{false, true}) {
+            LineTokenizer tokenizer = LineTokenizer.create(useRegex);
+            for (String[] merge : MERGES) {
+                LineTokenizer.MergeType mergeType = tokenizer.classifyMerge(merge[0]);
+                assertEquals(merge[0], merge[1], mergeType == null ? null : mergeType.getColumnValue());
+                if (mergeType != null) {
+                    assertEquals(merge[0], merge[2], tokenizer.getMergeSource());
+                    assertEquals(merge[0], merge[3], tokenizer.getMergeTarget());
+                }
+            }
+        }
+    }
+
+    // the default tokenizer yields the fields of the regular expressions of -r
+    @Test
+    public void classifiesMergesLikeRegexTokenizer() {
+        LineTokenizer fastTokenizer = LineTokenizer.create(false);
+        LineTokenizer regexTokenizer = LineTokenizer.create(true);
+        Random random = new Random(42);
+        for (int n = 0; n < 200000; n++) {
+            StringBuilder line = new StringBuilder();
+            int fragmentCount = 1 + random.nextInt(10);
+            for (int i = 0; i < fragmentCount; i++) {
+                line.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            String message = line.toString();
+            LineTokenizer.MergeType mergeType = regexTokenizer.classifyMerge(message);
+            assertEquals(message, mergeType, fastTokenizer.classifyMerge(message));
+            if (mergeType != null) {
+                assertEquals(message, regexTokenizer.getMergeSource(), fastTokenizer.getMergeSource());
+                assertEquals(message, regexTokenizer.getMergeTarget(), fastTokenizer.getMergeTarget());
+                assertEquals(message, regexTokenizer.getPullRequestId(), fastTokenizer.getPullRequestId());
+                assertEquals(message, regexTokenizer.getSourceUser(), fastTokenizer.getSourceUser());
+                assertEquals(message, regexTokenizer.getSourceBranch(), fastTokenizer.getSourceBranch());
+            }
+        }
+    }
+
+    // only the first message line of merges is classified
+    @Test
+    public void writesSameMergeColumnsWithRegexTokenizer() throws IOException {
+        File inputDir = temporaryFolder.newFolder("input");
+        String[] merges = new String[MERGES.length + 2];
+        for (int i = 0; i < MERGES.length; i++) {
+            merges[i] = merge(hash((char) ('a' + i)), "1111111 2222222", MERGES[i][0], "1\t0\tA.java");
+        }
+        merges[MERGES.length] = merge(hash('2'), "1111111 2222222",
+                "Fix\n\n    Merge pull request #5 from user/branch", "1\t0\tA.java");
+        merges[MERGES.length + 1] = merge(hash('1'), "0000000 1111111", "Merge branch 'oldest'", "1\t0\tA.java");
+        TestLogs.write(inputDir, "p_a§master_merges.log", merges);
+
+        File outputDir = temporaryFolder.newFolder("output");
+        TestLogs.parse(inputDir, outputDir);
+        File regexOutputDir = temporaryFolder.newFolder("regex");
+        TestLogs.parse(inputDir, regexOutputDir, "-r");
+        String rows = TestLogs.read(outputDir, "p_a§master_merges.csv");
+        assertEquals(TestLogs.read(regexOutputDir, "p_a§master_merges.csv"), rows);
+
+        String[] lines = rows.split("\r\n");
+        assertEquals(MERGES.length + 2, lines.length);
+        for (int i = 0; i < MERGES.length; i++) {
+            String expected = "";
+            for (int column = 1; column < 4; column++) {
+                expected += ";\"" + (MERGES[i][column] == null ? "" : MERGES[i][column]) + "\"";
+            }
+            assertTrue(MERGES[i][0], lines[i + 1].endsWith(expected));
+        }
+        assertTrue(lines[MERGES.length + 1].endsWith(";\"\";\"\";\"\";\"\";\"\";\"\""));
+    }
+}
@@ -0,0 +1,71 @@
+package de.unitrier.st.gitlogparser;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class LogMessageBuilderTest {
+    private static final String[] MESSAGE = {
+            "    Corrige l'encodage des caractères spéciaux",
+            "    ",
+            "    Änderung für 日本語 und 😀 emoji  ",
+            ""
+    };
+
+    @Test
+    public void trimsAsString() {
+        for (int maxLength : new int[]{1, 30, 1000}) {
+            LogMessageBuilder builder = appendLines(new LogMessageBuilder(maxLength), false);
+            String expected = getMessage().trim();
+            assertEquals(expected.length(), builder.getTrimmedLength());
+            assertEquals(expected.substring(0, Math.min(maxLength, expected.length())), builder.getTrimmedMessage());
+        }
+    }
+
+    // the lines of memory-mapped logs (see MappedLogLineReader) are measured and cut in chars, not in bytes
+    @Test
+    public void measuresMappedLinesInChars() {
+        for (int maxLength : new int[]{0, 1, 30, 31, 65, 66, 67, 1000}) {
+            LogMessageBuilder expected = appendLines(new LogMessageBuilder(maxLength), false);
+            LogMessageBuilder actual = appendLines(new LogMessageBuilder(maxLength), true);
+            assertEquals(42 + 2 + 29, actual.getTrimmedLength());
+            assertEquals(expected.getTrimmedLength(), actual.getTrimmedLength());
+            assertEquals(expected.getTrimmedMessage(), actual.getTrimmedMessage());
+        }
+    }
+
+    // the emoji is the surrogate pair at indices 65 and 66 of the trimmed message
+    @Test
+    public void keepsSurrogatePairs() {
+        for (boolean mapped : new boolean[]{false, true}) {
+            assertEquals(65, appendLines(new LogMessageBuilder(66), mapped).getTrimmedMessage().length());
+            assertEquals("und \uD83D\uDE00", appendLines(new LogMessageBuilder(67), mapped).getTrimmedMessage()
+                    .substring(61));
+        }
+    }
+
+    private static LogMessageBuilder appendLines(LogMessageBuilder builder, boolean mapped) {
+        for (String line : MESSAGE) {
+            if (mapped) {
+                Utf8Line utf8Line = new Utf8Line();
+                byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+                utf8Line.set(ByteBuffer.wrap(bytes), 0, bytes.length);
+                builder.appendLine(utf8Line, Math.min(4, bytes.length));
+            } else {
+                builder.appendLine(line, Math.min(4, line.length()));
+            }
+        }
+        return builder;
+    }
+
+    private static String getMessage() {
+        StringBuilder message = new StringBuilder();
+        for (String line : MESSAGE) {
+            message.append(line.substring(Math.min(4, line.length()))).append('\n');
+        }
+        return message.toString();
+    }
+}
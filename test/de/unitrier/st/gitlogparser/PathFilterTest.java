@@ -0,0 +1,103 @@
+package de.unitrier.st.gitlogparser;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PathFilterTest {
+    @Test
+    public void matchesExtensions() {
+        PathFilter filter = PathFilter.ofExtensions(new String[]{"js", "min.js", ""});
+        long[] counts = filter.newCounts();
+        assertTrue(filter.accept("x.min.js", counts));
+        assertArrayEquals(new long[]{1, 1}, counts);
+        assertTrue(filter.accept("lib/app.js", counts));
+        assertArrayEquals(new long[]{2, 1}, counts);
+        assertFalse(filter.accept("x.min.jsx", counts));
+        assertFalse(filter.accept("Makefile", counts));
+        assertFalse(filter.accept("src.js/Makefile", counts));
+        assertFalse(filter.accept("x.", counts));
+        assertArrayEquals(new long[]{2, 1}, counts);
+    }
+
+    @Test
+    public void matchesDirectoryPrefixes() {
+        PathFilter filter = filter("-dir:vendor/", "-dir:src/gen");
+        long[] counts = filter.newCounts();
+        assertFalse(filter.accept("vendor/lib/a.c", counts));
+        assertTrue(filter.accept("vendors/a.c", counts));
+        assertTrue(filter.accept("src/vendor/a.c", counts));
+        assertFalse(filter.accept("src/generated/a.c", counts));
+        assertFalse(filter.accept("src/gen", counts));
+        assertTrue(filter.accept("src/ge", counts));
+        assertArrayEquals(new long[]{1, 2}, counts);
+    }
+
+    @Test
+    public void matchesGlobs() {
+        PathFilter filter = filter("-glob:src/*.c", "-glob:doc/?.md", "-glob:**/generated/**", "-glob:*.lock");
+        long[] counts = filter.newCounts();
+        assertFalse(filter.accept("src/a.c", counts));
+        assertTrue(filter.accept("src/lib/a.c", counts));
+        assertFalse(filter.accept("doc/a.md", counts));
+        assertTrue(filter.accept("doc/ab.md", counts));
+        assertTrue(filter.accept("doc/a/b.md", counts));
+        assertFalse(filter.accept("generated/a.c", counts));
+        assertFalse(filter.accept("src/main/generated/a.c", counts));
+        assertTrue(filter.accept("lib/generated.c", counts));
+        assertFalse(filter.accept("yarn.lock", counts));
+        assertTrue(filter.accept("lib/yarn.lock", counts));
+        assertArrayEquals(new long[]{1, 1, 2, 1}, counts);
+    }
+
+    // a path is kept if it matches an include rule and no exclude rule, every matching rule is counted
+    @Test
+    public void excludesBeforeIncludes() {
+        PathFilter filter = filter("+ext:java", "+dir:src/", "-dir:src/test/", "-glob:**/*Generated.java");
+        long[] counts = filter.newCounts();
+        assertTrue(filter.accept("src/Main.java", counts));
+        assertTrue(filter.accept("src/build.xml", counts));
+        assertTrue(filter.accept("lib/Util.java", counts));
+        assertFalse(filter.accept("lib/build.xml", counts));
+        assertFalse(filter.accept("src/test/MainTest.java", counts));
+        assertFalse(filter.accept("lib/ParserGenerated.java", counts));
+        assertArrayEquals(new long[]{4, 3, 1, 1}, counts);
+
+        assertTrue(filter("-ext:png").accept("README", filter("-ext:png").newCounts()));
+    }
+
+    @Test
+    public void addsCountsToRules() {
+        PathFilter filter = filter("+ext:java", "-dir:vendor/");
+        long[] firstCounts = filter.newCounts();
+        long[] secondCounts = filter.newCounts();
+        filter.accept("A.java", firstCounts);
+        filter.accept("vendor/B.java", secondCounts);
+        filter.accept("vendor/c.js", secondCounts);
+        filter.addCounts(firstCounts);
+        filter.addCounts(secondCounts);
+        assertArrayEquals(new long[]{0, 0}, secondCounts);
+        assertEquals(2, filter.getRules().get(0).getMatched());
+        assertEquals(2, filter.getRules().get(1).getMatched());
+        assertEquals("-dir:vendor/", filter.getRules().get(1).toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsExtensionsWithDirectories() {
+        filter("+ext:src/java");
+    }
+
+    private static PathFilter filter(String... rules) {
+        List<PathFilter.Rule> parsedRules = new ArrayList<>();
+        for (String rule : rules) {
+            parsedRules.add(PathFilter.Rule.parse(rule));
+        }
+        return PathFilter.compile(parsedRules);
+    }
+}
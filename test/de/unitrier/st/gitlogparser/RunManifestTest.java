@@ -0,0 +1,92 @@
+package de.unitrier.st.gitlogparser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+import static de.unitrier.st.gitlogparser.TestLogs.commit;
+import static de.unitrier.st.gitlogparser.TestLogs.hash;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RunManifestTest {
+    private static final String[] COMMITS = {
+            commit(hash('3'), "Third", "1\t0\tA.java"),
+            commit(hash('2'), "Second", "1\t0\tA.java"),
+            commit(hash('1'), "First", "1\t0\tA.java")
+    };
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void quarantinesMalformedLogs() throws IOException {
+        File inputDir = writeLogs();
+        File outputDir = temporaryFolder.newFolder("output");
+        TestLogs.parse(inputDir, outputDir);
+
+        assertTrue(TestLogs.read(outputDir, "p_a§master_commits.csv").contains(hash('2')));
+        assertEquals(Arrays.asList("gitlogparser-manifest.tsv", "gitlogparser-summary.json", "p_a§master_commits.csv"),
+                Arrays.asList(sortedNames(outputDir)));
+        String manifest = TestLogs.read(outputDir, RunManifest.FILE_NAME);
+        assertTrue(manifest.contains("complete\tp_a§master_commits.log\t"));
+        assertTrue(manifest.contains("quarantined\tp_b§master_commits.log\t"));
+        assertTrue(manifest.contains("java.lang.IllegalArgumentException: Wrong date format: yesterday"));
+        assertTrue(manifest.contains("quarantined\tp_c§master_commits.log.gz\t"));
+        assertTrue(manifest.contains("java.io.EOFException"));
+    }
+
+    @Test
+    public void resumesWithChangedLogs() throws IOException {
+        File inputDir = writeLogs();
+        File outputDir = temporaryFolder.newFolder("output");
+        TestLogs.parse(inputDir, outputDir);
+        Files.write(outputDir.toPath().resolve("p_a§master_commits.csv"),
+                "previous run".getBytes(StandardCharsets.UTF_8));
+        String manifest = TestLogs.read(outputDir, RunManifest.FILE_NAME);
+
+        // neither the complete nor the quarantined logs are parsed again
+        TestLogs.parse(inputDir, outputDir, "-R");
+        assertEquals("previous run", TestLogs.read(outputDir, "p_a§master_commits.csv"));
+        assertEquals(manifest, TestLogs.read(outputDir, RunManifest.FILE_NAME));
+
+        // a log that was corrected is parsed again
+        TestLogs.write(inputDir, "p_b§master_commits.log", COMMITS);
+        TestLogs.parse(inputDir, outputDir, "-R");
+        assertEquals("previous run", TestLogs.read(outputDir, "p_a§master_commits.csv"));
+        assertTrue(TestLogs.read(outputDir, "p_b§master_commits.csv").contains(hash('2')));
+        assertTrue(TestLogs.read(outputDir, RunManifest.FILE_NAME)
+                .substring(manifest.length()).startsWith("complete\tp_b§master_commits.log\t"));
+    }
+
+    // a log, a log with a wrong date, and a truncated gzip file
+    private File writeLogs() throws IOException {
+        File inputDir = temporaryFolder.newFolder("input");
+        TestLogs.write(inputDir, "p_a§master_commits.log", COMMITS);
+        TestLogs.write(inputDir, "p_b§master_commits.log",
+                COMMITS[0].replace("AuthorDate: 2018-02-20 18:34:32 -0500", "AuthorDate: yesterday"),
+                COMMITS[1], COMMITS[2]);
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(String.join("", COMMITS).getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] bytes = compressed.toByteArray();
+        Files.write(inputDir.toPath().resolve("p_c§master_commits.log.gz"), Arrays.copyOf(bytes, bytes.length / 2));
+        return inputDir;
+    }
+
+    private static String[] sortedNames(File dir) {
+        String[] names = dir.list();
+        Arrays.sort(names);
+        return names;
+    }
+}
@@ -0,0 +1,64 @@
+package de.unitrier.st.gitlogparser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// writes small git logs in the format of "git log --pretty=fuller --date=iso --numstat" and runs GitLogParser
+class TestLogs {
+    private TestLogs() {
+    }
+
+    // hash of 40 times the digit, e.g. hash('1') for 111...
+    static String hash(char digit) {
+        char[] hash = new char[40];
+        Arrays.fill(hash, digit);
+        return new String(hash);
+    }
+
+    // a commit with one message line and file stats such as "3\t1\tsrc/Main.java"
+    static String commit(String hash, String message, String... fileStats) {
+        return merge(hash, null, message, fileStats);
+    }
+
+    // a merge of the given parents (e.g. "1111111 2222222"), a commit if they are null
+    static String merge(String hash, String mergedCommits, String message, String... fileStats) {
+        StringBuilder commit = new StringBuilder("commit ").append(hash).append('\n');
+        if (mergedCommits != null) {
+            commit.append("Merge: ").append(mergedCommits).append('\n');
+        }
+        commit.append("Author:     Ann Author <ann@example.com>\n")
+                .append("AuthorDate: 2018-02-20 18:34:32 -0500\n")
+                .append("Commit:     Carl Committer <carl@example.com>\n")
+                .append("CommitDate: 2019-03-24 10:53:57 +0200\n")
+                .append('\n')
+                .append("    ").append(message).append('\n')
+                .append('\n');
+        for (String fileStat : fileStats) {
+            commit.append(fileStat).append('\n');
+        }
+        return commit.append('\n').toString();
+    }
+
+    static Path write(File dir, String fileName, String... commits) throws IOException {
+        Path logFilePath = dir.toPath().resolve(fileName);
+        Files.write(logFilePath, String.join("", commits).getBytes(StandardCharsets.UTF_8));
+        return logFilePath;
+    }
+
+    static void parse(File inputDir, File outputDir, String... options) {
+        List<String> args = new ArrayList<>(Arrays.asList(
+                "-i", inputDir.getAbsolutePath(), "-o", outputDir.getAbsolutePath(), "-P", "0"));
+        args.addAll(Arrays.asList(options));
+        GitLogParser.main(args.toArray(new String[0]));
+    }
+
+    static String read(File dir, String fileName) throws IOException {
+        return new String(Files.readAllBytes(dir.toPath().resolve(fileName)), StandardCharsets.UTF_8);
+    }
+}